@@ -0,0 +1,44 @@
+package com.jfrog.ide.idea.scan;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measure an operation over several iterations, after warming up the JIT, and print the results.
+ *
+ * @author yahavi
+ */
+class Benchmark {
+    private static final int WARMUP_ITERATIONS = 3;
+    private static final int ITERATIONS = 10;
+
+    @FunctionalInterface
+    interface Operation {
+        void run() throws Exception;
+    }
+
+    /**
+     * Run the operation and print its median, minimum and maximum durations.
+     *
+     * @param name      - The name of the measured operation
+     * @param operation - The operation
+     */
+    static void measure(String name, Operation operation) throws Exception {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            operation.run();
+        }
+        long[] durations = new long[ITERATIONS];
+        for (int i = 0; i < ITERATIONS; i++) {
+            long start = System.nanoTime();
+            operation.run();
+            durations[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(durations);
+        System.out.printf("%s: median %.2f ms, min %.2f ms, max %.2f ms (%d iterations)%n", name,
+                toMillis(durations[ITERATIONS / 2]), toMillis(durations[0]), toMillis(durations[ITERATIONS - 1]), ITERATIONS);
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
@@ -0,0 +1,37 @@
+package com.jfrog.ide.idea.scan;
+
+import com.intellij.openapi.util.io.FileUtil;
+import junit.framework.TestCase;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author yahavi
+ */
+public class ComponentCacheBenchmark extends TestCase {
+    private static final long MAX_AGE_MILLIS = TimeUnit.DAYS.toMillis(1);
+
+    /**
+     * Open a cache of 50,000 components and look up 1,000 of them.
+     */
+    public void testLargeCache() throws Exception {
+        int componentsCount = 50_000;
+        Path cacheDir = Files.createTempDirectory("component-cache");
+        try {
+            try (ComponentCache cache = new ComponentCache(cacheDir, "components", MAX_AGE_MILLIS)) {
+                cache.putAll(ComponentCacheTest.createComponents(0, componentsCount));
+            }
+            Benchmark.measure("Open a cache of 50,000 components and look up 1,000 of them", () -> {
+                try (ComponentCache cache = new ComponentCache(cacheDir, "components", MAX_AGE_MILLIS)) {
+                    for (int i = 0; i < componentsCount; i += componentsCount / 1000) {
+                        assertNotNull(cache.get("gav://group:artifact-" + i + ":1.0.0"));
+                    }
+                }
+            });
+        } finally {
+            FileUtil.delete(cacheDir.toFile());
+        }
+    }
+}
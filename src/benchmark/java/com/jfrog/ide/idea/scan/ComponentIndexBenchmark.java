@@ -0,0 +1,25 @@
+package com.jfrog.ide.idea.scan;
+
+import junit.framework.TestCase;
+import org.jfrog.build.extractor.scan.DependencyTree;
+import org.jfrog.build.extractor.scan.GeneralInfo;
+
+/**
+ * @author yahavi
+ */
+public class ComponentIndexBenchmark extends TestCase {
+
+    /**
+     * Index a tree of 100,000 nodes with 1,000 unique components, and apply a result to all nodes of each component.
+     */
+    public void testLargeTree() throws Exception {
+        DependencyTree root = ComponentIndexTest.createLargeTree();
+        Benchmark.measure("Index a tree of 100,000 nodes and update all nodes", () -> {
+            ComponentIndex index = ComponentIndex.create(root);
+            for (String componentId : index.getComponentIds()) {
+                GeneralInfo generalInfo = new GeneralInfo().componentId(componentId);
+                index.get(componentId).forEach(node -> node.setGeneralInfo(generalInfo));
+            }
+        });
+    }
+}
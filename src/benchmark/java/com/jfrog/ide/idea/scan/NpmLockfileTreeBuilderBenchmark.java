@@ -0,0 +1,28 @@
+package com.jfrog.ide.idea.scan;
+
+import com.intellij.openapi.util.io.FileUtil;
+import junit.framework.TestCase;
+import org.jfrog.build.api.util.NullLog;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * @author yahavi
+ */
+public class NpmLockfileTreeBuilderBenchmark extends TestCase {
+
+    /**
+     * Build the tree of a generated lockfile with 50,000 packages.
+     */
+    public void testLargeLockfile() throws Exception {
+        Path projectDir = Files.createTempDirectory("npm-large-lockfile");
+        try {
+            NpmLockfileTreeBuilderTest.writeLargeLockfile(projectDir, 50_000, 1_000);
+            NpmLockfileTreeBuilder treeBuilder = new NpmLockfileTreeBuilder(projectDir);
+            Benchmark.measure("Build the tree of 50,000 npm packages", () -> treeBuilder.buildTree(new NullLog()));
+        } finally {
+            FileUtil.delete(projectDir.toFile());
+        }
+    }
+}
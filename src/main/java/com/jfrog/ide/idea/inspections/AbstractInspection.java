@@ -11,6 +11,7 @@ import com.intellij.openapi.wm.ToolWindow;
 import com.intellij.openapi.wm.ToolWindowManager;
 import com.intellij.psi.PsiElement;
 import com.jfrog.ide.idea.navigation.NavigationService;
+import com.jfrog.ide.idea.scan.ComponentIndex;
 import com.jfrog.ide.idea.scan.ScanManager;
 import com.jfrog.ide.idea.ui.ComponentsTree;
 import com.jfrog.ide.idea.ui.LocalComponentsTree;
@@ -161,8 +162,9 @@ public abstract class AbstractInspection extends LocalInspectionTool implements
         if (modules == null) {
             return null; // No modules found for this element
         }
+        ComponentIndex componentIndex = getComponentIndex(element.getProject());
         return modules.stream()
-                .map(module -> getModuleDependency(module, generalInfo))
+                .map(module -> getModuleDependency(componentIndex, module, generalInfo))
                 .filter(Objects::nonNull)
                 .collect(Collectors.toList());
     }
@@ -170,21 +172,26 @@ public abstract class AbstractInspection extends LocalInspectionTool implements
     /**
      * Get the module dependency that matches to the input general info.
      *
-     * @param module      - The dependency tree module
-     * @param generalInfo - The general info
+     * @param componentIndex - The component index of the displayed tree
+     * @param module         - The dependency tree module
+     * @param generalInfo    - The general info
      * @return module dependencies that match to the input general info
      */
-    private DependencyTree getModuleDependency(DependencyTree module, GeneralInfo generalInfo) {
-        for (DependencyTree dependency : module.getChildren()) {
-            GeneralInfo childGeneralInfo = dependency.getGeneralInfo();
-            if (childGeneralInfo == null) {
-                childGeneralInfo = new GeneralInfo().componentId(dependency.getUserObject().toString());
-            }
-            if (compareGeneralInfos(generalInfo, childGeneralInfo)) {
-                return dependency;
-            }
-        }
-        return null;
+    private DependencyTree getModuleDependency(ComponentIndex componentIndex, DependencyTree module, GeneralInfo generalInfo) {
+        return componentIndex.getChildren(module, generalInfo.getGroupId(), generalInfo.getArtifactId()).stream()
+                .findFirst()
+                .orElse(null);
+    }
+
+    /**
+     * Get the component index of the displayed tree. The index is created once for each displayed tree, and shared by
+     * all inspections and annotations.
+     *
+     * @param project - The project
+     * @return the component index of the displayed tree
+     */
+    ComponentIndex getComponentIndex(Project project) {
+        return LocalComponentsTree.getInstance(project).getDisplayedComponentIndex();
     }
 
     /**
@@ -219,25 +226,13 @@ public abstract class AbstractInspection extends LocalInspectionTool implements
         return (DependencyTree) componentsTree.getModel().getRoot();
     }
 
-    /**
-     * Return true if and only if the dependency tree node containing the input path.
-     *
-     * @param node - The dependency tree node
-     * @param path - The path to check
-     * @return true if and only if the dependency tree node containing the input path
-     */
-    private boolean isContainingPath(DependencyTree node, String path) {
-        GeneralInfo childGeneralInfo = node.getGeneralInfo();
-        return StringUtils.equals(childGeneralInfo.getPath(), path);
-    }
-
     /**
      * Get all submodules from the dependencies-tree which are containing the dependency element.
      * Currently in use for Go and npm.
      *
      * @param root    - The root of the dependency tree
      * @param element - The Psi element in the package descriptor
-     * @return Set of modules containing the dependency or null if not found
+     * @return set of all modules containing the dependency stated in the general info
      */
     Set<DependencyTree> collectModules(DependencyTree root, PsiElement element) {
         // Single project, single module
@@ -247,12 +242,11 @@ public abstract class AbstractInspection extends LocalInspectionTool implements
 
         // Multi project
         String path = element.getContainingFile().getVirtualFile().getParent().getPath();
-        for (DependencyTree child : root.getChildren()) {
-            if (isContainingPath(child, path)) {
-                return Sets.newHashSet(child);
-            }
-        }
-        return null;
+        return getComponentIndex(element.getProject()).getByPath(path).stream()
+                .filter(module -> module.getParent() == root)
+                .findFirst()
+                .map(Sets::newHashSet)
+                .orElse(null);
     }
 
     /**
@@ -275,7 +269,7 @@ public abstract class AbstractInspection extends LocalInspectionTool implements
         root = getProjectNode(root, project);
 
         // Multi modules
-        return collectMultiModules(root, generalInfo);
+        return collectMultiModules(getComponentIndex(project), root, generalInfo);
     }
 
     /**
@@ -284,53 +278,39 @@ public abstract class AbstractInspection extends LocalInspectionTool implements
      * 2. The dependency is a direct dependency under the project node
      * 3. The dependency is a level 2 dependency under the project node
      *
+     * @param componentIndex       - The component index of the displayed tree
      * @param projectNode          - The project node
      * @param generatedGeneralInfo - General info of the dependency
      * @return the nodes containing the dependency
      */
-    private Set<DependencyTree> collectMultiModules(DependencyTree projectNode, GeneralInfo generatedGeneralInfo) {
+    private Set<DependencyTree> collectMultiModules(ComponentIndex componentIndex, DependencyTree projectNode, GeneralInfo generatedGeneralInfo) {
         Set<DependencyTree> modules = Sets.newHashSet();
-        for (DependencyTree child : projectNode.getChildren()) {
-            Object userObject = child.getUserObject();
-            if (userObject == null) {
-                continue;
-            }
-            String componentId = userObject.toString();
-            if (componentId.contains(":")) {
+        String artifactId = generatedGeneralInfo.getArtifactId();
+        if (artifactId == null) {
+            return modules;
+        }
+        // Check if the dependency is a module under the project node
+        if (componentIndex.get(artifactId).stream().anyMatch(module -> module.getParent() == projectNode)) {
+            modules.add(projectNode);
+        }
+        for (DependencyTree node : componentIndex.getByArtifactId(artifactId)) {
+            DependencyTree parent = (DependencyTree) node.getParent();
+            if (parent == projectNode) {
                 // Check if the dependency is a direct dependency under the project node
-                GeneralInfo generalInfo = new GeneralInfo().componentId(componentId);
-                if (compareGeneralInfos(generatedGeneralInfo, generalInfo)) {
+                String componentId = node.toString();
+                if (componentId.contains(":") && compareGeneralInfos(generatedGeneralInfo, new GeneralInfo().componentId(componentId))) {
                     modules.add(projectNode);
                 }
-            } else {
-                // Check if the dependency is a module under the project node
-                if (componentId.equals(generatedGeneralInfo.getArtifactId())) {
-                    modules.add(projectNode);
+            } else if (parent != null && parent.getParent() == projectNode) {
+                // Check if the dependency is a level 2 dependency under the project node
+                if (node.getGeneralInfo() != null && compareGeneralInfos(generatedGeneralInfo, node.getGeneralInfo())) {
+                    modules.add(parent);
                 }
             }
-
-            // Check if the dependency is a level 2 dependency under the project node
-            if (isParent(child, generatedGeneralInfo)) {
-                modules.add(child);
-            }
         }
         return modules;
     }
 
-    /**
-     * Return true iff the node is a direct parent of the dependency.
-     *
-     * @param node        - The project node
-     * @param generalInfo - General info of the dependency
-     * @return true iff the node is a direct parent of the dependency
-     */
-    private boolean isParent(DependencyTree node, GeneralInfo generalInfo) {
-        return node.getChildren().stream()
-                .map(DependencyTree::getGeneralInfo)
-                .filter(Objects::nonNull)
-                .anyMatch(childGeneralInfo -> compareGeneralInfos(generalInfo, childGeneralInfo));
-    }
-
     /**
      * Compare the generated general info from the Psi element and the build info from the Dependency tree.
      * If groupId is empty, compare only artifactId.
@@ -10,7 +10,10 @@ import org.jetbrains.plugins.gradle.settings.GradleSettings;
 import org.jfrog.build.extractor.scan.DependencyTree;
 import org.jfrog.build.extractor.scan.GeneralInfo;
 
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -24,11 +27,21 @@ public abstract class GradleInspection extends AbstractInspection {
         super(packageDescriptorName);
     }
 
+    /**
+     * Get the scan manager of the root build containing the build script. Root builds may be nested, so the nearest
+     * root build is returned.
+     *
+     * @param project - The project
+     * @param path    - The build script directory
+     * @return the scan manager of the root build containing the build script
+     */
     @Override
     ScanManager getScanManager(Project project, String path) {
+        Path buildScriptDir = Paths.get(path);
         return ScanManagersFactory.getScanManagers(project).stream()
                 .filter(GradleScanManager.class::isInstance)
-                .findAny()
+                .filter(manager -> buildScriptDir.startsWith(Paths.get(manager.getProjectPath())))
+                .max(Comparator.comparingInt(manager -> manager.getProjectPath().length()))
                 .orElse(null);
     }
 
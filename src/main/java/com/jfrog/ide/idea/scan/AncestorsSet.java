@@ -0,0 +1,57 @@
+package com.jfrog.ide.idea.scan;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * A persistent set of the dependencies added in the path from the root of a dependency tree.
+ * Each level of the tree holds only the keys added in that level, and a reference to the set of its parent.
+ * This replaces copying the whole set of the ancestors in each node, which costs O(ancestors) time and memory per node.
+ *
+ * @author yahavi
+ */
+class AncestorsSet {
+    private final AncestorsSet parent;
+    private final Set<String> level;
+
+    /**
+     * @param base - The keys added by the root. Keys added to the returned set are added to the base set.
+     * @return a new ancestors set
+     */
+    static AncestorsSet of(Set<String> base) {
+        return new AncestorsSet(null, base);
+    }
+
+    private AncestorsSet(AncestorsSet parent, Set<String> level) {
+        this.parent = parent;
+        this.level = level;
+    }
+
+    /**
+     * Create a new level, holding the keys added in the subtree of a node.
+     *
+     * @return the ancestors set of the children of the node
+     */
+    AncestorsSet newLevel() {
+        return new AncestorsSet(this, new HashSet<>());
+    }
+
+    /**
+     * Add the key to the current level, if it does not exist in any level.
+     *
+     * @param key - The dependency key
+     * @return true if the key was added
+     */
+    boolean add(String key) {
+        return !contains(key) && level.add(key);
+    }
+
+    boolean contains(String key) {
+        for (AncestorsSet current = this; current != null; current = current.parent) {
+            if (current.level.contains(key)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
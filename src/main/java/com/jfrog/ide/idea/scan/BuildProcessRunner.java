@@ -0,0 +1,345 @@
+package com.jfrog.ide.idea.scan;
+
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
+import org.apache.commons.lang3.StringUtils;
+import org.jfrog.build.api.util.Log;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
+
+/**
+ * Run the build tool processes of the dependency tree builds, such as 'go mod graph' and 'npm ls'.
+ * The number of concurrent processes of all projects is limited. The standard output of a process is streamed to a
+ * parser while the process runs, so the output is never kept in memory as a whole.
+ * A watcher destroys the process and all of its descendants if the scan is canceled, if the build thread is
+ * interrupted or if the process times out. The exit code, the output size and the wall time of each command are logged.
+ *
+ * @author yahavi
+ */
+class BuildProcessRunner {
+    private static final int STDERR_TAIL_BYTES = 4096;
+    private static final long POLL_INTERVAL_MILLIS = 100;
+    private static final String CANCELED = "canceled";
+    private static final String TIMED_OUT = "timed out";
+
+    private final ScheduledExecutorService executor;
+    private final LongSupplier timeoutMillis;
+    private final PriorityLimiter processes;
+    private final Log log;
+
+    /**
+     * Parse the standard output of a process while the process runs.
+     *
+     * @param <T> - The parsed type
+     */
+    @FunctionalInterface
+    interface OutputParser<T> {
+        T parse(InputStream stdout) throws IOException;
+    }
+
+    /**
+     * The parsed output and the metrics of a finished process.
+     *
+     * @param <T> - The parsed type
+     */
+    static class Result<T> {
+        private final T value;
+        private final int exitCode;
+        private final long outputBytes;
+        private final long wallTimeMillis;
+        private final String stderr;
+
+        private Result(T value, int exitCode, long outputBytes, long wallTimeMillis, String stderr) {
+            this.value = value;
+            this.exitCode = exitCode;
+            this.outputBytes = outputBytes;
+            this.wallTimeMillis = wallTimeMillis;
+            this.stderr = stderr;
+        }
+
+        T getValue() {
+            return value;
+        }
+
+        int getExitCode() {
+            return exitCode;
+        }
+
+        boolean isOk() {
+            return exitCode == 0;
+        }
+
+        /**
+         * @return the number of bytes the process wrote to its standard output
+         */
+        long getOutputBytes() {
+            return outputBytes;
+        }
+
+        long getWallTimeMillis() {
+            return wallTimeMillis;
+        }
+
+        /**
+         * @return the end of the standard error of the process
+         */
+        String getStderr() {
+            return stderr;
+        }
+    }
+
+    /**
+     * @param processes     - Limit the number of concurrent processes
+     * @param timeoutMillis - The timeout of a single process in milliseconds
+     * @param executor      - Run the watchers and read the standard errors of the processes
+     * @param log           - The logger
+     */
+    BuildProcessRunner(PriorityLimiter processes, LongSupplier timeoutMillis, ScheduledExecutorService executor, Log log) {
+        this.processes = processes;
+        this.timeoutMillis = timeoutMillis;
+        this.executor = executor;
+        this.log = log;
+    }
+
+    /**
+     * Run a command, and stop it if the scan running on the current thread is canceled.
+     *
+     * @param command    - The command and its arguments
+     * @param workingDir - The working directory of the process
+     * @param env        - The environment of the process
+     * @param parser     - Parse the standard output
+     * @param <T>        - The parsed type
+     * @return the parsed output and the metrics of the process
+     * @throws IOException              if the process couldn't start, timed out, or if the output couldn't be parsed
+     * @throws ProcessCanceledException if the scan was canceled or the build thread was interrupted
+     */
+    <T> Result<T> run(List<String> command, Path workingDir, Map<String, String> env, OutputParser<T> parser) throws IOException {
+        ProgressIndicator indicator = ProgressManager.getInstance().getProgressIndicator();
+        return run(command, workingDir, env, parser, () -> indicator != null && indicator.isCanceled());
+    }
+
+    /**
+     * Run a command after waiting for a free process permit.
+     *
+     * @param command    - The command and its arguments
+     * @param workingDir - The working directory of the process
+     * @param env        - The environment of the process
+     * @param parser     - Parse the standard output
+     * @param canceled   - Returns true if the process should be stopped
+     * @param <T>        - The parsed type
+     * @return the parsed output and the metrics of the process
+     * @throws IOException              if the process couldn't start, timed out, or if the output couldn't be parsed
+     * @throws ProcessCanceledException if canceled or if the calling thread was interrupted
+     */
+    <T> Result<T> run(List<String> command, Path workingDir, Map<String, String> env, OutputParser<T> parser,
+                      BooleanSupplier canceled) throws IOException {
+        String commandLine = String.join(" ", command);
+        try {
+            processes.acquire(() -> false, () -> {
+                if (canceled.getAsBoolean()) {
+                    throw new ProcessCanceledException();
+                }
+            });
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ProcessCanceledException(e);
+        }
+        long start = System.nanoTime();
+        try {
+            ProcessBuilder processBuilder = new ProcessBuilder(command).directory(workingDir.toFile());
+            processBuilder.environment().putAll(env);
+            Process process = processBuilder.start();
+            Result<T> result = runProcess(process, commandLine, parser, canceled, start);
+            log.debug(String.format("'%s' in %s exited with code %d after %d ms, with %d bytes of output.",
+                    commandLine, workingDir, result.getExitCode(), result.getWallTimeMillis(), result.getOutputBytes()));
+            return result;
+        } finally {
+            processes.release();
+        }
+    }
+
+    private <T> Result<T> runProcess(Process process, String commandLine, OutputParser<T> parser, BooleanSupplier canceled,
+                                     long start) throws IOException {
+        process.getOutputStream().close();
+        StderrTail stderr = new StderrTail(process.getErrorStream());
+        Future<?> stderrReader = executor.submit(stderr);
+        AtomicReference<String> stopReason = new AtomicReference<>();
+        Thread caller = Thread.currentThread();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(timeoutMillis.getAsLong());
+        ScheduledFuture<?> watcher = executor.scheduleWithFixedDelay(() -> {
+            String reason = null;
+            if (canceled.getAsBoolean() || caller.isInterrupted()) {
+                reason = CANCELED;
+            } else if (System.nanoTime() - deadline > 0) {
+                reason = TIMED_OUT;
+            }
+            if (reason != null && process.isAlive() && stopReason.compareAndSet(null, reason)) {
+                destroyProcessTree(process.toHandle());
+            }
+        }, POLL_INTERVAL_MILLIS, POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+
+        InputStream processStdout = process.getInputStream();
+        CountingInputStream stdout = new CountingInputStream(processStdout);
+        try (processStdout) {
+            T value;
+            try {
+                value = parser.parse(stdout);
+                // Read the rest of the output, so that the process doesn't block on a full pipe
+                stdout.transferTo(OutputStream.nullOutputStream());
+            } catch (IOException e) {
+                checkStopped(stopReason.get(), commandLine);
+                throw e;
+            }
+            int exitCode = process.waitFor();
+            checkStopped(stopReason.get(), commandLine);
+            awaitStderr(stderrReader);
+            return new Result<>(value, exitCode, stdout.getCount(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), stderr.toString());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ProcessCanceledException(e);
+        } finally {
+            watcher.cancel(false);
+            if (process.isAlive()) {
+                destroyProcessTree(process.toHandle());
+            }
+            stderrReader.cancel(true);
+        }
+    }
+
+    /**
+     * Wait shortly for the end of the standard error. A descendant of the process may keep the standard error open
+     * after the process exited, so the wait is bounded.
+     */
+    private static void awaitStderr(Future<?> stderrReader) throws InterruptedException {
+        try {
+            stderrReader.get(POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException | TimeoutException e) {
+            // The standard error is used only in the error messages
+        }
+    }
+
+    private void checkStopped(String stopReason, String commandLine) throws IOException {
+        if (stopReason == null) {
+            return;
+        }
+        if (TIMED_OUT.equals(stopReason)) {
+            throw new IOException(String.format("'%s' timed out after %d ms.", commandLine, timeoutMillis.getAsLong()));
+        }
+        throw new ProcessCanceledException();
+    }
+
+    /**
+     * Destroy a process and all of its descendants. The descendants are collected before the process is destroyed,
+     * since they may not be reachable from it afterwards.
+     *
+     * @param process - The process
+     */
+    static void destroyProcessTree(ProcessHandle process) {
+        List<ProcessHandle> descendants = process.descendants().collect(Collectors.toList());
+        process.destroyForcibly();
+        descendants.forEach(ProcessHandle::destroyForcibly);
+    }
+
+    /**
+     * Keep the end of the standard error of a process, for the error messages.
+     */
+    private static class StderrTail implements Runnable {
+        private final byte[] tail = new byte[STDERR_TAIL_BYTES];
+        private final InputStream stderr;
+        private long total;
+
+        private StderrTail(InputStream stderr) {
+            this.stderr = stderr;
+        }
+
+        @Override
+        public void run() {
+            byte[] buffer = new byte[STDERR_TAIL_BYTES];
+            try (InputStream in = stderr) {
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    append(buffer, read);
+                }
+            } catch (IOException e) {
+                // The process was destroyed
+            }
+        }
+
+        private synchronized void append(byte[] buffer, int length) {
+            for (int i = 0; i < length; i++) {
+                tail[(int) (total++ % STDERR_TAIL_BYTES)] = buffer[i];
+            }
+        }
+
+        @Override
+        public synchronized String toString() {
+            int length = (int) Math.min(total, STDERR_TAIL_BYTES);
+            byte[] ordered = new byte[length];
+            for (int i = 0; i < length; i++) {
+                ordered[i] = tail[(int) ((total - length + i) % STDERR_TAIL_BYTES)];
+            }
+            return StringUtils.trim(new String(ordered, StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * Count the bytes read from the standard output.
+     */
+    private static class CountingInputStream extends FilterInputStream {
+        private final AtomicLong count = new AtomicLong();
+
+        private CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int value = super.read();
+            if (value != -1) {
+                count.incrementAndGet();
+            }
+            return value;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int read = super.read(b, off, len);
+            if (read > 0) {
+                count.addAndGet(read);
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count.addAndGet(skipped);
+            return skipped;
+        }
+
+        /**
+         * Keep the standard output open if the parser closes it, so that the rest of the output can be read.
+         */
+        @Override
+        public void close() {
+        }
+
+        private long getCount() {
+            return count.get();
+        }
+    }
+}
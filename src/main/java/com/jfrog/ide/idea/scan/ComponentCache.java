@@ -0,0 +1,440 @@
+package com.jfrog.ide.idea.scan;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * A persistent map from component ID to a binary value, for caches with tens of thousands of components.
+ * <p>
+ * The cache consists of two files of the same generation:
+ * <ul>
+ * <li>A data file, read through a {@link MappedByteBuffer}. It starts with an index of record offsets sorted by the
+ * component ID, so that a lookup is a binary search which reads only the compared records.</li>
+ * <li>An append-only log of the records added since the data file was written. The log is loaded to the memory when
+ * the cache is opened.</li>
+ * </ul>
+ * When the log grows, the data file and the log are merged into the data file of the next generation. The new data file
+ * is written to a temporary file and then atomically moved, so a crash leaves either the old or the new generation.
+ * Each record is length-prefixed: key length, key, timestamp, value length, value. A record truncated by a crash at
+ * the end of the log is ignored.
+ * <p>
+ * The cache directory is shared by all IDE processes. Appending to the log, creating a generation and deleting the old
+ * generations are done under an exclusive lock on the lock file of the cache. Before compacting, the cache moves to the
+ * latest generation on the disk, so the records compacted by other processes are kept.
+ *
+ * @author yahavi
+ */
+class ComponentCache implements Closeable {
+    private static final int MAGIC = 0x4A464343;
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_SIZE = Integer.BYTES * 3;
+    private static final String DATA_SUFFIX = ".data";
+    private static final String LOG_SUFFIX = ".log";
+    private static final String LOCK_SUFFIX = ".lock";
+    private static final int MIN_COMPACTION_LOG_RECORDS = 1000;
+
+    private final Map<String, Record> logRecords = new HashMap<>();
+    private final long maxAgeMillis;
+    private final String name;
+    private final Path dir;
+
+    private final FileChannel lockChannel;
+    private OutputStream logOutputStream;
+    private MappedByteBuffer data;
+    private int dataRecordsCount;
+    private long generation;
+
+    private static class Record {
+        private final long timestamp;
+        private final byte[] value;
+
+        private Record(long timestamp, byte[] value) {
+            this.timestamp = timestamp;
+            this.value = value;
+        }
+    }
+
+    /**
+     * Open the cache, or create an empty cache if it doesn't exist.
+     *
+     * @param dir          - The cache directory
+     * @param name         - The cache name, used as the prefix of the cache files
+     * @param maxAgeMillis - The maximal age of a record. Older records are not returned and are removed on compaction.
+     * @throws IOException in case of an error reading the cache files
+     */
+    ComponentCache(Path dir, String name, long maxAgeMillis) throws IOException {
+        this.dir = dir;
+        this.name = name;
+        this.maxAgeMillis = maxAgeMillis;
+        Files.createDirectories(dir);
+        lockChannel = FileChannel.open(dir.resolve(name + LOCK_SUFFIX), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        try (FileLock ignored = lock()) {
+            generation = findLatestGeneration();
+            if (!mapDataFile()) {
+                // A missing or corrupted data file - start a new generation
+                generation = nextGeneration();
+                writeDataFile(generation, new TreeMap<>());
+                mapDataFile();
+            }
+            loadLog();
+            deleteOldGenerations();
+        } catch (IOException | RuntimeException e) {
+            lockChannel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @param key - The component ID
+     * @return the value of the component or null if the component is not in the cache or expired
+     */
+    synchronized byte[] get(String key) {
+        Record record = logRecords.get(key);
+        if (record == null) {
+            record = findDataRecord(key.getBytes(StandardCharsets.UTF_8));
+        }
+        if (record == null || isExpired(record)) {
+            return null;
+        }
+        return record.value;
+    }
+
+    /**
+     * Add or replace components. The records are appended to the log, and the cache is compacted if the log is large.
+     *
+     * @param entries - Component ID to value
+     * @throws IOException in case of an error writing the log
+     */
+    synchronized void putAll(Map<String, byte[]> entries) throws IOException {
+        if (entries.isEmpty()) {
+            return;
+        }
+        long timestamp = System.currentTimeMillis();
+        try (FileLock ignored = lock()) {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(logOutputStream));
+            for (Map.Entry<String, byte[]> entry : entries.entrySet()) {
+                writeRecord(out, entry.getKey().getBytes(StandardCharsets.UTF_8), timestamp, entry.getValue());
+                logRecords.put(entry.getKey(), new Record(timestamp, entry.getValue()));
+            }
+            out.flush();
+            if (logRecords.size() >= Math.max(MIN_COMPACTION_LOG_RECORDS, dataRecordsCount / 4)) {
+                compactLocked();
+            }
+        }
+    }
+
+    /**
+     * Merge the data file and the log into the data file of the next generation, and start a new log.
+     *
+     * @throws IOException in case of an error writing the new data file
+     */
+    synchronized void compact() throws IOException {
+        try (FileLock ignored = lock()) {
+            compactLocked();
+        }
+    }
+
+    /**
+     * Compact the cache while holding the lock of the cache directory. If other processes created newer generations,
+     * the records of the latest generation are merged with the records of this process.
+     */
+    private void compactLocked() throws IOException {
+        catchUpLatestGeneration();
+        SortedMap<String, Record> records = new TreeMap<>(ComponentCache::compareKeys);
+        for (int i = 0; i < dataRecordsCount; i++) {
+            ByteBuffer record = data.duplicate();
+            record.position(getRecordOffset(i));
+            byte[] key = new byte[record.getInt()];
+            record.get(key);
+            long timestamp = record.getLong();
+            byte[] value = new byte[record.getInt()];
+            record.get(value);
+            records.put(new String(key, StandardCharsets.UTF_8), new Record(timestamp, value));
+        }
+        records.putAll(logRecords);
+        records.values().removeIf(this::isExpired);
+
+        long nextGeneration = nextGeneration();
+        writeDataFile(nextGeneration, records);
+        logOutputStream.close();
+        generation = nextGeneration;
+        logRecords.clear();
+        mapDataFile();
+        logOutputStream = Files.newOutputStream(getFile(generation, LOG_SUFFIX), StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        deleteOldGenerations();
+    }
+
+    /**
+     * @return the number of records in the cache, including expired records
+     */
+    synchronized int size() {
+        int size = dataRecordsCount;
+        for (String key : logRecords.keySet()) {
+            if (findDataRecord(key.getBytes(StandardCharsets.UTF_8)) == null) {
+                size++;
+            }
+        }
+        return size;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            logOutputStream.close();
+        } finally {
+            lockChannel.close();
+        }
+    }
+
+    /**
+     * Lock the cache files against other processes. Returns null if another cache in this process holds the lock.
+     *
+     * @return the lock or null
+     * @throws IOException in case of an error locking the lock file
+     */
+    private FileLock lock() throws IOException {
+        try {
+            return lockChannel.lock();
+        } catch (OverlappingFileLockException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Move to the latest generation, if another process compacted the cache since this cache was opened. The records
+     * in the log of this process are kept, unless the latest generation has newer records.
+     */
+    private void catchUpLatestGeneration() throws IOException {
+        long latestGeneration = findLatestGeneration();
+        if (latestGeneration <= generation) {
+            return;
+        }
+        long currentGeneration = generation;
+        generation = latestGeneration;
+        if (!mapDataFile()) {
+            generation = currentGeneration;
+            return;
+        }
+        Map<String, Record> ownRecords = new HashMap<>(logRecords);
+        logRecords.clear();
+        logOutputStream.close();
+        loadLog();
+        ownRecords.forEach((key, record) -> logRecords.merge(key, record,
+                (latest, own) -> own.timestamp >= latest.timestamp ? own : latest));
+    }
+
+    /**
+     * @return a generation newer than the generations of all processes
+     */
+    private long nextGeneration() throws IOException {
+        return Math.max(generation, findLatestGeneration()) + 1;
+    }
+
+    private boolean isExpired(Record record) {
+        return System.currentTimeMillis() - record.timestamp > maxAgeMillis;
+    }
+
+    /**
+     * Binary search the key in the sorted index of the data file.
+     */
+    private Record findDataRecord(byte[] key) {
+        int low = 0, high = dataRecordsCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            ByteBuffer record = data.duplicate();
+            record.position(getRecordOffset(mid));
+            byte[] recordKey = new byte[record.getInt()];
+            record.get(recordKey);
+            int comparison = Arrays.compareUnsigned(recordKey, key);
+            if (comparison < 0) {
+                low = mid + 1;
+            } else if (comparison > 0) {
+                high = mid - 1;
+            } else {
+                long timestamp = record.getLong();
+                byte[] value = new byte[record.getInt()];
+                record.get(value);
+                return new Record(timestamp, value);
+            }
+        }
+        return null;
+    }
+
+    private int getRecordOffset(int index) {
+        return data.getInt(HEADER_SIZE + index * Integer.BYTES);
+    }
+
+    /**
+     * Write the records to a temporary file, and atomically move it to the data file of the given generation.
+     */
+    private void writeDataFile(long generation, SortedMap<String, Record> records) throws IOException {
+        Path tempFile = Files.createTempFile(dir, name, ".tmp");
+        try {
+            List<byte[]> keys = new ArrayList<>(records.size());
+            records.keySet().forEach(key -> keys.add(key.getBytes(StandardCharsets.UTF_8)));
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                out.writeInt(records.size());
+                long offset = HEADER_SIZE + (long) records.size() * Integer.BYTES;
+                int i = 0;
+                for (Record record : records.values()) {
+                    if (offset > Integer.MAX_VALUE) {
+                        throw new IOException("Component cache " + name + " is too large");
+                    }
+                    out.writeInt((int) offset);
+                    offset += getRecordSize(keys.get(i++), record.value);
+                }
+                i = 0;
+                for (Record record : records.values()) {
+                    writeRecord(out, keys.get(i++), record.timestamp, record.value);
+                }
+            }
+            try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.WRITE)) {
+                channel.force(true);
+            }
+            Files.move(tempFile, getFile(generation, DATA_SUFFIX), StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    /**
+     * Map the data file of the current generation.
+     *
+     * @return false if the data file is missing or corrupted
+     */
+    private boolean mapDataFile() throws IOException {
+        Path dataFile = getFile(generation, DATA_SUFFIX);
+        if (!Files.isRegularFile(dataFile) || Files.size(dataFile) < HEADER_SIZE || Files.size(dataFile) > Integer.MAX_VALUE) {
+            return false;
+        }
+        try (FileChannel channel = FileChannel.open(dataFile, StandardOpenOption.READ)) {
+            MappedByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (data.getInt(0) != MAGIC || data.getInt(Integer.BYTES) != FORMAT_VERSION) {
+                return false;
+            }
+            int recordsCount = data.getInt(Integer.BYTES * 2);
+            if (recordsCount < 0 || HEADER_SIZE + (long) recordsCount * Integer.BYTES > data.capacity()) {
+                return false;
+            }
+            this.data = data;
+            this.dataRecordsCount = recordsCount;
+            return true;
+        }
+    }
+
+    /**
+     * Load the log of the current generation, and truncate a record partially written before a crash.
+     */
+    private void loadLog() throws IOException {
+        Path logFile = getFile(generation, LOG_SUFFIX);
+        long validLength = 0;
+        if (Files.isRegularFile(logFile)) {
+            long logLength = Files.size(logFile);
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(logFile)))) {
+                while (true) {
+                    byte[] key = readBytes(in, logLength - validLength);
+                    long timestamp = in.readLong();
+                    byte[] value = readBytes(in, logLength - validLength);
+                    logRecords.put(new String(key, StandardCharsets.UTF_8), new Record(timestamp, value));
+                    validLength += getRecordSize(key, value);
+                }
+            } catch (EOFException e) {
+                // End of the log
+            }
+            try (FileChannel channel = FileChannel.open(logFile, StandardOpenOption.WRITE)) {
+                channel.truncate(validLength);
+            }
+        }
+        logOutputStream = Files.newOutputStream(logFile, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    private long findLatestGeneration() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.map(this::getGeneration).filter(Objects::nonNull).max(Long::compare).orElse(0L);
+        }
+    }
+
+    /**
+     * Delete the files of the previous generations. Called while holding the lock. On Windows, a mapped file can't be
+     * deleted until it is unmapped by the garbage collector, so the deletion is retried when the cache is opened again.
+     */
+    private void deleteOldGenerations() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            files.filter(file -> {
+                Long fileGeneration = getGeneration(file);
+                return fileGeneration != null && fileGeneration < generation;
+            }).forEach(file -> {
+                try {
+                    Files.deleteIfExists(file);
+                } catch (IOException e) {
+                    // Deleted on the next compaction
+                }
+            });
+        }
+    }
+
+    private Path getFile(long generation, String suffix) {
+        return dir.resolve(name + "." + generation + suffix);
+    }
+
+    /**
+     * @return the generation of a cache file or null if the file doesn't belong to the cache
+     */
+    private Long getGeneration(Path file) {
+        String fileName = file.getFileName().toString();
+        if (!fileName.startsWith(name + ".")) {
+            return null;
+        }
+        String suffix = fileName.endsWith(DATA_SUFFIX) ? DATA_SUFFIX : fileName.endsWith(LOG_SUFFIX) ? LOG_SUFFIX : null;
+        if (suffix == null) {
+            return null;
+        }
+        try {
+            return Long.parseLong(fileName.substring(name.length() + 1, fileName.length() - suffix.length()));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Read a length-prefixed byte array.
+     *
+     * @param maxLength - The number of bytes left in the file
+     * @throws EOFException if the length is invalid or the array is truncated
+     */
+    private static byte[] readBytes(DataInputStream in, long maxLength) throws IOException {
+        int length = in.readInt();
+        if (length < 0 || length > maxLength) {
+            throw new EOFException();
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return bytes;
+    }
+
+    private static void writeRecord(DataOutputStream out, byte[] key, long timestamp, byte[] value) throws IOException {
+        out.writeInt(key.length);
+        out.write(key);
+        out.writeLong(timestamp);
+        out.writeInt(value.length);
+        out.write(value);
+    }
+
+    private static long getRecordSize(byte[] key, byte[] value) {
+        return Integer.BYTES + key.length + Long.BYTES + Integer.BYTES + value.length;
+    }
+
+    private static int compareKeys(String lhs, String rhs) {
+        return Arrays.compareUnsigned(lhs.getBytes(StandardCharsets.UTF_8), rhs.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,188 @@
+package com.jfrog.ide.idea.scan;
+
+import org.apache.commons.lang3.StringUtils;
+import org.jfrog.build.extractor.scan.DependencyTree;
+import org.jfrog.build.extractor.scan.GeneralInfo;
+
+import java.util.*;
+
+/**
+ * An index from each component in a dependency tree to all of its nodes.
+ * A shared transitive dependency may appear in thousands of nodes. The index allows handling each component once,
+ * and then applying the results to all of its nodes.
+ * The index describes the tree at the time it was created, and should be recreated after the tree changes.
+ *
+ * @author yahavi
+ */
+public class ComponentIndex {
+    private final Map<String, List<DependencyTree>> nodesByComponentId = new HashMap<>();
+    private Map<String, List<DependencyTree>> nodesByArtifactId;
+    // The general info of the components whose nodes have no general info, derived from the component ID
+    private Map<String, GeneralInfo> derivedGeneralInfos;
+    // Parent node to its children by their normalized "groupId:artifactId" keys. Parents are compared by identity.
+    private final Map<DependencyTree, Map<String, List<DependencyTree>>> childrenByParent = new IdentityHashMap<>();
+    private Map<String, List<DependencyTree>> nodesByPath;
+    private final DependencyTree root;
+    private int nodesCount;
+
+    private ComponentIndex(DependencyTree root) {
+        this.root = root;
+    }
+
+    /**
+     * Create an index of the descendants of the root.
+     *
+     * @param root - The root of the dependency tree
+     * @return the index
+     */
+    public static ComponentIndex create(DependencyTree root) {
+        ComponentIndex index = new ComponentIndex(root);
+        if (root == null) {
+            return index;
+        }
+        Deque<DependencyTree> nodes = new ArrayDeque<>(root.getChildren());
+        while (!nodes.isEmpty()) {
+            DependencyTree node = nodes.pop();
+            index.nodesByComponentId.computeIfAbsent(node.toString(), componentId -> new ArrayList<>()).add(node);
+            index.nodesCount++;
+            nodes.addAll(node.getChildren());
+        }
+        return index;
+    }
+
+    /**
+     * @return the root of the indexed dependency tree
+     */
+    public DependencyTree getRoot() {
+        return root;
+    }
+
+    /**
+     * @param componentId - The component ID
+     * @return all nodes of the component or an empty list
+     */
+    public List<DependencyTree> get(String componentId) {
+        return nodesByComponentId.getOrDefault(componentId, Collections.emptyList());
+    }
+
+    /**
+     * Get all nodes of components with the given artifact ID. Used to match the dependencies in the project
+     * descriptors, which may not contain the group ID or the version.
+     *
+     * @param artifactId - The artifact ID
+     * @return all nodes of components with the artifact ID or an empty list
+     */
+    public synchronized List<DependencyTree> getByArtifactId(String artifactId) {
+        if (nodesByArtifactId == null) {
+            nodesByArtifactId = new HashMap<>();
+            for (Map.Entry<String, List<DependencyTree>> component : nodesByComponentId.entrySet()) {
+                GeneralInfo generalInfo = getGeneralInfo(component.getValue().get(0));
+                if (generalInfo.getArtifactId() != null) {
+                    nodesByArtifactId.computeIfAbsent(generalInfo.getArtifactId(), key -> new ArrayList<>()).addAll(component.getValue());
+                }
+            }
+        }
+        return nodesByArtifactId.getOrDefault(artifactId, Collections.emptyList());
+    }
+
+    /**
+     * Get the direct dependencies of a node with the given group ID and artifact ID. Used to find the dependencies in
+     * the project descriptors under their project and module nodes. The children of each queried parent are indexed
+     * once, so the rest of the tree is never traversed.
+     *
+     * @param parent     - The parent node
+     * @param groupId    - The group ID or an empty string to match the children of all group IDs
+     * @param artifactId - The artifact ID
+     * @return the matching children of the parent, in the order of the children, or an empty list
+     */
+    public synchronized List<DependencyTree> getChildren(DependencyTree parent, String groupId, String artifactId) {
+        if (parent == null || artifactId == null) {
+            return Collections.emptyList();
+        }
+        Map<String, List<DependencyTree>> children = childrenByParent.computeIfAbsent(parent, this::indexChildren);
+        return children.getOrDefault(createArtifactKey(groupId, artifactId), Collections.emptyList());
+    }
+
+    /**
+     * Index the children of a node by their group ID and artifact ID. Each child is also indexed with an empty group ID,
+     * since dependencies in the descriptors may omit the group ID.
+     *
+     * @param parent - The parent node
+     * @return the children of the parent by their normalized "groupId:artifactId" keys
+     */
+    private Map<String, List<DependencyTree>> indexChildren(DependencyTree parent) {
+        Map<String, List<DependencyTree>> children = new HashMap<>();
+        for (DependencyTree child : parent.getChildren()) {
+            GeneralInfo generalInfo = getGeneralInfo(child);
+            if (generalInfo.getArtifactId() == null) {
+                continue;
+            }
+            String key = createArtifactKey(generalInfo.getGroupId(), generalInfo.getArtifactId());
+            children.computeIfAbsent(key, k -> new ArrayList<>(1)).add(child);
+            String anyGroupKey = createArtifactKey("", generalInfo.getArtifactId());
+            if (!anyGroupKey.equals(key)) {
+                children.computeIfAbsent(anyGroupKey, k -> new ArrayList<>(1)).add(child);
+            }
+        }
+        return children;
+    }
+
+    private static String createArtifactKey(String groupId, String artifactId) {
+        return StringUtils.trimToEmpty(groupId) + ":" + StringUtils.trimToEmpty(artifactId);
+    }
+
+    /**
+     * Get the nodes whose general info has the given path, such as the modules of the project descriptors.
+     *
+     * @param path - The path
+     * @return all nodes with the path or an empty list
+     */
+    public synchronized List<DependencyTree> getByPath(String path) {
+        if (nodesByPath == null) {
+            nodesByPath = new HashMap<>();
+            nodesByComponentId.values().stream()
+                    .flatMap(Collection::stream)
+                    .filter(node -> node.getGeneralInfo() != null && node.getGeneralInfo().getPath() != null)
+                    .forEach(node -> nodesByPath.computeIfAbsent(node.getGeneralInfo().getPath(), key -> new ArrayList<>()).add(node));
+        }
+        return nodesByPath.getOrDefault(path, Collections.emptyList());
+    }
+
+    /**
+     * Get the general info of an indexed node. If the node has no general info, the general info is derived from the
+     * component ID once for all nodes of the component.
+     *
+     * @param node - The node
+     * @return the general info of the node
+     */
+    public synchronized GeneralInfo getGeneralInfo(DependencyTree node) {
+        if (node.getGeneralInfo() != null) {
+            return node.getGeneralInfo();
+        }
+        if (derivedGeneralInfos == null) {
+            derivedGeneralInfos = new HashMap<>();
+        }
+        return derivedGeneralInfos.computeIfAbsent(node.toString(), componentId -> new GeneralInfo().componentId(componentId));
+    }
+
+    /**
+     * @return the IDs of all components in the tree
+     */
+    public Set<String> getComponentIds() {
+        return Collections.unmodifiableSet(nodesByComponentId.keySet());
+    }
+
+    /**
+     * @return the number of unique components in the tree
+     */
+    public int size() {
+        return nodesByComponentId.size();
+    }
+
+    /**
+     * @return the number of indexed nodes
+     */
+    public int getNodesCount() {
+        return nodesCount;
+    }
+}
@@ -0,0 +1,221 @@
+package com.jfrog.ide.idea.scan;
+
+import com.intellij.openapi.progress.ProgressManager;
+import com.jfrog.ide.common.log.ProgressIndicator;
+import com.jfrog.ide.common.scan.ComponentPrefix;
+import com.jfrog.ide.common.utils.Utils;
+import com.jfrog.ide.idea.configuration.GlobalSettings;
+import com.jfrog.ide.idea.configuration.ServerConfigImpl;
+import com.jfrog.ide.idea.log.Logger;
+import com.jfrog.xray.client.Xray;
+import com.jfrog.xray.client.impl.ComponentsFactory;
+import com.jfrog.xray.client.impl.XrayClientBuilder;
+import com.jfrog.xray.client.services.summary.Artifact;
+import com.jfrog.xray.client.services.summary.Components;
+import com.jfrog.xray.client.services.summary.SummaryResponse;
+import org.apache.commons.collections4.ListUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.jfrog.build.api.util.Log;
+import org.jfrog.build.extractor.scan.DependencyTree;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static com.jfrog.ide.idea.ui.configuration.JFrogGlobalConfiguration.USER_AGENT;
+
+/**
+ * Scan flat lists of components with Xray, for a single scan manager.
+ * The components are scanned as copies, so the scan results of the scan manager are never replaced during a scan.
+ * Each batch of the {@link XrayRequestScheduler} is sent as a single component summary request, so the batch size of
+ * the scheduler is the size of the requests, and the requests of all scanners share the global limit on the concurrent
+ * Xray requests. The Xray info of the scanned components is kept in the {@link XrayResultsCache}, which is the scan
+ * cache of all scan managers.
+ *
+ * @author yahavi
+ */
+class ComponentsScanner {
+    private final Supplier<Xray> xrayClientFactory;
+    private final XrayRequestScheduler scheduler;
+    private final XrayResultsCache resultsCache;
+    private final ComponentPrefix prefix;
+
+    /**
+     * @param prefix - Components prefix for xray scan, e.g. gav:// or npm://.
+     */
+    ComponentsScanner(ComponentPrefix prefix) {
+        this(prefix, XrayRequestScheduler.getInstance(), XrayResultsCache.getInstance(), ComponentsScanner::createXrayClient);
+    }
+
+    /**
+     * @param prefix            - Components prefix for xray scan, e.g. gav:// or npm://.
+     * @param scheduler         - Send the components to Xray in batches
+     * @param resultsCache      - The Xray info of the scanned components
+     * @param xrayClientFactory - Create an Xray client for a scan
+     */
+    ComponentsScanner(ComponentPrefix prefix, XrayRequestScheduler scheduler, XrayResultsCache resultsCache, Supplier<Xray> xrayClientFactory) {
+        this.prefix = prefix;
+        this.scheduler = scheduler;
+        this.resultsCache = resultsCache;
+        this.xrayClientFactory = xrayClientFactory;
+    }
+
+    /**
+     * Scan the given components with Xray, without scanning their descendants.
+     *
+     * @param components    - The components to scan
+     * @param quickScan     - True to allow usage of the scan cache
+     * @param indicator     - The progress indicator
+     * @param highPriority  - Returns true if the requests should be sent before the requests of other projects
+     * @param checkCanceled - Throws an unchecked exception if the scan was canceled
+     * @return component ID to a copy of the component node, populated with the Xray info
+     */
+    Map<String, DependencyTree> scan(Collection<DependencyTree> components, boolean quickScan, ProgressIndicator indicator,
+                                     BooleanSupplier highPriority, Runnable checkCanceled) throws Exception {
+        Map<String, DependencyTree> copies = new LinkedHashMap<>();
+        for (DependencyTree component : components) {
+            copies.computeIfAbsent(component.toString(), componentId -> (DependencyTree) component.clone());
+        }
+        Map<String, DependencyTree> scannedComponents = new HashMap<>();
+        List<DependencyTree> componentsToScan = new ArrayList<>(copies.values());
+        if (quickScan) {
+            List<DependencyTree> missing = resultsCache.populateComponents(componentsToScan);
+            Set<DependencyTree> missingSet = Collections.newSetFromMap(new IdentityHashMap<>());
+            missingSet.addAll(missing);
+            componentsToScan.stream().filter(component -> !missingSet.contains(component))
+                    .forEach(component -> scannedComponents.put(component.toString(), component));
+            componentsToScan = missing;
+        }
+        if (componentsToScan.isEmpty()) {
+            getLog().debug("All components exist in the cache.");
+            return scannedComponents;
+        }
+        Xray xrayClient = xrayClientFactory.get();
+        double total = componentsToScan.size();
+        AtomicInteger sent = new AtomicInteger();
+        scheduler.execute(componentsToScan, batch -> {
+            Map<String, DependencyTree> scannedBatch = scanBatch(xrayClient, batch);
+            scannedComponents.putAll(scannedBatch);
+            // Only the scanned components are saved, rather than the whole trees on each publish
+            resultsCache.put(scannedBatch);
+            indicator.setFraction(sent.addAndGet(batch.size()) / total);
+        }, highPriority, checkCanceled);
+        return scannedComponents;
+    }
+
+    /**
+     * Scan the components of a tree and add the Xray info to all of their nodes.
+     *
+     * @param components    - The component index of the tree
+     * @param componentIds  - The IDs of the components to scan
+     * @param quickScan     - True to allow usage of the scan cache
+     * @param indicator     - The progress indicator
+     * @param highPriority  - Returns true if the requests should be sent before the requests of other projects
+     * @param checkCanceled - Throws an unchecked exception if the scan was canceled
+     * @return the updated nodes
+     */
+    List<DependencyTree> scanAndApply(ComponentIndex components, Collection<String> componentIds, boolean quickScan, ProgressIndicator indicator,
+                                      BooleanSupplier highPriority, Runnable checkCanceled) throws Exception {
+        List<DependencyTree> componentNodes = componentIds.stream()
+                .map(componentId -> components.get(componentId).get(0))
+                .collect(Collectors.toList());
+        Map<String, DependencyTree> scannedComponents = scan(componentNodes, quickScan, indicator, highPriority, checkCanceled);
+        List<DependencyTree> updatedNodes = new ArrayList<>();
+        for (String componentId : componentIds) {
+            DependencyTree scanned = scannedComponents.get(componentId);
+            if (scanned == null) {
+                continue;
+            }
+            for (DependencyTree node : components.get(componentId)) {
+                copyXrayInfo(scanned, node);
+                updatedNodes.add(node);
+            }
+        }
+        return updatedNodes;
+    }
+
+    /**
+     * Send a batch of components to Xray in a single component summary request. Batches of different scans are sent
+     * concurrently, up to the limit of the {@link XrayRequestScheduler}.
+     *
+     * @param xrayClient - The Xray client
+     * @param components - The components to scan
+     * @return component ID to the component, populated with the Xray info. Components unknown to Xray are omitted.
+     */
+    private Map<String, DependencyTree> scanBatch(Xray xrayClient, List<DependencyTree> components) throws IOException {
+        Map<String, DependencyTree> componentsById = components.stream()
+                .collect(Collectors.toMap(DependencyTree::toString, Function.identity(), (first, second) -> first));
+        Components request = ComponentsFactory.create();
+        componentsById.keySet().forEach(componentId -> request.addComponent(prefix.getPrefix() + componentId, ""));
+        SummaryResponse response = xrayClient.summary().component(request);
+        Map<String, DependencyTree> scannedComponents = new HashMap<>();
+        if (response == null || response.getArtifacts() == null) {
+            return scannedComponents;
+        }
+        for (Artifact artifact : response.getArtifacts()) {
+            if (artifact.getGeneral() == null) {
+                continue;
+            }
+            String componentId = StringUtils.removeStart(artifact.getGeneral().getComponentId(), prefix.getPrefix());
+            DependencyTree component = componentsById.get(componentId);
+            if (component == null) {
+                continue;
+            }
+            component.setIssues(ListUtils.emptyIfNull(artifact.getIssues()).stream().map(Utils::toIssue).collect(Collectors.toSet()));
+            component.setLicenses(ListUtils.emptyIfNull(artifact.getLicenses()).stream().map(Utils::toLicense).collect(Collectors.toSet()));
+            scannedComponents.put(componentId, component);
+        }
+        return scannedComponents;
+    }
+
+    /**
+     * Add the Xray info from the scan cache to the direct children of the root, without sending requests to Xray.
+     *
+     * @param componentsRoot - A root of components
+     */
+    void addCachedXrayInfo(DependencyTree componentsRoot) {
+        resultsCache.populateComponents(componentsRoot.getChildren());
+    }
+
+    /**
+     * Copy the Xray info of a component to another node of the same component.
+     */
+    static void copyXrayInfo(DependencyTree source, DependencyTree target) {
+        if (source.getIssues() != null) {
+            target.setIssues(new HashSet<>(source.getIssues()));
+        }
+        if (source.getLicenses() != null) {
+            target.setLicenses(new HashSet<>(source.getLicenses()));
+        }
+        if (target.getGeneralInfo() == null) {
+            target.setGeneralInfo(source.getGeneralInfo());
+        }
+    }
+
+    Log getLog() {
+        return Logger.getInstance();
+    }
+
+    void checkCanceled() {
+        ProgressManager.checkCanceled();
+    }
+
+    private static Xray createXrayClient() {
+        ServerConfigImpl serverConfig = GlobalSettings.getInstance().getServerConfig();
+        String xrayUrl = serverConfig.getXrayUrl();
+        return (Xray) new XrayClientBuilder()
+                .setUrl(xrayUrl)
+                .setUserName(serverConfig.getUsername())
+                .setPassword(serverConfig.getPassword())
+                .setUserAgent(USER_AGENT)
+                .setInsecureTls(serverConfig.isInsecureTls())
+                .setSslContext(serverConfig.getSslContext())
+                .setProxyConfiguration(serverConfig.getProxyConfForTargetUrl(xrayUrl))
+                .setLog(Logger.getInstance())
+                .build();
+    }
+}
@@ -0,0 +1,84 @@
+package com.jfrog.ide.idea.scan;
+
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+import com.google.common.collect.MapMaker;
+import org.jfrog.build.extractor.scan.DependencyTree;
+import org.jfrog.build.extractor.scan.GeneralInfo;
+
+import java.util.Enumeration;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * A pool of the node values shared by the dependency trees of several projects, such as Go modules of the same
+ * repository which depend on the same module versions.
+ * A {@link DependencyTree} node has a single parent, so identical subtrees can't be shared between trees. Instead, the
+ * nodes of identical components share the same {@link GeneralInfo} and name instances.
+ * The pool holds the values weakly, so they are released when no tree uses them. A pool is created for each project,
+ * and cleared when the project is closed.
+ *
+ * @author yahavi
+ */
+class DependencyNodePool {
+    private final Map<String, GeneralInfo> generalInfos = new MapMaker().weakValues().makeMap();
+    private final Interner<String> names = Interners.newWeakInterner();
+
+    /**
+     * Replace the values of the tree nodes with the pooled values.
+     *
+     * @param root - The root of the dependency tree
+     * @return the number of nodes whose general info was taken from the pool
+     */
+    int intern(DependencyTree root) {
+        if (root == null) {
+            return 0;
+        }
+        int pooledNodes = 0;
+        for (Enumeration<?> nodes = root.breadthFirstEnumeration(); nodes.hasMoreElements(); ) {
+            DependencyTree node = (DependencyTree) nodes.nextElement();
+            if (node.getUserObject() instanceof String) {
+                node.setUserObject(names.intern((String) node.getUserObject()));
+            }
+            GeneralInfo generalInfo = node.getGeneralInfo();
+            if (generalInfo == null) {
+                continue;
+            }
+            GeneralInfo pooled = generalInfos.putIfAbsent(getKey(generalInfo), generalInfo);
+            if (pooled != null && pooled != generalInfo) {
+                node.setGeneralInfo(pooled);
+                pooledNodes++;
+            }
+        }
+        return pooledNodes;
+    }
+
+    /**
+     * @return the number of distinct general info instances in the pool
+     */
+    int size() {
+        return generalInfos.size();
+    }
+
+    /**
+     * Release all pooled values, after the trees using them are disposed.
+     */
+    void clear() {
+        generalInfos.clear();
+    }
+
+    /**
+     * Two general info instances are interchangeable only if all their values are equal.
+     *
+     * @param generalInfo - The general info
+     * @return the pool key of the general info
+     */
+    private static String getKey(GeneralInfo generalInfo) {
+        return Stream.of(generalInfo.getComponentId(), generalInfo.getGroupId(), generalInfo.getArtifactId(),
+                        generalInfo.getVersion(), generalInfo.getName(), generalInfo.getPath(), generalInfo.getPkgType())
+                .map(value -> Objects.toString(value, ""))
+                .collect(Collectors.joining("\0"));
+    }
+}
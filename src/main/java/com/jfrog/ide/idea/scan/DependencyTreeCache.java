@@ -0,0 +1,124 @@
+package com.jfrog.ide.idea.scan;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import org.jfrog.build.extractor.scan.DependencyTree;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+
+/**
+ * Persist the dependency tree of a project, keyed by a fingerprint of the files and environment the tree is built from.
+ * As long as the fingerprint is unchanged, the tree is read from the disk instead of running the build tool.
+ * <p>
+ * Only the tree structure is persisted - the component IDs, scopes and general info of the nodes. The Xray info is
+ * added to the tree after reading it, as for a newly built tree.
+ *
+ * @author yahavi
+ */
+class DependencyTreeCache {
+    // Increment after changing the file format or the way the dependency trees are built
+    private static final int FORMAT_VERSION = 1;
+    private static final int MAGIC = 0x4A465254;
+
+    private final Path cacheFile;
+    private final long maxAgeMillis;
+
+    /**
+     * @param cacheDir      - The directory of the cached trees
+     * @param scanManagerId - The ID of the scan manager
+     * @param maxAgeMillis  - The maximal age of a cached tree. Trees may change without changes in their inputs, for
+     *                      example if dynamic versions are used.
+     */
+    DependencyTreeCache(Path cacheDir, String scanManagerId, long maxAgeMillis) {
+        this.cacheFile = cacheDir.resolve(Hashing.sha256().hashString(scanManagerId, StandardCharsets.UTF_8) + ".tree");
+        this.maxAgeMillis = maxAgeMillis;
+    }
+
+    /**
+     * Compute the fingerprint of the inputs of a dependency tree.
+     *
+     * @param inputs      - The files the tree is built from. Missing files are part of the fingerprint.
+     * @param environment - The environment variables and settings affecting the tree
+     * @return the fingerprint
+     * @throws IOException in case of an error reading the inputs
+     */
+    static String fingerprint(Collection<Path> inputs, Map<String, String> environment) throws IOException {
+        Hasher hasher = Hashing.sha256().newHasher().putInt(FORMAT_VERSION);
+        for (Path input : new TreeSet<>(inputs)) {
+            hasher.putString(input.toString(), StandardCharsets.UTF_8);
+            if (Files.isRegularFile(input)) {
+                hasher.putBoolean(true).putBytes(com.google.common.io.Files.asByteSource(input.toFile()).hash(Hashing.sha256()).asBytes());
+            } else {
+                hasher.putBoolean(false);
+            }
+        }
+        new TreeMap<>(environment).forEach((key, value) -> hasher
+                .putString(key, StandardCharsets.UTF_8)
+                .putString(Objects.toString(value, ""), StandardCharsets.UTF_8)
+                .putChar('\0'));
+        return hasher.hash().toString();
+    }
+
+    /**
+     * Read the cached tree.
+     *
+     * @param fingerprint - The current fingerprint of the tree inputs
+     * @return the cached tree or null if there is no cached tree with the given fingerprint
+     * @throws IOException in case of an error reading the cache file
+     */
+    DependencyTree read(String fingerprint) throws IOException {
+        if (!Files.isRegularFile(cacheFile)) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(cacheFile)))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION || !fingerprint.equals(in.readUTF())) {
+                return null;
+            }
+            if (System.currentTimeMillis() - in.readLong() > maxAgeMillis) {
+                return null;
+            }
+            return DependencyTreeSerializer.read(in);
+        } catch (EOFException e) {
+            // The file was truncated
+            return null;
+        }
+    }
+
+    /**
+     * Write the tree to the cache, replacing the previously cached tree.
+     *
+     * @param fingerprint - The fingerprint of the tree inputs
+     * @param tree        - The dependency tree before adding the Xray info
+     * @throws IOException in case of an error writing the cache file
+     */
+    void write(String fingerprint, DependencyTree tree) throws IOException {
+        Files.createDirectories(cacheFile.getParent());
+        Path tempFile = Files.createTempFile(cacheFile.getParent(), cacheFile.getFileName().toString(), ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                out.writeUTF(fingerprint);
+                out.writeLong(System.currentTimeMillis());
+                DependencyTreeSerializer.write(out, tree);
+            }
+            Files.move(tempFile, cacheFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    /**
+     * Delete the cached tree.
+     *
+     * @throws IOException in case of an error deleting the cache file
+     */
+    void clear() throws IOException {
+        Files.deleteIfExists(cacheFile);
+    }
+}
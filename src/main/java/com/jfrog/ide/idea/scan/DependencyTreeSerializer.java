@@ -0,0 +1,121 @@
+package com.jfrog.ide.idea.scan;
+
+import org.jfrog.build.extractor.scan.DependencyTree;
+import org.jfrog.build.extractor.scan.GeneralInfo;
+import org.jfrog.build.extractor.scan.Scope;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Write and read the structure of a dependency tree in a compact binary format - the component IDs, scopes and general
+ * info of the nodes. The Xray info of the nodes is not written.
+ *
+ * @author yahavi
+ */
+class DependencyTreeSerializer {
+
+    /**
+     * Write a dependency tree.
+     *
+     * @param out  - The output stream
+     * @param node - The root of the tree
+     * @throws IOException in case of an error writing the tree
+     */
+    static void write(DataOutputStream out, DependencyTree node) throws IOException {
+        writeString(out, node.getUserObject() != null ? node.getUserObject().toString() : null);
+        Set<Scope> scopes = node.getScopes();
+        out.writeInt(scopes != null ? scopes.size() : -1);
+        if (scopes != null) {
+            for (Scope scope : scopes) {
+                writeString(out, scope.getName());
+            }
+        }
+        GeneralInfo generalInfo = node.getGeneralInfo();
+        out.writeBoolean(generalInfo != null);
+        if (generalInfo != null) {
+            writeString(out, generalInfo.getComponentId());
+            writeString(out, generalInfo.getGroupId());
+            writeString(out, generalInfo.getArtifactId());
+            writeString(out, generalInfo.getVersion());
+            writeString(out, generalInfo.getName());
+            writeString(out, generalInfo.getPath());
+            writeString(out, generalInfo.getPkgType());
+        }
+        out.writeInt(node.getChildCount());
+        for (DependencyTree child : node.getChildren()) {
+            write(out, child);
+        }
+    }
+
+    /**
+     * Read a dependency tree written by {@link #write(DataOutputStream, DependencyTree)}.
+     *
+     * @param in - The input stream
+     * @return the root of the tree
+     * @throws IOException in case of an error reading the tree
+     */
+    static DependencyTree read(DataInputStream in) throws IOException {
+        DependencyTree node = new DependencyTree(readString(in));
+        int scopesCount = in.readInt();
+        if (scopesCount >= 0) {
+            Set<Scope> scopes = new HashSet<>();
+            for (int i = 0; i < scopesCount; i++) {
+                scopes.add(new Scope(readString(in)));
+            }
+            node.setScopes(scopes);
+        }
+        if (in.readBoolean()) {
+            GeneralInfo generalInfo = new GeneralInfo();
+            String componentId = readString(in);
+            String groupId = readString(in);
+            String artifactId = readString(in);
+            String version = readString(in);
+            String name = readString(in);
+            String path = readString(in);
+            String pkgType = readString(in);
+            // Set only the persisted values, since some of the values may be derived from the component ID
+            if (componentId != null) {
+                generalInfo.componentId(componentId);
+            }
+            if (groupId != null) {
+                generalInfo.groupId(groupId);
+            }
+            if (artifactId != null) {
+                generalInfo.artifactId(artifactId);
+            }
+            if (version != null) {
+                generalInfo.version(version);
+            }
+            if (name != null) {
+                generalInfo.name(name);
+            }
+            if (path != null) {
+                generalInfo.path(path);
+            }
+            if (pkgType != null) {
+                generalInfo.pkgType(pkgType);
+            }
+            node.setGeneralInfo(generalInfo);
+        }
+        int childCount = in.readInt();
+        for (int i = 0; i < childCount; i++) {
+            node.add(read(in));
+        }
+        return node;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
@@ -0,0 +1,64 @@
+package com.jfrog.ide.idea.scan;
+
+import com.intellij.openapi.components.ServiceManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.openapi.vfs.VirtualFileManager;
+import com.intellij.openapi.vfs.newvfs.BulkFileListener;
+import com.intellij.openapi.vfs.newvfs.events.VFileEvent;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A single VFS listener per project, triggering scans after changes in the project descriptors.
+ * The listener keeps an index from a descriptor path to the scan manager owning it, so that dispatching a batch of
+ * VFS events costs O(events), regardless of the number of scan managers.
+ *
+ * @author yahavi
+ */
+public class DescriptorChangeDispatcher implements BulkFileListener {
+
+    private final Map<String, ScanManager> descriptorsIndex = new ConcurrentHashMap<>();
+
+    public static DescriptorChangeDispatcher getInstance(@NotNull Project project) {
+        return ServiceManager.getService(project, DescriptorChangeDispatcher.class);
+    }
+
+    private DescriptorChangeDispatcher(@NotNull Project project) {
+        project.getMessageBus().connect(project).subscribe(VirtualFileManager.VFS_CHANGES, this);
+    }
+
+    /**
+     * Trigger a scan of the scan manager after the descriptor has changed.
+     *
+     * @param descriptorPath - The descriptor file to track for changes
+     * @param scanManager    - The scan manager to scan after the descriptor changed
+     */
+    void register(String descriptorPath, ScanManager scanManager) {
+        descriptorsIndex.put(FileUtil.toSystemIndependentName(descriptorPath), scanManager);
+    }
+
+    /**
+     * Stop tracking all descriptors of the scan manager.
+     *
+     * @param scanManager - The scan manager
+     */
+    void unregister(ScanManager scanManager) {
+        descriptorsIndex.values().removeIf(registered -> registered == scanManager);
+    }
+
+    @Override
+    public void after(@NotNull List<? extends VFileEvent> events) {
+        // Trigger each scan manager once per batch of events
+        Set<ScanManager> changedScanManagers = new HashSet<>();
+        for (VFileEvent event : events) {
+            ScanManager scanManager = descriptorsIndex.get(event.getPath());
+            if (scanManager != null) {
+                changedScanManagers.add(scanManager);
+            }
+        }
+        changedScanManagers.forEach(ScanManager::asyncScanAndUpdateResults);
+    }
+}
@@ -0,0 +1,175 @@
+package com.jfrog.ide.idea.scan;
+
+import org.apache.commons.lang3.StringUtils;
+import org.jfrog.build.api.util.Log;
+import org.jfrog.build.extractor.scan.DependencyTree;
+import org.jfrog.build.extractor.scan.GeneralInfo;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Build the Go dependency tree from the module graph, running 'go list -m all' and 'go mod graph' with the
+ * {@link BuildProcessRunner}. The output of both commands is parsed while the commands run.
+ * <p>
+ * 'go list -m all' lists the build list - the version of each module selected for the build. 'go mod graph' lists the
+ * requirements of all module versions, including versions that were not selected. Only the requirements between the
+ * selected versions are added to the tree. Like in the npm trees, the dependencies of a module are listed only in its
+ * shallowest occurrence in the tree.
+ *
+ * @author yahavi
+ */
+class GoModGraphTreeBuilder {
+    private final BuildProcessRunner processRunner;
+    private final Map<String, String> env;
+    private final Path projectDir;
+
+    private static class ExpandedNode {
+        private final DependencyTree node;
+        private final String module;
+
+        private ExpandedNode(DependencyTree node, String module) {
+            this.node = node;
+            this.module = module;
+        }
+    }
+
+    /**
+     * @param processRunner - Run the go commands
+     * @param projectDir    - The go.mod directory
+     * @param env           - The environment of the go commands
+     */
+    GoModGraphTreeBuilder(BuildProcessRunner processRunner, Path projectDir, Map<String, String> env) {
+        this.processRunner = processRunner;
+        this.projectDir = projectDir;
+        this.env = env;
+    }
+
+    /**
+     * Build the dependency tree of the Go module.
+     *
+     * @param logger - The logger
+     * @return the dependency tree
+     * @throws IOException in case of an error running go or parsing its output
+     */
+    DependencyTree buildTree(Log logger) throws IOException {
+        Map<String, String> buildList = run(Arrays.asList("go", "list", "-m", "all"), GoModGraphTreeBuilder::parseBuildList);
+        String moduleName = buildList.entrySet().stream()
+                .filter(module -> module.getValue().isEmpty())
+                .map(Map.Entry::getKey)
+                .findFirst()
+                .orElseThrow(() -> new IOException("Couldn't find the main module of " + projectDir));
+        Map<String, List<String>> graph = run(Arrays.asList("go", "mod", "graph"), reader -> parseModGraph(reader, buildList));
+        logger.debug(String.format("Go module %s has %d modules in its build list.", moduleName, buildList.size() - 1));
+        return createTree(moduleName, graph, projectDir);
+    }
+
+    /**
+     * Run a go command, and parse its output line by line.
+     */
+    private <T> T run(List<String> command, LinesParser<T> parser) throws IOException {
+        BuildProcessRunner.Result<T> result = processRunner.run(command, projectDir, env, stdout ->
+                parser.parse(new BufferedReader(new InputStreamReader(stdout, StandardCharsets.UTF_8))));
+        if (!result.isOk()) {
+            throw new IOException(String.format("'%s' failed with exit code %d: %s", String.join(" ", command),
+                    result.getExitCode(), result.getStderr()));
+        }
+        return result.getValue();
+    }
+
+    @FunctionalInterface
+    private interface LinesParser<T> {
+        T parse(BufferedReader reader) throws IOException;
+    }
+
+    /**
+     * Parse the output of 'go list -m all'. Each line has a module path and its selected version, possibly followed by
+     * a replacement, e.g. "github.com/jfrog/a v1.0.0 => ../a". The lines of the main modules have no version.
+     *
+     * @param reader - The output of 'go list -m all'
+     * @return module path to its selected version, or to an empty string for the main modules
+     */
+    static Map<String, String> parseBuildList(BufferedReader reader) throws IOException {
+        Map<String, String> buildList = new LinkedHashMap<>();
+        String line;
+        while ((line = reader.readLine()) != null) {
+            String[] fields = StringUtils.split(line);
+            if (fields.length == 0) {
+                continue;
+            }
+            boolean hasVersion = fields.length > 1 && !"=>".equals(fields[1]);
+            buildList.put(fields[0], hasVersion ? fields[1] : "");
+        }
+        return buildList;
+    }
+
+    /**
+     * Parse the output of 'go mod graph'. Each line is a requirement, e.g. "github.com/jfrog/a@v1.0.0 github.com/jfrog/b@v1.2.0".
+     * The main module has no version. Requirements from or to versions that are not in the build list are skipped.
+     *
+     * @param reader    - The output of 'go mod graph'
+     * @param buildList - Module path to its selected version
+     * @return module to its required modules. The modules are in the "path@version" form, except for the main modules.
+     */
+    static Map<String, List<String>> parseModGraph(BufferedReader reader, Map<String, String> buildList) throws IOException {
+        Map<String, List<String>> graph = new HashMap<>();
+        String line;
+        while ((line = reader.readLine()) != null) {
+            String[] fields = StringUtils.split(line);
+            if (fields.length != 2 || !isSelected(fields[0], buildList) || !isSelected(fields[1], buildList)) {
+                continue;
+            }
+            graph.computeIfAbsent(fields[0], module -> new ArrayList<>()).add(fields[1]);
+        }
+        return graph;
+    }
+
+    /**
+     * @param module    - A module in the "path@version" form, or the path of a main module
+     * @param buildList - Module path to its selected version
+     * @return true if the module version is the one selected for the build
+     */
+    private static boolean isSelected(String module, Map<String, String> buildList) {
+        String path = StringUtils.substringBefore(module, "@");
+        String version = StringUtils.substringAfter(module, "@");
+        return version.equals(buildList.get(path));
+    }
+
+    /**
+     * Create the dependency tree of the main module. The tree is expanded breadth-first, so that each module is
+     * expanded in its shallowest occurrence.
+     *
+     * @param moduleName - The main module path
+     * @param graph      - Module to its required modules
+     * @param projectDir - The go.mod directory
+     * @return the dependency tree
+     */
+    static DependencyTree createTree(String moduleName, Map<String, List<String>> graph, Path projectDir) {
+        DependencyTree rootNode = new DependencyTree(moduleName);
+        rootNode.setGeneralInfo(new GeneralInfo()
+                .groupId("")
+                .artifactId(moduleName)
+                .version("")
+                .path(projectDir.toString())
+                .pkgType("go"));
+        Queue<ExpandedNode> queue = new ArrayDeque<>();
+        Set<String> expanded = new HashSet<>();
+        queue.add(new ExpandedNode(rootNode, moduleName));
+        expanded.add(moduleName);
+        while (!queue.isEmpty()) {
+            ExpandedNode expandedNode = queue.poll();
+            for (String dependency : graph.getOrDefault(expandedNode.module, Collections.emptyList())) {
+                DependencyTree node = new DependencyTree(dependency.replace('@', ':'));
+                expandedNode.node.add(node);
+                if (expanded.add(dependency)) {
+                    queue.add(new ExpandedNode(node, dependency));
+                }
+            }
+        }
+        return rootNode;
+    }
+}
@@ -1,5 +1,6 @@
 package com.jfrog.ide.idea.scan;
 
+import com.google.common.collect.Lists;
 import com.intellij.codeInspection.LocalInspectionTool;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.vfs.LocalFileSystem;
@@ -7,37 +8,126 @@ import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.psi.PsiFile;
 import com.intellij.psi.PsiManager;
 import com.intellij.util.EnvironmentUtil;
-import com.jfrog.ide.common.go.GoTreeBuilder;
 import com.jfrog.ide.common.scan.ComponentPrefix;
 import com.jfrog.ide.idea.inspections.GoInspection;
 import com.jfrog.ide.idea.ui.ComponentsTree;
 import com.jfrog.ide.idea.ui.filters.filtermanager.ConsistentFilterManager;
+import org.jfrog.build.extractor.scan.DependencyTree;
 
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
  * Created by Bar Belity on 06/02/2020.
  */
 public class GoScanManager extends ScanManager {
 
-    private final GoTreeBuilder goTreeBuilder;
+    // A replace directive, e.g. "replace github.com/jfrog/a v1.0.0 => ../a" or "github.com/jfrog/a => ../a" in a block
+    private static final Pattern REPLACE_PATTERN = Pattern.compile("^(?:replace\\s+)?\\S+(?:\\s+\\S+)?\\s+=>\\s+(\\S+)(?:\\s+\\S+)?$");
+
+    private final GoModGraphTreeBuilder goTreeBuilder;
+    private final DependencyNodePool nodePool;
 
     /**
      * @param project  - Currently opened IntelliJ project. We'll use this project to retrieve project based services
      *                 like {@link ConsistentFilterManager} and {@link ComponentsTree}.
      * @param basePath - The go.mod directory.
+     * @param nodePool - The pool of the node values shared with the other Go modules of the project.
      */
-    GoScanManager(Project project, String basePath) throws IOException {
+    GoScanManager(Project project, String basePath, DependencyNodePool nodePool) throws IOException {
         super(project, basePath, ComponentPrefix.GO);
+        this.nodePool = nodePool;
         getLog().info("Found Go project: " + getProjectName());
-        goTreeBuilder = new GoTreeBuilder(Paths.get(basePath), EnvironmentUtil.getEnvironmentMap(), getLog());
+        goTreeBuilder = new GoModGraphTreeBuilder(ScanCoordinator.getInstance().getProcessRunner(), Paths.get(basePath), EnvironmentUtil.getEnvironmentMap());
         subscribeLaunchDependencyScanOnFileChangedEvents("go.sum");
     }
 
     @Override
-    protected void buildTree() throws IOException {
-        setScanResults(goTreeBuilder.buildTree());
+    protected DependencyTree buildTree() throws IOException {
+        return goTreeBuilder.buildTree(getLog());
+    }
+
+    /**
+     * Build or read the cached dependency tree, and share the node values with the trees of the other Go modules.
+     *
+     * @param quickScan - True to allow usage of the cached tree
+     */
+    @Override
+    void loadOrBuildTree(boolean quickScan) throws IOException {
+        super.loadOrBuildTree(quickScan);
+        int pooledNodes = nodePool.intern(getScanResults());
+        getLog().debug(String.format("Go dependency tree of %s: %d nodes shared with other modules, %d components in the pool.",
+                getProjectName(), pooledNodes, nodePool.size()));
+    }
+
+    /**
+     * The inputs of the tree are the go.mod and go.sum files of the module, and the go.mod files of the local
+     * directories replacing its dependencies.
+     *
+     * @return the inputs of the dependency tree
+     */
+    @Override
+    Collection<Path> getTreeInputs() throws IOException {
+        Path goMod = Paths.get(basePath, "go.mod");
+        List<Path> treeInputs = Lists.newArrayList(goMod, Paths.get(basePath, "go.sum"));
+        try {
+            getLocalReplaceDirs(Paths.get(basePath), Files.readAllLines(goMod)).forEach(dir -> treeInputs.add(dir.resolve("go.mod")));
+        } catch (NoSuchFileException e) {
+            // The go.mod file was deleted, the build will fail
+        }
+        return treeInputs;
+    }
+
+    /**
+     * Get the local directories in the replace directives of a go.mod file. Replacements by other module versions are
+     * ignored, since their go.mod files are covered by the go.sum file.
+     *
+     * @param moduleDir - The go.mod directory
+     * @param goModLines - The lines of the go.mod file
+     * @return the local directories replacing dependencies of the module
+     */
+    static List<Path> getLocalReplaceDirs(Path moduleDir, List<String> goModLines) {
+        List<Path> replaceDirs = new ArrayList<>();
+        boolean inReplaceBlock = false;
+        for (String line : goModLines) {
+            int commentIndex = line.indexOf("//");
+            line = (commentIndex >= 0 ? line.substring(0, commentIndex) : line).trim();
+            if (inReplaceBlock && line.equals(")")) {
+                inReplaceBlock = false;
+                continue;
+            }
+            if (line.matches("^replace\\s*\\($")) {
+                inReplaceBlock = true;
+                continue;
+            }
+            if (!inReplaceBlock && !line.startsWith("replace")) {
+                continue;
+            }
+            Matcher matcher = REPLACE_PATTERN.matcher(line);
+            if (!matcher.matches()) {
+                continue;
+            }
+            String target = matcher.group(1).replace("\"", "");
+            // Local paths must start with ./ or ../ or be absolute. Otherwise, the target is a module path.
+            if (target.matches("^\\.\\.?[/\\\\].*") || Paths.get(target).isAbsolute()) {
+                replaceDirs.add(moduleDir.resolve(target).normalize());
+            }
+        }
+        return replaceDirs;
+    }
+
+    @Override
+    Map<String, String> getTreeEnvironment() {
+        return getEnvironment("PATH", "GOFLAGS", "GOOS", "GOARCH", "GO111MODULE", "GOWORK");
     }
 
     @Override
@@ -0,0 +1,61 @@
+package com.jfrog.ide.idea.scan;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Group the directories of the Gradle build scripts by the root builds they belong to. A root build is the nearest
+ * directory with a settings file, so that all subprojects of a multi-project build are scanned by a single Gradle
+ * invocation.
+ *
+ * @author yahavi
+ */
+class GradleBuildRoots {
+    private static final String[] SETTINGS_FILES = {"settings.gradle", "settings.gradle.kts"};
+
+    /**
+     * Get the root build directories of the build scripts directories.
+     *
+     * @param buildScriptDirs - The directories of the build.gradle and build.gradle.kts files
+     * @param searchPaths     - The directories in which the settings files are looked for
+     * @return the root build directories. A directory without a settings file in any of its ancestors is a root.
+     */
+    static Set<String> getRootDirs(Collection<String> buildScriptDirs, Collection<Path> searchPaths) {
+        Set<String> rootDirs = new HashSet<>();
+        for (String buildScriptDir : buildScriptDirs) {
+            rootDirs.add(getRootDir(Paths.get(buildScriptDir), searchPaths).toString());
+        }
+        return rootDirs;
+    }
+
+    /**
+     * @param buildScriptDir - The directory of a build script
+     * @param searchPaths    - The directories in which the settings files are looked for
+     * @return the nearest ancestor with a settings file, or the build script directory if there is none
+     */
+    private static Path getRootDir(Path buildScriptDir, Collection<Path> searchPaths) {
+        for (Path dir = buildScriptDir; dir != null && isInSearchPaths(dir, searchPaths); dir = dir.getParent()) {
+            if (hasSettingsFile(dir)) {
+                return dir;
+            }
+        }
+        return buildScriptDir;
+    }
+
+    private static boolean isInSearchPaths(Path dir, Collection<Path> searchPaths) {
+        return searchPaths.stream().anyMatch(dir::startsWith);
+    }
+
+    private static boolean hasSettingsFile(Path dir) {
+        for (String settingsFile : SETTINGS_FILES) {
+            if (Files.isRegularFile(dir.resolve(settingsFile))) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,249 @@
+package com.jfrog.ide.idea.scan;
+
+import com.google.common.collect.Sets;
+import com.intellij.openapi.externalSystem.model.ExternalProjectInfo;
+import com.intellij.openapi.externalSystem.service.project.ProjectDataManager;
+import com.intellij.openapi.project.Project;
+import org.jetbrains.plugins.gradle.model.*;
+import org.jetbrains.plugins.gradle.service.project.data.ExternalProjectDataCache;
+import org.jetbrains.plugins.gradle.settings.GradleProjectSettings;
+import org.jetbrains.plugins.gradle.settings.GradleSettings;
+import org.jetbrains.plugins.gradle.util.GradleConstants;
+import org.jfrog.build.extractor.scan.DependencyTree;
+import org.jfrog.build.extractor.scan.GeneralInfo;
+import org.jfrog.build.extractor.scan.Scope;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Build the dependency tree of a Gradle project from the resolved dependencies IntelliJ imported, without running Gradle.
+ * The imported model is used only if it was imported after the last change of the build files. Otherwise, or if the
+ * imported model has no resolved dependencies, no tree is built and the caller should run Gradle.
+ *
+ * @author yahavi
+ */
+class GradleImportedTreeBuilder {
+
+    private final Consumer<DependencyTree> populateNode;
+    private final Project project;
+    private final File projectDir;
+
+    /**
+     * @param project      - Currently opened IntelliJ project
+     * @param projectDir   - The build.gradle or build.gradle.kts directory
+     * @param populateNode - Populate the general info of a dependency node named by its component ID
+     */
+    GradleImportedTreeBuilder(Project project, Path projectDir, Consumer<DependencyTree> populateNode) {
+        this.project = project;
+        this.projectDir = projectDir.toFile();
+        this.populateNode = populateNode;
+    }
+
+    /**
+     * Build the dependency tree from the imported Gradle model.
+     *
+     * @param treeInputs - The build files of the project
+     * @return the dependency tree or null if the imported model is missing, stale or unresolved
+     * @throws IOException in case of an error reading the modification time of the build files
+     */
+    DependencyTree buildTree(Collection<Path> treeInputs) throws IOException {
+        String linkedProjectPath = getLinkedProjectPath();
+        if (linkedProjectPath == null) {
+            return null;
+        }
+        ExternalProjectInfo projectInfo = ProjectDataManager.getInstance().getExternalProjectData(project, GradleConstants.SYSTEM_ID, linkedProjectPath);
+        if (projectInfo == null) {
+            return null;
+        }
+        ExternalProject rootExternalProject = ExternalProjectDataCache.getInstance(project).getRootExternalProject(linkedProjectPath);
+        return buildTree(rootExternalProject, projectInfo.getLastSuccessfulImportTimestamp(), treeInputs);
+    }
+
+    /**
+     * Build the dependency tree from the imported Gradle model.
+     *
+     * @param rootExternalProject - The root project of the imported Gradle model
+     * @param lastImport          - The time of the last successful import in milliseconds
+     * @param treeInputs          - The build files of the project
+     * @return the dependency tree or null if the imported model is missing, stale or unresolved
+     * @throws IOException in case of an error reading the modification time of the build files
+     */
+    DependencyTree buildTree(ExternalProject rootExternalProject, long lastImport, Collection<Path> treeInputs) throws IOException {
+        if (!isImportUpToDate(lastImport, treeInputs)) {
+            return null;
+        }
+        ExternalProject externalProject = findExternalProject(rootExternalProject);
+        if (externalProject == null) {
+            return null;
+        }
+        List<ExternalProject> externalProjects = new ArrayList<>();
+        collectExternalProjects(externalProject, externalProjects);
+        List<DependencyTree> moduleNodes = new ArrayList<>();
+        boolean resolved = false;
+        for (ExternalProject module : externalProjects) {
+            DependencyTree moduleNode = createModuleNode(module);
+            resolved |= addDependencies(moduleNode, module);
+            moduleNodes.add(moduleNode);
+        }
+        if (!resolved) {
+            // The dependencies were not resolved during the import
+            return null;
+        }
+        if (moduleNodes.size() == 1) {
+            return moduleNodes.get(0);
+        }
+        DependencyTree rootNode = new DependencyTree(projectDir.getName());
+        rootNode.setGeneralInfo(new GeneralInfo().artifactId(projectDir.getName()).path(projectDir.getPath()).pkgType("gradle"));
+        moduleNodes.forEach(rootNode::add);
+        return rootNode;
+    }
+
+    /**
+     * @return the path of the linked Gradle project containing the project directory, or null if it is not linked
+     */
+    private String getLinkedProjectPath() {
+        String linkedProjectPath = null;
+        for (GradleProjectSettings settings : GradleSettings.getInstance(project).getLinkedProjectsSettings()) {
+            String path = settings.getExternalProjectPath();
+            if (isAncestor(new File(path), projectDir) && (linkedProjectPath == null || path.length() > linkedProjectPath.length())) {
+                linkedProjectPath = path;
+            }
+        }
+        return linkedProjectPath;
+    }
+
+    /**
+     * @param lastImport - The time of the last successful import in milliseconds
+     * @param treeInputs - The build files of the project
+     * @return true if the last successful import is newer than all build files
+     */
+    private static boolean isImportUpToDate(long lastImport, Collection<Path> treeInputs) throws IOException {
+        for (Path input : treeInputs) {
+            if (Files.isRegularFile(input) && Files.getLastModifiedTime(input).toMillis() > lastImport) {
+                return false;
+            }
+        }
+        return lastImport > 0;
+    }
+
+    private ExternalProject findExternalProject(ExternalProject externalProject) {
+        if (externalProject == null) {
+            return null;
+        }
+        if (isSameFile(externalProject.getProjectDir(), projectDir)) {
+            return externalProject;
+        }
+        for (ExternalProject child : externalProject.getChildProjects().values()) {
+            ExternalProject found = findExternalProject(child);
+            if (found != null) {
+                return found;
+            }
+        }
+        return null;
+    }
+
+    private static void collectExternalProjects(ExternalProject externalProject, List<ExternalProject> externalProjects) {
+        externalProjects.add(externalProject);
+        externalProject.getChildProjects().values().forEach(child -> collectExternalProjects(child, externalProjects));
+    }
+
+    private static DependencyTree createModuleNode(ExternalProject externalProject) {
+        DependencyTree node = new DependencyTree(externalProject.getName());
+        node.setGeneralInfo(new GeneralInfo()
+                .groupId(externalProject.getGroup())
+                .artifactId(externalProject.getName())
+                .version(externalProject.getVersion())
+                .path(externalProject.getProjectDir().getPath())
+                .pkgType("gradle"));
+        return node;
+    }
+
+    /**
+     * Add the dependencies of all source sets of the module. A dependency of several source sets is added once, with
+     * the scopes of all source sets. Like in Maven's dependency tree, the transitive dependencies of a component are
+     * added under its first occurrence in the module, and its other occurrences are leaves.
+     *
+     * @param moduleNode - The module node
+     * @param module     - The Gradle module
+     * @return true if the module has any resolved dependency
+     */
+    private boolean addDependencies(DependencyTree moduleNode, ExternalProject module) {
+        Map<String, DependencyTree> directDependencies = new LinkedHashMap<>();
+        AncestorsSet ancestors = AncestorsSet.of(new HashSet<>());
+        Set<String> expanded = new HashSet<>();
+        for (ExternalSourceSet sourceSet : module.getSourceSets().values()) {
+            for (ExternalDependency dependency : sourceSet.getDependencies()) {
+                String id = getComponentId(dependency);
+                if (id == null) {
+                    continue;
+                }
+                DependencyTree node = directDependencies.get(id);
+                if (node == null) {
+                    node = createNode(dependency, id, ancestors.newLevel(), expanded);
+                    node.setScopes(Sets.newHashSet());
+                    directDependencies.put(id, node);
+                }
+                if (dependency.getScope() != null) {
+                    node.getScopes().add(new Scope(dependency.getScope().toLowerCase()));
+                }
+            }
+        }
+        directDependencies.values().forEach(moduleNode::add);
+        return !directDependencies.isEmpty();
+    }
+
+    /**
+     * Create the node of the dependency and its transitive dependencies. The transitive dependencies are added only
+     * under the first node of each component, which lists them.
+     *
+     * @param dependency - The dependency
+     * @param id         - The component ID of the dependency
+     * @param added      - The dependencies added by the ancestors of the node, used to disallow cycles
+     * @param expanded   - The components whose transitive dependencies were already added to the module
+     * @return the dependency node
+     */
+    private DependencyTree createNode(ExternalDependency dependency, String id, AncestorsSet added, Set<String> expanded) {
+        DependencyTree node = new DependencyTree(id);
+        populateNode.accept(node);
+        if (dependency.getDependencies().isEmpty() || !expanded.add(id)) {
+            // Omitted for duplicate
+            return node;
+        }
+        added.add(id);
+        for (ExternalDependency child : dependency.getDependencies()) {
+            String childId = getComponentId(child);
+            if (childId != null && !added.contains(childId)) {
+                node.add(createNode(child, childId, added.newLevel(), expanded));
+            }
+        }
+        return node;
+    }
+
+    /**
+     * @param dependency - The dependency
+     * @return the group:name:version of a resolved library dependency. Null for project, file and unresolved
+     * dependencies, which are not scanned by Xray.
+     */
+    private static String getComponentId(ExternalDependency dependency) {
+        if (!(dependency instanceof ExternalLibraryDependency)) {
+            return null;
+        }
+        if (dependency.getGroup() == null || dependency.getVersion() == null) {
+            return null;
+        }
+        return dependency.getGroup() + ":" + dependency.getName() + ":" + dependency.getVersion();
+    }
+
+    private static boolean isAncestor(File ancestor, File file) {
+        return file.toPath().toAbsolutePath().normalize().startsWith(ancestor.toPath().toAbsolutePath().normalize());
+    }
+
+    private static boolean isSameFile(File first, File second) {
+        return first != null && first.toPath().toAbsolutePath().normalize().equals(second.toPath().toAbsolutePath().normalize());
+    }
+}
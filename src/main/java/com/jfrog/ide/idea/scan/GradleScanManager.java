@@ -1,65 +1,201 @@
 package com.jfrog.ide.idea.scan;
 
+import com.google.common.collect.Sets;
 import com.intellij.codeInspection.LocalInspectionTool;
+import com.intellij.openapi.externalSystem.service.project.manage.ProjectDataImportListener;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.vfs.LocalFileSystem;
+import com.intellij.openapi.vfs.VfsUtilCore;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.psi.PsiFile;
-import com.intellij.psi.PsiManager;
+import com.intellij.psi.search.FilenameIndex;
+import com.intellij.psi.search.GlobalSearchScope;
 import com.intellij.util.EnvironmentUtil;
+import com.intellij.util.messages.MessageBusConnection;
 import com.jfrog.ide.common.gradle.GradleTreeBuilder;
 import com.jfrog.ide.common.scan.ComponentPrefix;
 import com.jfrog.ide.idea.inspections.GradleGroovyInspection;
 import com.jfrog.ide.idea.inspections.GradleKotlinInspection;
 import com.jfrog.ide.idea.ui.ComponentsTree;
 import com.jfrog.ide.idea.ui.filters.filtermanager.ConsistentFilterManager;
+import org.jetbrains.annotations.Nullable;
+import org.jfrog.build.extractor.scan.DependencyTree;
 
 import java.io.IOException;
-import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Created by Yahav Itzhak on 9 Nov 2017.
  */
 public class GradleScanManager extends ScanManager {
 
+    // Directories without build scripts, which are skipped while looking for the inputs of the dependency tree
+    private static final Set<String> TREE_INPUTS_EXCLUDED_DIRS = Sets.newHashSet("build", "out", "node_modules");
+    private static final Set<String> BUILD_SCRIPTS = Sets.newHashSet("build.gradle", "build.gradle.kts");
+    private static final Set<String> SETTINGS_SCRIPTS = Sets.newHashSet("settings.gradle", "settings.gradle.kts");
+
     private final GradleTreeBuilder gradleTreeBuilder;
-    private boolean kotlin;
+    private final MessageBusConnection importConnection;
+    // The inputs found by the last call to getTreeInputs, reused by the build that follows it
+    private volatile Collection<Path> treeInputs;
 
     /**
      * @param project  - Currently opened IntelliJ project. We'll use this project to retrieve project based services
      *                 like {@link ConsistentFilterManager} and {@link ComponentsTree}.
-     * @param basePath - The build.gradle or build.gradle.kts directory.
+     * @param basePath - The root build directory - the settings.gradle directory of a multi-project build, or the
+     *                 build.gradle or build.gradle.kts directory of a single project build.
      */
     GradleScanManager(Project project, String basePath) throws IOException {
         super(project, basePath, ComponentPrefix.GAV);
         getLog().info("Found Gradle project: " + getProjectName());
         gradleTreeBuilder = new GradleTreeBuilder(Paths.get(basePath), EnvironmentUtil.getEnvironmentMap());
+        // The build scripts of the subprojects are registered after they are found by getTreeInputs
+        BUILD_SCRIPTS.forEach(this::subscribeLaunchDependencyScanOnFileChangedEvents);
+        SETTINGS_SCRIPTS.forEach(this::subscribeLaunchDependencyScanOnFileChangedEvents);
+        importConnection = project.getMessageBus().connect();
+        importConnection.subscribe(ProjectDataImportListener.TOPIC, new ProjectDataImportListener() {
+            @Override
+            public void onImportFinished(@Nullable String projectPath) {
+                // The dependency tree can be built from the newly imported model
+                if (projectPath != null && Paths.get(basePath).startsWith(Paths.get(projectPath))) {
+                    asyncScanAndUpdateResults();
+                }
+            }
+        });
     }
 
+    /**
+     * The build scripts of the root project and all subprojects. The build scripts are looked up in the file name
+     * index, since this method runs on the UI thread.
+     */
     @Override
     protected PsiFile[] getProjectDescriptors() {
-        LocalFileSystem localFileSystem = LocalFileSystem.getInstance();
-        Path basePath = Paths.get(this.basePath);
-        VirtualFile file = localFileSystem.findFileByPath(basePath.resolve("build.gradle").toString());
-        if (file == null) {
-            file = localFileSystem.findFileByPath(basePath.resolve("build.gradle.kts").toString());
-            if (file == null) {
-                return null;
+        VirtualFile projectDir = LocalFileSystem.getInstance().findFileByPath(basePath);
+        if (projectDir == null) {
+            return null;
+        }
+        GlobalSearchScope scope = GlobalSearchScope.projectScope(project);
+        return BUILD_SCRIPTS.stream()
+                .flatMap(buildScript -> Arrays.stream(FilenameIndex.getFilesByName(project, buildScript, scope)))
+                .filter(buildScript -> isTreeInput(projectDir, buildScript.getVirtualFile()))
+                .toArray(PsiFile[]::new);
+    }
+
+    /**
+     * @param projectDir - The root build directory
+     * @param file       - The file to check
+     * @return true if the file is in the root build directory, and not in a directory skipped by {@link #getTreeInputs()}
+     */
+    private static boolean isTreeInput(VirtualFile projectDir, VirtualFile file) {
+        if (file == null || !VfsUtilCore.isAncestor(projectDir, file, true)) {
+            return false;
+        }
+        for (VirtualFile dir = file.getParent(); !projectDir.equals(dir); dir = dir.getParent()) {
+            if (dir.getName().startsWith(".") || TREE_INPUTS_EXCLUDED_DIRS.contains(dir.getName())) {
+                return false;
             }
-            kotlin = true;
         }
-        PsiFile psiFile = PsiManager.getInstance(project).findFile(file);
-        return new PsiFile[]{psiFile};
+        return true;
     }
 
     @Override
     protected LocalInspectionTool getInspectionTool() {
-        return kotlin ? new GradleKotlinInspection() : new GradleGroovyInspection();
+        return new GradleGroovyInspection();
     }
 
     @Override
-    protected void buildTree() throws IOException {
-        setScanResults(gradleTreeBuilder.buildTree(getLog()));
+    LocalInspectionTool getInspectionTool(PsiFile descriptor) {
+        return descriptor.getName().endsWith(".kts") ? new GradleKotlinInspection() : new GradleGroovyInspection();
+    }
+
+    /**
+     * The dependencies of all subprojects are part of the tree, so all build scripts, properties files, version catalogs
+     * and dependency lockfiles under the project directory are inputs of the tree. Changes in the build scripts found
+     * trigger a scan.
+     */
+    @Override
+    Collection<Path> getTreeInputs() throws IOException {
+        List<Path> inputs = new ArrayList<>();
+        Path projectDir = Paths.get(basePath);
+        Files.walkFileTree(projectDir, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                String dirName = dir.getFileName().toString();
+                if (!dir.equals(projectDir) && (dirName.startsWith(".") || TREE_INPUTS_EXCLUDED_DIRS.contains(dirName))) {
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                String fileName = file.getFileName().toString();
+                if (fileName.endsWith(".gradle") || fileName.endsWith(".gradle.kts") || fileName.endsWith(".lockfile") ||
+                        fileName.endsWith(".versions.toml") || fileName.equals("gradle.properties") ||
+                        fileName.equals("gradle-wrapper.properties")) {
+                    inputs.add(file);
+                }
+                if (BUILD_SCRIPTS.contains(fileName) || SETTINGS_SCRIPTS.contains(fileName)) {
+                    subscribeLaunchDependencyScanOnFileChangedEvents(projectDir.relativize(file).toString());
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException exc) {
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        treeInputs = inputs;
+        return inputs;
+    }
+
+    @Override
+    Map<String, String> getTreeEnvironment() {
+        return getEnvironment("JAVA_HOME", "GRADLE_USER_HOME", "GRADLE_OPTS");
+    }
+
+    /**
+     * Build the tree from the dependencies IntelliJ resolved while importing the project. Run Gradle only if the
+     * imported model is missing or older than the build files.
+     */
+    @Override
+    protected DependencyTree buildTree() throws IOException {
+        long start = System.nanoTime();
+        DependencyTree dependencyTree = buildTreeFromImportedModel();
+        if (dependencyTree != null) {
+            getLog().debug(String.format("Dependency tree of %s was built from the imported Gradle model in %d ms.",
+                    getProjectName(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)));
+            return dependencyTree;
+        }
+        // The Gradle process is started by the tree builder of ide-plugins-common, so it can't be run by the process runner
+        dependencyTree = gradleTreeBuilder.buildTree(getLog());
+        getLog().debug(String.format("Dependency tree of %s was built by Gradle in %d ms.",
+                getProjectName(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)));
+        return dependencyTree;
+    }
+
+    @Override
+    void dispose() {
+        importConnection.disconnect();
+        super.dispose();
+    }
+
+    private DependencyTree buildTreeFromImportedModel() throws IOException {
+        try {
+            GradleImportedTreeBuilder importedTreeBuilder = new GradleImportedTreeBuilder(project, Paths.get(basePath), this::populateDependencyTreeNode);
+            // The inputs were just found by loadOrBuildTree, don't walk the project directory again
+            Collection<Path> inputs = treeInputs;
+            return importedTreeBuilder.buildTree(inputs != null ? inputs : getTreeInputs());
+        } catch (NoClassDefFoundError noClassDefFoundError) {
+            // The 'gradle' plugin is not installed.
+            return null;
+        } catch (RuntimeException e) {
+            getLog().warn("Couldn't read the imported Gradle model of " + getProjectName() + ": " + e.getMessage());
+            return null;
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,109 @@
+package com.jfrog.ide.idea.scan;
+
+import com.google.common.collect.Sets;
+import org.jetbrains.idea.maven.model.MavenArtifact;
+import org.jetbrains.idea.maven.model.MavenArtifactNode;
+import org.jfrog.build.extractor.scan.DependencyTree;
+import org.jfrog.build.extractor.scan.Scope;
+
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * The transitive dependencies of a Maven module, as a graph of unique artifacts.
+ * Each unique artifact and scope is a single node in the graph, created once regardless of the number of paths
+ * leading to it. The dependency tree is created from the graph like Maven's dependency tree - the dependencies of an
+ * artifact are added under its first occurrence, and its other occurrences are leaves. The number of tree nodes is
+ * therefore bounded by the number of edges in the graph, rather than by the number of paths.
+ *
+ * @author yahavi
+ */
+class MavenDependencyGraph {
+
+    static class Node {
+        private final List<Node> dependencies = new ArrayList<>();
+        private final MavenArtifact artifact;
+        private final String key;
+        private boolean expanded;
+
+        private Node(MavenArtifact artifact, String key) {
+            this.artifact = artifact;
+            this.key = key;
+        }
+
+        MavenArtifact getArtifact() {
+            return artifact;
+        }
+
+        /**
+         * @return the unique key of the artifact - groupId:artifactId:type:classifier:version
+         */
+        String getKey() {
+            return key;
+        }
+
+        List<Node> getDependencies() {
+            return dependencies;
+        }
+    }
+
+    private final Map<String, Node> nodes = new HashMap<>();
+    // The graph nodes whose dependencies were already added to the dependency tree
+    private final Set<Node> materialized = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final Consumer<DependencyTree> populateNode;
+
+    /**
+     * @param populateNode - Populate the general info of a dependency node named by its component ID
+     */
+    MavenDependencyGraph(Consumer<DependencyTree> populateNode) {
+        this.populateNode = populateNode;
+    }
+
+    /**
+     * Add the artifact and its transitive dependencies to the graph.
+     *
+     * @param artifactNode - The Maven artifact node
+     * @return the graph node of the artifact
+     */
+    Node add(MavenArtifactNode artifactNode) {
+        MavenArtifact artifact = artifactNode.getArtifact();
+        String key = artifact.getDisplayStringForLibraryName();
+        Node node = nodes.computeIfAbsent(key + ":" + artifact.getScope(), graphKey -> new Node(artifact, key));
+        // Populate the dependencies from the first occurrence which lists them
+        if (!node.expanded && !artifactNode.getDependencies().isEmpty()) {
+            node.expanded = true;
+            for (MavenArtifactNode dependency : artifactNode.getDependencies()) {
+                node.dependencies.add(add(dependency));
+            }
+        }
+        return node;
+    }
+
+    /**
+     * Create the dependency tree node of the artifact and its transitive dependencies. The dependencies are added only
+     * under the first created node of each graph node.
+     *
+     * @param graphNode - The artifact node in the dependency graph
+     * @param scope     - The scope of a direct dependency or null
+     * @param added     - The dependencies added by the ancestors of the node, used to disallow cycles
+     * @return the dependency tree node
+     */
+    DependencyTree createTree(Node graphNode, String scope, AncestorsSet added) {
+        DependencyTree treeNode = new DependencyTree(graphNode.getArtifact().getDisplayStringSimple());
+        if (scope != null) {
+            treeNode.setScopes(Sets.newHashSet(new Scope(scope)));
+        }
+        populateNode.accept(treeNode);
+        if (!materialized.add(graphNode)) {
+            // Omitted for duplicate
+            return treeNode;
+        }
+        AncestorsSet addedInSubTree = added.newLevel();
+        for (Node dependency : graphNode.getDependencies()) {
+            if (addedInSubTree.add(dependency.getKey())) {
+                treeNode.add(createTree(dependency, null, addedInSubTree));
+            }
+        }
+        return treeNode;
+    }
+}
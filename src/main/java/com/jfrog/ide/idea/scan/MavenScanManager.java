@@ -5,16 +5,14 @@ import com.intellij.codeInspection.LocalInspectionTool;
 import com.intellij.ide.highlighter.XmlFileType;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.util.Pair;
-import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.psi.PsiFile;
 import com.intellij.psi.search.FilenameIndex;
 import com.intellij.psi.search.GlobalSearchScope;
+import com.jfrog.ide.common.log.ProgressIndicator;
 import com.jfrog.ide.common.scan.ComponentPrefix;
 import com.jfrog.ide.idea.inspections.MavenInspection;
 import com.jfrog.ide.idea.utils.Utils;
 import org.jetbrains.annotations.NotNull;
-import org.jetbrains.idea.maven.model.MavenArtifact;
-import org.jetbrains.idea.maven.model.MavenArtifactNode;
 import org.jetbrains.idea.maven.model.MavenId;
 import org.jetbrains.idea.maven.project.MavenProject;
 import org.jetbrains.idea.maven.project.MavenProjectChanges;
@@ -23,13 +21,12 @@ import org.jetbrains.idea.maven.project.MavenProjectsTree;
 import org.jetbrains.idea.maven.server.NativeMavenProjectHolder;
 import org.jfrog.build.extractor.scan.DependencyTree;
 import org.jfrog.build.extractor.scan.GeneralInfo;
-import org.jfrog.build.extractor.scan.Scope;
 
 import java.io.IOException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.Objects;
-import java.util.Set;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 /**
@@ -37,9 +34,20 @@ import java.util.stream.Collectors;
  */
 public class MavenScanManager extends ScanManager {
 
+    // The node of each module in the last built tree, used to rebuild only the modules resolved since the last scan
+    private final Map<MavenId, DependencyTree> moduleNodes = new ConcurrentHashMap<>();
+    // The dependencies added by the ancestors of each module in the last built tree
+    private final Map<MavenId, Set<String>> inheritedDependencies = new ConcurrentHashMap<>();
+    // The modules resolved since the last scan
+    private final Set<MavenProject> resolvedModules = ConcurrentHashMap.newKeySet();
+    // The Maven modules by the canonical path of their pom.xml, created once per tree build
+    private Map<String, MavenProject> modulesIndex = Collections.emptyMap();
+
     MavenScanManager(Project project) throws IOException {
         super(project, Utils.getProjectBasePath(project).toString(), ComponentPrefix.GAV);
         getLog().info("Found Maven project: " + getProjectName());
+        // The tree is built from the resolved Maven model, so the scans are triggered after resolving the changed
+        // modules rather than after changes in the pom.xml files
         MavenProjectsManager.getInstance(project).addProjectsTreeListener(new MavenProjectsTreeListener());
     }
 
@@ -61,16 +69,88 @@ public class MavenScanManager extends ScanManager {
     }
 
     @Override
-    protected void buildTree() {
+    protected DependencyTree buildTree() {
+        // The full tree covers all modules resolved so far
+        resolvedModules.clear();
+        moduleNodes.clear();
+        inheritedDependencies.clear();
+        modulesIndex = createModulesIndex(MavenProjectsManager.getInstance(project).getProjects());
         DependencyTree rootNode = new DependencyTree(project.getName());
-        MavenProjectsManager.getInstance(project).getRootProjects().forEach(rootMavenProject -> populateMavenModule(rootNode, rootMavenProject, Sets.newHashSet()));
+        MavenProjectsManager.getInstance(project).getRootProjects().forEach(rootMavenProject -> rootNode.add(populateMavenModule(rootMavenProject, Sets.newHashSet())));
         GeneralInfo generalInfo = new GeneralInfo().artifactId(project.getName()).path(basePath).pkgType("maven");
         rootNode.setGeneralInfo(generalInfo);
         if (rootNode.getChildren().size() == 1) {
-            setScanResults((DependencyTree) rootNode.getChildAt(0));
-        } else {
-            setScanResults(rootNode);
+            return (DependencyTree) rootNode.getChildAt(0);
+        }
+        return rootNode;
+    }
+
+    /**
+     * If only some of the modules were resolved since the last scan, rebuild and scan only their subtrees.
+     * Otherwise, build and scan the whole tree.
+     */
+    @Override
+    void buildTreeAndScan(boolean quickScan, ProgressIndicator indicator) throws Exception {
+        List<DependencyTree> updatedModules = rebuildResolvedModules();
+        if (updatedModules == null) {
+            super.buildTreeAndScan(quickScan, indicator);
+            return;
+        }
+        if (updatedModules.isEmpty()) {
+            return;
+        }
+        Set<DependencyTree> modules = Collections.newSetFromMap(new IdentityHashMap<>());
+        modules.addAll(moduleNodes.values());
+        List<DependencyTree> components = updatedModules.stream()
+                .flatMap(moduleNode -> Collections.list(moduleNode.depthFirstEnumeration()).stream())
+                .map(DependencyTree.class::cast)
+                .filter(node -> !modules.contains(node))
+                .collect(Collectors.toList());
+        // Only the components added since the last scan are sent to Xray
+        scanAndUpdateNodes(updatedModules, components, indicator);
+    }
+
+    /**
+     * Replace the subtrees of the modules resolved since the last scan in the scan results.
+     *
+     * @return the new module nodes or null if the whole tree should be rebuilt
+     */
+    private List<DependencyTree> rebuildResolvedModules() {
+        DependencyTree scanResults = getScanResults();
+        if (scanResults == null || resolvedModules.isEmpty()) {
+            return null;
+        }
+        Set<MavenProject> modules = Sets.newHashSet(resolvedModules);
+        resolvedModules.removeAll(modules);
+        Map<MavenProject, DependencyTree> oldNodes = new HashMap<>();
+        for (MavenProject module : modules) {
+            DependencyTree oldNode = moduleNodes.get(module.getMavenId());
+            // A new module or a root module
+            if (oldNode == null || oldNode == scanResults || !scanResults.isNodeDescendant(oldNode)) {
+                return null;
+            }
+            oldNodes.put(module, oldNode);
+        }
+
+        modulesIndex = createModulesIndex(MavenProjectsManager.getInstance(project).getProjects());
+        List<DependencyTree> updatedModules = new ArrayList<>();
+        for (Map.Entry<MavenProject, DependencyTree> entry : oldNodes.entrySet()) {
+            MavenProject module = entry.getKey();
+            DependencyTree oldNode = entry.getValue();
+            // Skip modules rebuilt as part of their resolved parent module
+            if (oldNodes.values().stream().anyMatch(other -> other != oldNode && other.isNodeDescendant(oldNode))) {
+                continue;
+            }
+            Set<String> added = inheritedDependencies.get(module.getMavenId());
+            moduleNodes.values().removeIf(oldNode::isNodeDescendant);
+            DependencyTree parent = (DependencyTree) oldNode.getParent();
+            int index = parent.getIndex(oldNode);
+            parent.remove(index);
+            DependencyTree newNode = populateMavenModule(module, added);
+            parent.insert(newNode, index);
+            updatedModules.add(newNode);
         }
+        return updatedModules;
     }
 
     @Override
@@ -87,40 +167,54 @@ public class MavenScanManager extends ScanManager {
 
     private void addSubmodules(DependencyTree mavenNode, MavenProject mavenProject, Set<String> added) {
         mavenProject.getExistingModuleFiles().stream()
-                .map(this::getModuleByVirtualFile)
+                .map(moduleFile -> modulesIndex.get(moduleFile.getCanonicalPath()))
                 .filter(Objects::nonNull)
-                .forEach(mavenModule -> populateMavenModule(mavenNode, mavenModule, added));
+                .forEach(mavenModule -> mavenNode.add(populateMavenModule(mavenModule, added)));
     }
 
     /**
-     * Populate recursively the dependency tree with the maven module and its dependencies.
+     * Populate recursively the dependency tree of the maven module and its dependencies.
      *
-     * @param root             - The root dependencies node
      * @param rootMavenProject - The root Maven project
      * @param added            - This set is used to make sure the dependencies added are unique between module and its parent
+     * @return the module node
      */
-    private void populateMavenModule(DependencyTree root, MavenProject rootMavenProject, Set<String> added) {
+    private DependencyTree populateMavenModule(MavenProject rootMavenProject, Set<String> added) {
         DependencyTree mavenNode = populateMavenModuleNode(rootMavenProject);
-        root.add(mavenNode);
+        moduleNodes.put(rootMavenProject.getMavenId(), mavenNode);
+        inheritedDependencies.put(rootMavenProject.getMavenId(), Sets.newHashSet(added));
         added = Sets.newHashSet(added);
         added.add(rootMavenProject.toString());
         addMavenProjectDependencies(mavenNode, rootMavenProject, added);
         addSubmodules(mavenNode, rootMavenProject, added);
+        return mavenNode;
     }
 
-    private MavenProject getModuleByVirtualFile(VirtualFile virtualFile) {
-        return MavenProjectsManager.getInstance(project).getProjects()
-                .stream()
-                .filter(mavenModule -> Objects.equals(mavenModule.getFile().getCanonicalPath(), virtualFile.getCanonicalPath()))
-                .findAny()
-                .orElse(null);
+    /**
+     * Create an index of the Maven modules by the canonical path of their pom.xml.
+     *
+     * @param mavenProjects - All Maven modules in the project
+     * @return map of canonical pom.xml path to Maven module
+     */
+    static Map<String, MavenProject> createModulesIndex(Collection<MavenProject> mavenProjects) {
+        Map<String, MavenProject> modulesIndex = new HashMap<>(mavenProjects.size());
+        for (MavenProject mavenProject : mavenProjects) {
+            String canonicalPath = mavenProject.getFile().getCanonicalPath();
+            if (canonicalPath != null) {
+                modulesIndex.putIfAbsent(canonicalPath, mavenProject);
+            }
+        }
+        return modulesIndex;
     }
 
     private void addMavenProjectDependencies(DependencyTree node, MavenProject mavenProject, Set<String> added) {
+        MavenDependencyGraph dependencyGraph = new MavenDependencyGraph(this::populateDependencyTreeNode);
+        AncestorsSet ancestors = AncestorsSet.of(added);
         mavenProject.getDependencyTree()
                 .stream()
-                .filter(dependencyTree -> added.add(dependencyTree.getArtifact().getDisplayStringForLibraryName()))
-                .forEach(dependencyTree -> updateChildrenNodes(node, dependencyTree, added, true));
+                .filter(dependencyTree -> ancestors.add(dependencyTree.getArtifact().getDisplayStringForLibraryName()))
+                .forEach(dependencyTree -> node.add(dependencyGraph.createTree(dependencyGraph.add(dependencyTree),
+                        dependencyTree.getArtifact().getScope(), ancestors)));
     }
 
     /**
@@ -137,22 +231,6 @@ public class MavenScanManager extends ScanManager {
         return node;
     }
 
-    private void updateChildrenNodes(DependencyTree parentNode, MavenArtifactNode mavenArtifactNode, Set<String> added, boolean setScopes) {
-        // This set is used to disallow duplications between a node and its ancestors
-        final Set<String> addedInSubTree = Sets.newHashSet(added);
-        MavenArtifact mavenArtifact = mavenArtifactNode.getArtifact();
-        DependencyTree currentNode = new DependencyTree(mavenArtifact.getDisplayStringSimple());
-        if (setScopes) {
-            currentNode.setScopes(Sets.newHashSet(new Scope(mavenArtifact.getScope())));
-        }
-        populateDependencyTreeNode(currentNode);
-        mavenArtifactNode.getDependencies()
-                .stream()
-                .filter(dependencyTree -> addedInSubTree.add(dependencyTree.getArtifact().getDisplayStringForLibraryName()))
-                .forEach(childrenArtifactNode -> updateChildrenNodes(currentNode, childrenArtifactNode, addedInSubTree, false));
-        parentNode.add(currentNode);
-    }
-
     /**
      * Maven projects tree listener for scanning artifacts on dependencies changes.
      */
@@ -161,6 +239,7 @@ public class MavenScanManager extends ScanManager {
         @Override
         public void projectResolved(@NotNull Pair<MavenProject, MavenProjectChanges> projectWithChanges,
                                     NativeMavenProjectHolder nativeMavenProject) {
+            resolvedModules.add(projectWithChanges.first);
             asyncScanAndUpdateResults();
         }
     }
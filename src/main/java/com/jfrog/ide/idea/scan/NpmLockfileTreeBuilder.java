@@ -0,0 +1,342 @@
+package com.jfrog.ide.idea.scan;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.google.common.collect.Sets;
+import org.apache.commons.lang3.StringUtils;
+import org.jfrog.build.api.util.Log;
+import org.jfrog.build.extractor.scan.DependencyTree;
+import org.jfrog.build.extractor.scan.GeneralInfo;
+import org.jfrog.build.extractor.scan.Scope;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Build the npm dependency tree from package-lock.json, without running npm.
+ * The lockfile is parsed with a streaming JSON parser. Supports lockfileVersion 1, 2 and 3.
+ * <p>
+ * All packages are kept by their location in node_modules, for example "node_modules/a/node_modules/b".
+ * A dependency is resolved like Node.js does - in the node_modules directory of the requiring package, and then in the
+ * node_modules directories of its ancestors. Like in 'npm ls', the dependencies of a package location are listed only
+ * in its shallowest occurrence in the tree.
+ *
+ * @author yahavi
+ */
+class NpmLockfileTreeBuilder {
+    static final String PACKAGE_LOCK_JSON = "package-lock.json";
+    private static final String PACKAGE_JSON = "package.json";
+    private static final String NODE_MODULES = "node_modules/";
+    private static final String PRODUCTION_SCOPE = "production";
+    private static final String DEVELOPMENT_SCOPE = "development";
+
+    private static final JsonFactory jsonFactory = new JsonFactory();
+
+    private final Path projectDir;
+
+    private static class Package {
+        private final List<String> devDependencies = new ArrayList<>();
+        private final List<String> dependencies = new ArrayList<>();
+        private String resolved;
+        private String version;
+        private String name;
+        private boolean link;
+    }
+
+    private static class ExpandedNode {
+        private final DependencyTree node;
+        private final String location;
+        private final String scope;
+
+        private ExpandedNode(DependencyTree node, String location, String scope) {
+            this.node = node;
+            this.location = location;
+            this.scope = scope;
+        }
+    }
+
+    /**
+     * @param projectDir - The directory of package.json and package-lock.json
+     */
+    NpmLockfileTreeBuilder(Path projectDir) {
+        this.projectDir = projectDir;
+    }
+
+    /**
+     * @return true if the project has a lockfile
+     */
+    boolean isApplicable() {
+        return Files.isRegularFile(projectDir.resolve(PACKAGE_LOCK_JSON));
+    }
+
+    /**
+     * Build the dependency tree from package-lock.json.
+     *
+     * @param logger - The logger
+     * @return the dependency tree
+     * @throws IOException in case of an error reading the lockfile
+     */
+    DependencyTree buildTree(Log logger) throws IOException {
+        Map<String, Package> packages = new HashMap<>();
+        try (InputStream inputStream = Files.newInputStream(projectDir.resolve(PACKAGE_LOCK_JSON));
+             JsonParser parser = jsonFactory.createParser(inputStream)) {
+            parseLockfile(parser, packages);
+        }
+        // In lockfileVersion 1, the root package is not in the lockfile
+        Package root = packages.get("");
+        if (root == null) {
+            root = readPackageJson();
+            packages.put("", root);
+        }
+
+        String packageName = StringUtils.defaultIfBlank(root.name, projectDir.getFileName().toString());
+        String packageVersion = StringUtils.defaultIfBlank(root.version, "N/A");
+        DependencyTree rootNode = new DependencyTree(packageName);
+        rootNode.setGeneralInfo(new GeneralInfo()
+                .groupId("")
+                .artifactId(packageName)
+                .version(packageVersion)
+                .path(projectDir.toString())
+                .pkgType("npm"));
+        // Expand the tree breadth-first, so that packages are expanded in their shallowest occurrence
+        Queue<ExpandedNode> queue = new ArrayDeque<>();
+        Set<String> expanded = new HashSet<>();
+        for (String dependency : root.dependencies) {
+            addDependency(rootNode, "", dependency, PRODUCTION_SCOPE, packages, queue, logger);
+        }
+        for (String dependency : root.devDependencies) {
+            addDependency(rootNode, "", dependency, DEVELOPMENT_SCOPE, packages, queue, logger);
+        }
+        while (!queue.isEmpty()) {
+            ExpandedNode expandedNode = queue.poll();
+            if (!expanded.add(expandedNode.location)) {
+                continue;
+            }
+            for (String dependency : packages.get(expandedNode.location).dependencies) {
+                addDependency(expandedNode.node, expandedNode.location, dependency, expandedNode.scope, packages, queue, logger);
+            }
+        }
+        logger.debug("Read " + packages.size() + " packages from " + projectDir.resolve(PACKAGE_LOCK_JSON));
+        return rootNode;
+    }
+
+    /**
+     * Add a dependency node under the parent node, and queue it for expansion.
+     *
+     * @param parent         - The parent node
+     * @param parentLocation - The location of the parent package
+     * @param name           - The dependency name
+     * @param scope          - The scope of the direct dependency
+     * @param packages       - Package location to package
+     * @param queue          - The nodes to expand
+     * @param logger         - The logger
+     */
+    private void addDependency(DependencyTree parent, String parentLocation, String name, String scope,
+                               Map<String, Package> packages, Queue<ExpandedNode> queue, Log logger) {
+        String location = resolve(parentLocation, name, packages);
+        if (location == null) {
+            // Optional dependencies may be missing, for example if not supported by the OS
+            logger.debug("npm dependency " + name + " required by '" + parentLocation + "' is not in the lockfile.");
+            return;
+        }
+        Package pkg = packages.get(location);
+        // Workspaces and 'file:' dependencies are links to the package location
+        if (pkg.link && packages.containsKey(pkg.resolved)) {
+            location = pkg.resolved;
+            pkg = packages.get(location);
+        }
+        if (StringUtils.isBlank(pkg.version)) {
+            return;
+        }
+        DependencyTree node = new DependencyTree(name + ":" + pkg.version);
+        node.setScopes(Sets.newHashSet(new Scope(scope)));
+        parent.add(node);
+        queue.add(new ExpandedNode(node, location, scope));
+    }
+
+    /**
+     * Resolve the location of a dependency, like Node.js 'require' does.
+     *
+     * @param from     - The location of the requiring package
+     * @param name     - The dependency name
+     * @param packages - Package location to package
+     * @return the dependency location or null if not found
+     */
+    private static String resolve(String from, String name, Map<String, Package> packages) {
+        String location = from;
+        while (true) {
+            String candidate = location.isEmpty() ? NODE_MODULES + name : location + "/" + NODE_MODULES + name;
+            if (packages.containsKey(candidate)) {
+                return candidate;
+            }
+            if (location.isEmpty()) {
+                return null;
+            }
+            int lastNodeModules = location.lastIndexOf(NODE_MODULES);
+            location = lastNodeModules <= 0 ? "" : location.substring(0, lastNodeModules - 1);
+        }
+    }
+
+    private void parseLockfile(JsonParser parser, Map<String, Package> packages) throws IOException {
+        expect(parser.nextToken(), JsonToken.START_OBJECT);
+        boolean hasPackagesSection = false;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String fieldName = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            if ("packages".equals(fieldName) && value == JsonToken.START_OBJECT) {
+                // lockfileVersion 2 and 3
+                packages.clear();
+                parsePackages(parser, packages);
+                hasPackagesSection = true;
+            } else if ("dependencies".equals(fieldName) && value == JsonToken.START_OBJECT && !hasPackagesSection) {
+                // lockfileVersion 1. In lockfileVersion 2, this section duplicates the 'packages' section.
+                parseV1Dependencies(parser, "", packages);
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    /**
+     * Parse the 'packages' section of lockfileVersion 2 and 3, where each key is a package location.
+     */
+    private void parsePackages(JsonParser parser, Map<String, Package> packages) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String location = parser.getCurrentName();
+            expect(parser.nextToken(), JsonToken.START_OBJECT);
+            Package pkg = new Package();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String fieldName = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                switch (fieldName) {
+                    case "name":
+                        pkg.name = parser.getValueAsString();
+                        break;
+                    case "version":
+                        pkg.version = parser.getValueAsString();
+                        break;
+                    case "resolved":
+                        pkg.resolved = parser.getValueAsString();
+                        break;
+                    case "link":
+                        pkg.link = value == JsonToken.VALUE_TRUE;
+                        break;
+                    case "dependencies":
+                    case "optionalDependencies":
+                    case "peerDependencies":
+                        readKeys(parser, value, pkg.dependencies);
+                        break;
+                    case "devDependencies":
+                        readKeys(parser, value, location.isEmpty() ? pkg.devDependencies : null);
+                        break;
+                    default:
+                        parser.skipChildren();
+                }
+            }
+            packages.put(location, pkg);
+        }
+    }
+
+    /**
+     * Parse the recursive 'dependencies' section of lockfileVersion 1. Each package is kept by its location, as in
+     * lockfileVersion 2.
+     */
+    private void parseV1Dependencies(JsonParser parser, String parentLocation, Map<String, Package> packages) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.getCurrentName();
+            String location = parentLocation.isEmpty() ? NODE_MODULES + name : parentLocation + "/" + NODE_MODULES + name;
+            expect(parser.nextToken(), JsonToken.START_OBJECT);
+            Package pkg = new Package();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String fieldName = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                switch (fieldName) {
+                    case "version":
+                        pkg.version = parser.getValueAsString();
+                        break;
+                    case "requires":
+                        readKeys(parser, value, pkg.dependencies);
+                        break;
+                    case "dependencies":
+                        if (value == JsonToken.START_OBJECT) {
+                            parseV1Dependencies(parser, location, packages);
+                        } else {
+                            parser.skipChildren();
+                        }
+                        break;
+                    default:
+                        parser.skipChildren();
+                }
+            }
+            packages.put(location, pkg);
+        }
+    }
+
+    /**
+     * Read the direct dependencies of the project from package.json. Used for lockfileVersion 1.
+     */
+    private Package readPackageJson() throws IOException {
+        Package root = new Package();
+        Path packageJson = projectDir.resolve(PACKAGE_JSON);
+        if (!Files.isRegularFile(packageJson)) {
+            return root;
+        }
+        try (InputStream inputStream = Files.newInputStream(packageJson);
+             JsonParser parser = jsonFactory.createParser(inputStream)) {
+            expect(parser.nextToken(), JsonToken.START_OBJECT);
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String fieldName = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                switch (fieldName) {
+                    case "name":
+                        root.name = parser.getValueAsString();
+                        break;
+                    case "version":
+                        root.version = parser.getValueAsString();
+                        break;
+                    case "dependencies":
+                    case "optionalDependencies":
+                        readKeys(parser, value, root.dependencies);
+                        break;
+                    case "devDependencies":
+                        readKeys(parser, value, root.devDependencies);
+                        break;
+                    default:
+                        parser.skipChildren();
+                }
+            }
+        }
+        return root;
+    }
+
+    /**
+     * Read the keys of a JSON object, skipping the values.
+     *
+     * @param parser - The parser, positioned on the start of the object
+     * @param value  - The current token
+     * @param keys   - The list to add the keys to or null to skip the object
+     */
+    private static void readKeys(JsonParser parser, JsonToken value, List<String> keys) throws IOException {
+        if (value != JsonToken.START_OBJECT || keys == null) {
+            parser.skipChildren();
+            return;
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            if (!keys.contains(parser.getCurrentName())) {
+                keys.add(parser.getCurrentName());
+            }
+            parser.nextToken();
+            parser.skipChildren();
+        }
+    }
+
+    private static void expect(JsonToken actual, JsonToken expected) throws IOException {
+        if (actual != expected) {
+            throw new IOException("Unexpected JSON token: expected " + expected + " but got " + actual);
+        }
+    }
+}
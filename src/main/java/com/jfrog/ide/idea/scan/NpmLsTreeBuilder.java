@@ -0,0 +1,203 @@
+package com.jfrog.ide.idea.scan;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.google.common.collect.Sets;
+import org.apache.commons.lang3.StringUtils;
+import org.jfrog.build.api.util.Log;
+import org.jfrog.build.extractor.scan.DependencyTree;
+import org.jfrog.build.extractor.scan.GeneralInfo;
+import org.jfrog.build.extractor.scan.Scope;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Build the npm dependency tree by running 'npm ls' with the {@link BuildProcessRunner}. Used for projects without a
+ * lockfile. The JSON output of 'npm ls' is parsed with a streaming JSON parser while npm runs.
+ * <p>
+ * 'npm ls' doesn't tell the scope of the dependencies. Like in the lockfile trees, the direct dependencies listed in
+ * the devDependencies of package.json are in the development scope, and the transitive dependencies get the scope of
+ * their direct dependency.
+ *
+ * @author yahavi
+ */
+class NpmLsTreeBuilder {
+    private static final String PACKAGE_JSON = "package.json";
+    private static final String PRODUCTION_SCOPE = "production";
+    private static final String DEVELOPMENT_SCOPE = "development";
+
+    private static final JsonFactory jsonFactory = new JsonFactory();
+
+    private final BuildProcessRunner processRunner;
+    private final Map<String, String> env;
+    private final Path projectDir;
+
+    /**
+     * @param processRunner - Run npm
+     * @param projectDir    - The package.json directory
+     * @param env           - The environment of npm
+     */
+    NpmLsTreeBuilder(BuildProcessRunner processRunner, Path projectDir, Map<String, String> env) {
+        this.processRunner = processRunner;
+        this.projectDir = projectDir;
+        this.env = env;
+    }
+
+    /**
+     * Build the dependency tree of the installed packages.
+     *
+     * @param logger - The logger
+     * @return the dependency tree
+     * @throws IOException in case of an error running npm or parsing its output
+     */
+    DependencyTree buildTree(Log logger) throws IOException {
+        Set<String> devDependencies = readDevDependencies(projectDir.resolve(PACKAGE_JSON));
+        BuildProcessRunner.Result<DependencyTree> result = processRunner.run(Arrays.asList("npm", "ls", "--json", "--all"),
+                projectDir, env, stdout -> parse(stdout, devDependencies, projectDir));
+        // 'npm ls' fails on missing, extraneous and invalid packages, but still lists the installed packages
+        if (result.getValue() == null) {
+            throw new IOException(String.format("'npm ls' failed with exit code %d: %s", result.getExitCode(), result.getStderr()));
+        }
+        if (!result.isOk()) {
+            logger.warn("'npm ls' exited with code " + result.getExitCode() + " in " + projectDir + ": " + result.getStderr());
+        }
+        return result.getValue();
+    }
+
+    /**
+     * Parse the JSON output of 'npm ls'.
+     *
+     * @param stdout          - The output of 'npm ls'
+     * @param devDependencies - The names of the direct development dependencies
+     * @param projectDir      - The package.json directory
+     * @return the dependency tree or null if npm had no output
+     */
+    static DependencyTree parse(InputStream stdout, Set<String> devDependencies, Path projectDir) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(stdout)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+            String packageName = null;
+            String packageVersion = null;
+            DependencyTree rootNode = new DependencyTree();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String fieldName = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                switch (fieldName) {
+                    case "name":
+                        packageName = parser.getValueAsString();
+                        break;
+                    case "version":
+                        packageVersion = parser.getValueAsString();
+                        break;
+                    case "dependencies":
+                        if (value == JsonToken.START_OBJECT) {
+                            parseDependencies(parser, rootNode, devDependencies);
+                        } else {
+                            parser.skipChildren();
+                        }
+                        break;
+                    default:
+                        parser.skipChildren();
+                }
+            }
+            packageName = StringUtils.defaultIfBlank(packageName, projectDir.getFileName().toString());
+            rootNode.setUserObject(packageName);
+            rootNode.setGeneralInfo(new GeneralInfo()
+                    .groupId("")
+                    .artifactId(packageName)
+                    .version(StringUtils.defaultIfBlank(packageVersion, "N/A"))
+                    .path(projectDir.toString())
+                    .pkgType("npm"));
+            return rootNode;
+        }
+    }
+
+    /**
+     * Parse the recursive 'dependencies' object of 'npm ls'. The direct dependencies get their scope from
+     * package.json, and the transitive dependencies inherit it.
+     *
+     * @param parser          - The parser, positioned on the start of the object
+     * @param parent          - The parent node
+     * @param devDependencies - The names of the direct development dependencies, or null for transitive dependencies
+     */
+    private static void parseDependencies(JsonParser parser, DependencyTree parent, Set<String> devDependencies) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.getCurrentName();
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                continue;
+            }
+            DependencyTree node = new DependencyTree();
+            String version = null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String fieldName = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                if ("version".equals(fieldName)) {
+                    version = parser.getValueAsString();
+                } else if ("dependencies".equals(fieldName) && value == JsonToken.START_OBJECT) {
+                    parseDependencies(parser, node, null);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            // Missing packages have no version
+            if (StringUtils.isBlank(version)) {
+                continue;
+            }
+            node.setUserObject(name + ":" + version);
+            if (devDependencies != null) {
+                setScope(node, devDependencies.contains(name) ? DEVELOPMENT_SCOPE : PRODUCTION_SCOPE);
+            }
+            parent.add(node);
+        }
+    }
+
+    /**
+     * Set the scope of a direct dependency and of all of its transitive dependencies.
+     */
+    private static void setScope(DependencyTree node, String scope) {
+        node.setScopes(Sets.newHashSet(new Scope(scope)));
+        for (DependencyTree child : node.getChildren()) {
+            setScope(child, scope);
+        }
+    }
+
+    /**
+     * Read the names of the direct development dependencies from package.json.
+     */
+    private static Set<String> readDevDependencies(Path packageJson) throws IOException {
+        Set<String> devDependencies = new HashSet<>();
+        if (!Files.isRegularFile(packageJson)) {
+            return devDependencies;
+        }
+        try (InputStream inputStream = Files.newInputStream(packageJson);
+             JsonParser parser = jsonFactory.createParser(inputStream)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return devDependencies;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String fieldName = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                if (!"devDependencies".equals(fieldName) || value != JsonToken.START_OBJECT) {
+                    parser.skipChildren();
+                    continue;
+                }
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    devDependencies.add(parser.getCurrentName());
+                    parser.nextToken();
+                    parser.skipChildren();
+                }
+            }
+        }
+        return devDependencies;
+    }
+}
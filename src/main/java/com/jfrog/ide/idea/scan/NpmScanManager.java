@@ -1,27 +1,37 @@
 package com.jfrog.ide.idea.scan;
 
+import com.google.common.collect.Lists;
 import com.intellij.codeInspection.LocalInspectionTool;
+import com.intellij.ide.util.PropertiesComponent;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.vfs.LocalFileSystem;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.psi.PsiFile;
 import com.intellij.psi.PsiManager;
 import com.intellij.util.EnvironmentUtil;
-import com.jfrog.ide.common.npm.NpmTreeBuilder;
 import com.jfrog.ide.common.scan.ComponentPrefix;
 import com.jfrog.ide.idea.inspections.NpmInspection;
 import com.jfrog.ide.idea.ui.ComponentsTree;
 import com.jfrog.ide.idea.ui.filters.filtermanager.ConsistentFilterManager;
+import org.jfrog.build.extractor.scan.DependencyTree;
 
 import java.io.IOException;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Collection;
+import java.util.Map;
 
 /**
  * Created by Yahav Itzhak on 13 Dec 2017.
  */
 public class NpmScanManager extends ScanManager {
+    // Project property selecting the npm tree builder: "lockfile" (default) or "npm"
+    public static final String NPM_TREE_BUILDER_KEY = "jfrog.npm.treeBuilder";
+    private static final String NPM_TREE_BUILDER = "npm";
+    private static final String PACKAGE_JSON = "package.json";
 
-    private final NpmTreeBuilder npmTreeBuilder;
+    private final NpmLockfileTreeBuilder lockfileTreeBuilder;
+    private final NpmLsTreeBuilder npmTreeBuilder;
 
     /**
      * @param project  - Currently opened IntelliJ project. We'll use this project to retrieve project based services
@@ -31,18 +41,45 @@ public class NpmScanManager extends ScanManager {
     NpmScanManager(Project project, String basePath) throws IOException {
         super(project, basePath, ComponentPrefix.NPM);
         getLog().info("Found npm project: " + getProjectName());
-        npmTreeBuilder = new NpmTreeBuilder(Paths.get(basePath), EnvironmentUtil.getEnvironmentMap());
-        subscribeLaunchDependencyScanOnFileChangedEvents("package-lock.json");
+        npmTreeBuilder = new NpmLsTreeBuilder(ScanCoordinator.getInstance().getProcessRunner(), Paths.get(basePath), EnvironmentUtil.getEnvironmentMap());
+        lockfileTreeBuilder = new NpmLockfileTreeBuilder(Paths.get(basePath));
+        subscribeLaunchDependencyScanOnFileChangedEvents(NpmLockfileTreeBuilder.PACKAGE_LOCK_JSON);
+    }
+
+    /**
+     * Build the dependency tree from package-lock.json. Run 'npm ls' if the project has no lockfile, or if the npm
+     * tree builder is selected for the project.
+     */
+    @Override
+    protected DependencyTree buildTree() throws IOException {
+        String treeBuilder = PropertiesComponent.getInstance(project).getValue(NPM_TREE_BUILDER_KEY);
+        if (!NPM_TREE_BUILDER.equals(treeBuilder) && lockfileTreeBuilder.isApplicable()) {
+            return lockfileTreeBuilder.buildTree(getLog());
+        }
+        return npmTreeBuilder.buildTree(getLog());
+    }
+
+    /**
+     * The lockfile tree builder reads only package.json and package-lock.json. 'npm ls' also reads the installed
+     * packages, which are listed in the hidden lockfile node_modules/.package-lock.json since npm 7.
+     */
+    @Override
+    Collection<Path> getTreeInputs() {
+        Path projectDir = Paths.get(basePath);
+        return Lists.newArrayList(projectDir.resolve(PACKAGE_JSON), projectDir.resolve(NpmLockfileTreeBuilder.PACKAGE_LOCK_JSON),
+                projectDir.resolve("node_modules").resolve(".package-lock.json"));
     }
 
     @Override
-    protected void buildTree() throws IOException {
-        setScanResults(npmTreeBuilder.buildTree(getLog()));
+    Map<String, String> getTreeEnvironment() {
+        Map<String, String> environment = getEnvironment("PATH", "NODE_ENV");
+        environment.put(NPM_TREE_BUILDER_KEY, PropertiesComponent.getInstance(project).getValue(NPM_TREE_BUILDER_KEY));
+        return environment;
     }
 
     @Override
     protected PsiFile[] getProjectDescriptors() {
-        String packageJsonPath = Paths.get(basePath, "package.json").toString();
+        String packageJsonPath = Paths.get(basePath, PACKAGE_JSON).toString();
         VirtualFile file = LocalFileSystem.getInstance().findFileByPath(packageJsonPath);
         if (file == null) {
             return null;
@@ -0,0 +1,73 @@
+package com.jfrog.ide.idea.scan;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Limit the number of concurrent operations. When a permit is released, it is granted to the first waiting
+ * high-priority operation, or to the first waiting operation if none has a high priority.
+ * The priority of a waiting operation is evaluated each time a permit is granted, so it may change while waiting.
+ *
+ * @author yahavi
+ */
+class PriorityLimiter {
+    private static final long POLL_INTERVAL_MILLIS = 100;
+
+    private final List<Waiter> waiters = new ArrayList<>();
+    private int availablePermits;
+
+    private static class Waiter {
+        private final BooleanSupplier highPriority;
+
+        private Waiter(BooleanSupplier highPriority) {
+            this.highPriority = highPriority;
+        }
+    }
+
+    /**
+     * @param permits - The maximal number of concurrent operations
+     */
+    PriorityLimiter(int permits) {
+        this.availablePermits = Math.max(1, permits);
+    }
+
+    /**
+     * Wait for a permit. Each acquired permit must be released.
+     *
+     * @param highPriority  - Returns true if the operation has a high priority
+     * @param checkCanceled - Throws an unchecked exception if the operation was canceled
+     * @throws InterruptedException if the thread was interrupted
+     */
+    synchronized void acquire(BooleanSupplier highPriority, Runnable checkCanceled) throws InterruptedException {
+        Waiter waiter = new Waiter(highPriority);
+        waiters.add(waiter);
+        try {
+            while (availablePermits == 0 || getNextWaiter() != waiter) {
+                wait(POLL_INTERVAL_MILLIS);
+                checkCanceled.run();
+            }
+            availablePermits--;
+        } finally {
+            waiters.remove(waiter);
+            // The next waiter may acquire the remaining permits
+            notifyAll();
+        }
+    }
+
+    synchronized void release() {
+        availablePermits++;
+        notifyAll();
+    }
+
+    synchronized int getAvailablePermits() {
+        return availablePermits;
+    }
+
+    private Waiter getNextWaiter() {
+        return waiters.stream()
+                .filter(waiter -> waiter.highPriority.getAsBoolean())
+                .findFirst()
+                .orElse(waiters.get(0));
+    }
+}
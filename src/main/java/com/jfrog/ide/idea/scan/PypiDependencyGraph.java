@@ -0,0 +1,146 @@
+package com.jfrog.ide.idea.scan;
+
+import com.jetbrains.python.packaging.PyPackage;
+import com.jetbrains.python.packaging.PyRequirement;
+import org.jfrog.build.api.util.Log;
+import org.jfrog.build.extractor.scan.DependencyTree;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * The packages of a Python SDK, as a graph of unique packages.
+ * The requirements of each package are resolved once, and shared by all of its occurrences in the graph.
+ * Circular requirements are allowed in the graph and pruned when the dependency tree is populated. Like in Maven's
+ * dependency tree, the requirements of a package are added under its first occurrence in the dependency tree, and its
+ * other occurrences are leaves. The number of tree nodes is therefore bounded by the number of edges in the graph,
+ * rather than by the number of paths.
+ *
+ * @author yahavi
+ */
+class PypiDependencyGraph {
+
+    static class Node {
+        private final List<Node> dependencies = new ArrayList<>();
+        private final PyPackage pyPackage;
+
+        private Node(PyPackage pyPackage) {
+            this.pyPackage = pyPackage;
+        }
+
+        PyPackage getPackage() {
+            return pyPackage;
+        }
+
+        List<Node> getDependencies() {
+            return dependencies;
+        }
+    }
+
+    // Normalized package name to graph node, sorted to keep the order of the roots stable
+    private final Map<String, Node> nodes = new TreeMap<>();
+    private final List<Node> roots = new ArrayList<>();
+
+    /**
+     * @param packages - All packages installed in the SDK
+     * @param log      - The logger
+     */
+    PypiDependencyGraph(Collection<PyPackage> packages, Log log) {
+        for (PyPackage pyPackage : packages) {
+            nodes.put(normalizeName(pyPackage.getName()), new Node(pyPackage));
+        }
+        Set<Node> required = new HashSet<>();
+        for (Node node : nodes.values()) {
+            for (PyRequirement requirement : node.pyPackage.getRequirements()) {
+                Node dependency = nodes.get(normalizeName(requirement.getName()));
+                if (dependency == null) {
+                    log.warn("Dependency " + requirement.getName() + " is not installed.");
+                    continue;
+                }
+                node.dependencies.add(dependency);
+                required.add(dependency);
+            }
+        }
+        populateRoots(required);
+    }
+
+    /**
+     * Normalize a package name, as defined in PEP 503. For example, 'Typing_Extensions' -> 'typing-extensions'.
+     *
+     * @param name - The package name
+     * @return the normalized package name
+     */
+    static String normalizeName(String name) {
+        return name.replaceAll("[-_.]+", "-").toLowerCase();
+    }
+
+    /**
+     * Populate the roots of the graph - the packages which are not required by other packages.
+     * Packages in a cycle, which is not reachable from these packages, are added as roots too. Otherwise, they would
+     * be missing from the dependency tree.
+     *
+     * @param required - The packages required by other packages
+     */
+    private void populateRoots(Set<Node> required) {
+        Set<Node> reachable = new HashSet<>();
+        for (Node node : nodes.values()) {
+            if (!required.contains(node)) {
+                roots.add(node);
+                markReachable(node, reachable);
+            }
+        }
+        for (Node node : nodes.values()) {
+            if (!reachable.contains(node)) {
+                roots.add(node);
+                markReachable(node, reachable);
+            }
+        }
+    }
+
+    private static void markReachable(Node root, Set<Node> reachable) {
+        Deque<Node> stack = new ArrayDeque<>();
+        stack.push(root);
+        while (!stack.isEmpty()) {
+            Node node = stack.pop();
+            if (reachable.add(node)) {
+                node.dependencies.forEach(stack::push);
+            }
+        }
+    }
+
+    List<Node> getRoots() {
+        return roots;
+    }
+
+    /**
+     * Populate the dependency tree with the packages of the graph.
+     * A package is never added under itself, to break circular requirements. The requirements of a package are added
+     * only under its first occurrence.
+     *
+     * @param root       - The root node to populate
+     * @param createNode - Create a dependency tree node for a package
+     */
+    void populateDependencyTree(DependencyTree root, Function<PyPackage, DependencyTree> createNode) {
+        Set<Node> ancestors = new HashSet<>();
+        Set<Node> expanded = new HashSet<>();
+        for (Node node : roots) {
+            populateDependencyTree(root, node, createNode, ancestors, expanded);
+        }
+    }
+
+    private void populateDependencyTree(DependencyTree parent, Node node, Function<PyPackage, DependencyTree> createNode,
+                                        Set<Node> ancestors, Set<Node> expanded) {
+        DependencyTree child = createNode.apply(node.pyPackage);
+        parent.add(child);
+        if (!expanded.add(node)) {
+            return;
+        }
+        ancestors.add(node);
+        for (Node dependency : node.dependencies) {
+            if (!ancestors.contains(dependency)) {
+                populateDependencyTree(child, dependency, createNode, ancestors, expanded);
+            }
+        }
+        ancestors.remove(node);
+    }
+}
@@ -0,0 +1,286 @@
+package com.jfrog.ide.idea.scan;
+
+import com.intellij.openapi.util.SystemInfo;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Evaluate the environment markers of the PyPI requirements, as defined in PEP 508. For example,
+ * "python_version < '3.8' and sys_platform == 'win32'".
+ * Only the common markers are supported. Requirements with other markers can't be evaluated without running pip.
+ *
+ * @author yahavi
+ */
+class PypiEnvironmentMarkers {
+    private static final Pattern TOKEN_PATTERN = Pattern.compile("\\s*(\\(|\\)|===|==|!=|<=|>=|~=|<|>|'[^']*'|\"[^\"]*\"|[A-Za-z_][A-Za-z0-9_.]*)");
+    private static final Pattern VERSION_PATTERN = Pattern.compile("\\d+(\\.\\d+)*");
+    private static final Set<String> VERSION_MARKERS = new HashSet<>(Arrays.asList("python_version", "python_full_version"));
+
+    /**
+     * Thrown if a marker can't be evaluated, for example a marker of an unsupported variable.
+     */
+    static class UnsupportedMarkerException extends RuntimeException {
+        UnsupportedMarkerException(String message) {
+            super(message);
+        }
+    }
+
+    private final Map<String, String> environment;
+
+    /**
+     * @param environment - The values of the marker variables
+     */
+    PypiEnvironmentMarkers(Map<String, String> environment) {
+        this.environment = environment;
+    }
+
+    /**
+     * Create the environment markers of a local Python SDK.
+     *
+     * @param versionString - The version string of the SDK, for example "Python 3.8.5"
+     * @return the environment markers of the SDK
+     */
+    static PypiEnvironmentMarkers forSdk(String versionString) {
+        Map<String, String> environment = new HashMap<>();
+        // Requirements needed only by an extra are not installed, unless the extra was requested
+        environment.put("extra", "");
+        Matcher version = VERSION_PATTERN.matcher(StringUtils.defaultString(versionString));
+        if (version.find()) {
+            String[] segments = version.group().split("\\.");
+            environment.put("python_full_version", version.group());
+            environment.put("python_version", segments.length > 1 ? segments[0] + "." + segments[1] : segments[0]);
+        }
+        if (SystemInfo.isWindows) {
+            environment.put("sys_platform", "win32");
+            environment.put("platform_system", "Windows");
+            environment.put("os_name", "nt");
+        } else if (SystemInfo.isMac) {
+            environment.put("sys_platform", "darwin");
+            environment.put("platform_system", "Darwin");
+            environment.put("os_name", "posix");
+        } else if (SystemInfo.isLinux) {
+            environment.put("sys_platform", "linux");
+            environment.put("platform_system", "Linux");
+            environment.put("os_name", "posix");
+        }
+        return new PypiEnvironmentMarkers(environment);
+    }
+
+    /**
+     * Evaluate the marker.
+     *
+     * @param marker - The marker, for example "python_version < '3.8'"
+     * @return true if the requirement is needed in this environment
+     * @throws UnsupportedMarkerException if the marker can't be evaluated
+     */
+    boolean evaluate(String marker) {
+        if (StringUtils.isBlank(marker)) {
+            return true;
+        }
+        Parser parser = new Parser(tokenize(marker));
+        boolean result = parser.parseOr();
+        if (parser.hasNext()) {
+            throw new UnsupportedMarkerException("Unexpected token '" + parser.next() + "' in marker: " + marker);
+        }
+        return result;
+    }
+
+    private static List<String> tokenize(String marker) {
+        List<String> tokens = new ArrayList<>();
+        Matcher matcher = TOKEN_PATTERN.matcher(marker);
+        int end = 0;
+        while (matcher.find() && matcher.start() == end) {
+            tokens.add(matcher.group(1));
+            end = matcher.end();
+        }
+        if (!marker.substring(end).trim().isEmpty()) {
+            throw new UnsupportedMarkerException("Unsupported marker: " + marker);
+        }
+        return tokens;
+    }
+
+    /**
+     * A recursive descent parser of the marker grammar:
+     * or := and ('or' and)*
+     * and := expression ('and' expression)*
+     * expression := '(' or ')' | value operator value
+     */
+    private class Parser {
+        private final List<String> tokens;
+        private int position;
+
+        private Parser(List<String> tokens) {
+            this.tokens = tokens;
+        }
+
+        private boolean parseOr() {
+            boolean result = parseAnd();
+            while ("or".equals(peek())) {
+                next();
+                // Evaluate both sides, to fail on unsupported markers regardless of the order
+                result = parseAnd() | result;
+            }
+            return result;
+        }
+
+        private boolean parseAnd() {
+            boolean result = parseExpression();
+            while ("and".equals(peek())) {
+                next();
+                result = parseExpression() & result;
+            }
+            return result;
+        }
+
+        private boolean parseExpression() {
+            if ("(".equals(peek())) {
+                next();
+                boolean result = parseOr();
+                if (!")".equals(next())) {
+                    throw new UnsupportedMarkerException("Missing ')' in marker");
+                }
+                return result;
+            }
+            String left = next();
+            String operator = next();
+            if ("not".equals(operator)) {
+                if (!"in".equals(next())) {
+                    throw new UnsupportedMarkerException("Expected 'in' after 'not' in marker");
+                }
+                operator = "not in";
+            }
+            String right = next();
+            return compare(left, operator, right);
+        }
+
+        private boolean compare(String left, String operator, String right) {
+            String variable = isLiteral(left) ? right : left;
+            String leftValue = getValue(left);
+            String rightValue = getValue(right);
+            switch (operator) {
+                case "in":
+                    return rightValue.contains(leftValue);
+                case "not in":
+                    return !rightValue.contains(leftValue);
+                case "===":
+                    return leftValue.equals(rightValue);
+            }
+            if (VERSION_MARKERS.contains(variable)) {
+                return compareVersions(leftValue, operator, rightValue);
+            }
+            switch (operator) {
+                case "==":
+                    return leftValue.equals(rightValue);
+                case "!=":
+                    return !leftValue.equals(rightValue);
+                default:
+                    throw new UnsupportedMarkerException("Unsupported operator '" + operator + "' for " + variable);
+            }
+        }
+
+        private String getValue(String token) {
+            if (isLiteral(token)) {
+                return token.substring(1, token.length() - 1);
+            }
+            String value = environment.get(token);
+            if (value == null) {
+                throw new UnsupportedMarkerException("Unsupported marker variable: " + token);
+            }
+            return value;
+        }
+
+        private boolean hasNext() {
+            return position < tokens.size();
+        }
+
+        private String peek() {
+            return hasNext() ? tokens.get(position) : null;
+        }
+
+        private String next() {
+            if (!hasNext()) {
+                throw new UnsupportedMarkerException("Unexpected end of marker");
+            }
+            return tokens.get(position++);
+        }
+    }
+
+    private static boolean isLiteral(String token) {
+        return token.startsWith("'") || token.startsWith("\"");
+    }
+
+    /**
+     * Compare two versions, for example "3.8" < "3.10". A version ending with ".*" matches all versions with its prefix.
+     */
+    private static boolean compareVersions(String left, String operator, String right) {
+        if (right.endsWith(".*") && (operator.equals("==") || operator.equals("!="))) {
+            String prefix = right.substring(0, right.length() - 2);
+            boolean matches = compareSegments(left, prefix, prefix.split("\\.").length) == 0;
+            return operator.equals("==") == matches;
+        }
+        if (!VERSION_PATTERN.matcher(left).matches() || !VERSION_PATTERN.matcher(right).matches()) {
+            throw new UnsupportedMarkerException("Unsupported version comparison: " + left + " " + operator + " " + right);
+        }
+        int segments = Math.max(left.split("\\.").length, right.split("\\.").length);
+        int comparison = compareSegments(left, right, segments);
+        switch (operator) {
+            case "==":
+                return comparison == 0;
+            case "!=":
+                return comparison != 0;
+            case "<":
+                return comparison < 0;
+            case "<=":
+                return comparison <= 0;
+            case ">":
+                return comparison > 0;
+            case ">=":
+                return comparison >= 0;
+            case "~=":
+                // Compatible release - at least the version, with the same prefix except for the last segment
+                int prefixSegments = right.split("\\.").length - 1;
+                return comparison >= 0 && prefixSegments > 0 && compareSegments(left, right, prefixSegments) == 0;
+            default:
+                throw new UnsupportedMarkerException("Unsupported operator: " + operator);
+        }
+    }
+
+    /**
+     * Compare the first segments of two numeric versions. Missing segments are treated as 0.
+     */
+    private static int compareSegments(String left, String right, int segments) {
+        String[] leftSegments = left.split("\\.");
+        String[] rightSegments = right.split("\\.");
+        for (int i = 0; i < segments; i++) {
+            int comparison = Long.compare(getSegment(leftSegments, i), getSegment(rightSegments, i));
+            if (comparison != 0) {
+                return comparison;
+            }
+        }
+        return 0;
+    }
+
+    private static long getSegment(String[] segments, int index) {
+        if (index >= segments.length) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(segments[index]);
+        } catch (NumberFormatException e) {
+            throw new UnsupportedMarkerException("Unsupported version segment: " + segments[index]);
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof PypiEnvironmentMarkers && environment.equals(((PypiEnvironmentMarkers) o).environment);
+    }
+
+    @Override
+    public int hashCode() {
+        return environment.hashCode();
+    }
+}
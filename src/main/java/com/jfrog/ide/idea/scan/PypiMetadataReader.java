@@ -0,0 +1,208 @@
+package com.jfrog.ide.idea.scan;
+
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Read the packages installed in a Python SDK from the '*.dist-info/METADATA' files in its site-packages directories,
+ * without running pip. Each SDK has its own reader, which caches the packages it read. The cached packages are reused
+ * as long as the modification times of the site-packages directories are unchanged. Installing, upgrading or removing
+ * a package adds or removes a '*.dist-info' directory, and therefore changes the modification time of its
+ * site-packages directory.
+ *
+ * @author yahavi
+ */
+class PypiMetadataReader {
+    private static final String DIST_INFO_SUFFIX = ".dist-info";
+    private static final String EGG_INFO_SUFFIX = ".egg-info";
+    private static final String METADATA_FILE = "METADATA";
+
+    // The packages read in the last call, released with the reader
+    private CachedPackages cachedPackages;
+
+    static class PackageMetadata {
+        private final List<String> requirements;
+        private final String location;
+        private final String version;
+        private final String name;
+
+        PackageMetadata(String name, String version, String location, List<String> requirements) {
+            this.name = name;
+            this.version = version;
+            this.location = location;
+            this.requirements = requirements;
+        }
+
+        String getName() {
+            return name;
+        }
+
+        String getVersion() {
+            return version;
+        }
+
+        String getLocation() {
+            return location;
+        }
+
+        /**
+         * @return the names of the required packages
+         */
+        List<String> getRequirements() {
+            return requirements;
+        }
+    }
+
+    private static class CachedPackages {
+        private final Map<Path, Long> modificationTimes;
+        private final PypiEnvironmentMarkers markers;
+        private final List<PackageMetadata> packages;
+
+        private CachedPackages(Map<Path, Long> modificationTimes, PypiEnvironmentMarkers markers, List<PackageMetadata> packages) {
+            this.modificationTimes = modificationTimes;
+            this.markers = markers;
+            this.packages = packages;
+        }
+    }
+
+    /**
+     * Read the packages installed in the site-packages directories of a Python SDK.
+     *
+     * @param sitePackagesDirs - The site-packages directories of the SDK
+     * @param markers          - The environment markers of the SDK, used to skip requirements not needed by the SDK
+     * @return the installed packages or null if the packages can't be read without pip
+     * @throws IOException in case of an error reading the site-packages directories
+     */
+    synchronized List<PackageMetadata> readPackages(Collection<Path> sitePackagesDirs, PypiEnvironmentMarkers markers) throws IOException {
+        Map<Path, Long> modificationTimes = new HashMap<>();
+        for (Path sitePackagesDir : sitePackagesDirs) {
+            modificationTimes.put(sitePackagesDir, Files.getLastModifiedTime(sitePackagesDir).toMillis());
+        }
+        if (cachedPackages != null && cachedPackages.modificationTimes.equals(modificationTimes) && cachedPackages.markers.equals(markers)) {
+            return cachedPackages.packages;
+        }
+        cachedPackages = null;
+
+        List<Path> distInfoDirs = new ArrayList<>();
+        for (Path sitePackagesDir : sitePackagesDirs) {
+            try (Stream<Path> children = Files.list(sitePackagesDir)) {
+                for (Path child : (Iterable<Path>) children::iterator) {
+                    String fileName = child.getFileName().toString();
+                    if (fileName.endsWith(EGG_INFO_SUFFIX)) {
+                        // Legacy packages have no METADATA file
+                        return null;
+                    }
+                    if (fileName.endsWith(DIST_INFO_SUFFIX)) {
+                        distInfoDirs.add(child);
+                    }
+                }
+            }
+        }
+        if (distInfoDirs.isEmpty()) {
+            return null;
+        }
+        List<PackageMetadata> packages;
+        try {
+            packages = distInfoDirs.parallelStream()
+                    .map(distInfoDir -> readDistInfo(distInfoDir, markers))
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toList());
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } catch (PypiEnvironmentMarkers.UnsupportedMarkerException e) {
+            // Let pip decide which requirements are needed
+            return null;
+        }
+        cachedPackages = new CachedPackages(modificationTimes, markers, packages);
+        return packages;
+    }
+
+    /**
+     * Read the name, version and requirements of a package from its METADATA file.
+     *
+     * @param distInfoDir - The '*.dist-info' directory of the package
+     * @param markers     - The environment markers of the SDK
+     * @return the package metadata or null if the METADATA file is missing or incomplete
+     */
+    private static PackageMetadata readDistInfo(Path distInfoDir, PypiEnvironmentMarkers markers) {
+        Path metadataFile = distInfoDir.resolve(METADATA_FILE);
+        if (!Files.isRegularFile(metadataFile)) {
+            return null;
+        }
+        String name = null, version = null;
+        List<String> requirements = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(metadataFile, StandardCharsets.UTF_8)) {
+            for (String header : readHeaders(reader)) {
+                if (header.startsWith("Name:")) {
+                    name = StringUtils.substringAfter(header, ":").trim();
+                } else if (header.startsWith("Version:")) {
+                    version = StringUtils.substringAfter(header, ":").trim();
+                } else if (header.startsWith("Requires-Dist:")) {
+                    String requirement = parseRequirement(StringUtils.substringAfter(header, ":"), markers);
+                    if (requirement != null) {
+                        requirements.add(requirement);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (StringUtils.isAnyBlank(name, version)) {
+            return null;
+        }
+        return new PackageMetadata(name, version, distInfoDir.getParent().toString(), requirements);
+    }
+
+    /**
+     * Read the headers of a METADATA file. The headers end at the first empty line, and the rest of the file is the
+     * package description. A header may be folded into several lines, where each continuation line starts with a
+     * whitespace.
+     *
+     * @param reader - The METADATA file reader
+     * @return the unfolded headers
+     */
+    private static List<String> readHeaders(BufferedReader reader) throws IOException {
+        List<String> headers = new ArrayList<>();
+        String line;
+        while ((line = reader.readLine()) != null && !line.isEmpty()) {
+            if (!headers.isEmpty() && Character.isWhitespace(line.charAt(0))) {
+                int last = headers.size() - 1;
+                headers.set(last, headers.get(last) + " " + line.trim());
+                continue;
+            }
+            headers.add(line);
+        }
+        return headers;
+    }
+
+    /**
+     * Parse the name of the required package from a 'Requires-Dist' header value, for example
+     * "requests[security] (>=2.8.1) ; python_version < '3.8'".
+     *
+     * @param requiresDist - The 'Requires-Dist' header value
+     * @param markers      - The environment markers of the SDK
+     * @return the name of the required package or null if the requirement is not needed by the SDK, for example if it
+     * is needed only by an extra
+     * @throws PypiEnvironmentMarkers.UnsupportedMarkerException if the marker of the requirement can't be evaluated
+     */
+    static String parseRequirement(String requiresDist, PypiEnvironmentMarkers markers) {
+        if (!markers.evaluate(StringUtils.substringAfter(requiresDist, ";"))) {
+            return null;
+        }
+        String name = StringUtils.substringBefore(requiresDist, ";").trim();
+        int nameEnd = StringUtils.indexOfAny(name, " ([<>=!~@");
+        if (nameEnd >= 0) {
+            name = name.substring(0, nameEnd);
+        }
+        return StringUtils.defaultIfBlank(name, null);
+    }
+}
@@ -0,0 +1,68 @@
+package com.jfrog.ide.idea.scan;
+
+import com.intellij.openapi.components.ServiceManager;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Share the PyPI scan results between all open projects using the same Python SDK.
+ * Each project subscribes to the scanner of the SDK home path. The scanner and its dependency tree are released when
+ * the last subscribed project unsubscribes.
+ *
+ * @author yahavi
+ */
+public class PypiScanResultsService {
+
+    private final Map<String, Subscription> subscriptions = new HashMap<>();
+
+    @FunctionalInterface
+    interface ScannerFactory<T extends ComponentsScanner> {
+        T create() throws IOException;
+    }
+
+    private static class Subscription {
+        private final ComponentsScanner scanner;
+        private int refCount;
+
+        private Subscription(ComponentsScanner scanner) {
+            this.scanner = scanner;
+        }
+    }
+
+    public static PypiScanResultsService getInstance() {
+        return ServiceManager.getService(PypiScanResultsService.class);
+    }
+
+    /**
+     * Subscribe to the scanner of the SDK. Create the scanner if no other project uses the SDK.
+     *
+     * @param sdkHomePath    - The SDK home path
+     * @param scannerFactory - Create a new scanner for the SDK
+     * @return the scanner shared by all projects using the SDK
+     * @throws IOException in case of an error creating the scanner
+     */
+    @SuppressWarnings("unchecked")
+    synchronized <T extends ComponentsScanner> T subscribe(String sdkHomePath, ScannerFactory<T> scannerFactory) throws IOException {
+        Subscription subscription = subscriptions.get(sdkHomePath);
+        if (subscription == null) {
+            subscription = new Subscription(scannerFactory.create());
+            subscriptions.put(sdkHomePath, subscription);
+        }
+        subscription.refCount++;
+        return (T) subscription.scanner;
+    }
+
+    /**
+     * Unsubscribe from the scanner of the SDK. Release the scanner if no other project uses the SDK.
+     *
+     * @param sdkHomePath - The SDK home path
+     */
+    synchronized void unsubscribe(String sdkHomePath) {
+        Subscription subscription = subscriptions.get(sdkHomePath);
+        if (subscription != null && --subscription.refCount <= 0) {
+            subscriptions.remove(sdkHomePath);
+        }
+    }
+}
@@ -0,0 +1,245 @@
+package com.jfrog.ide.idea.scan;
+
+import com.google.common.collect.Sets;
+import com.intellij.execution.ExecutionException;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.projectRoots.Sdk;
+import com.intellij.openapi.roots.OrderRootType;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.jetbrains.python.packaging.PyPackage;
+import com.jetbrains.python.packaging.PyPackageManager;
+import com.jetbrains.python.packaging.PyRequirement;
+import com.jetbrains.python.packaging.PyRequirementParser;
+import com.jetbrains.python.packaging.pipenv.PyPipEnvPackageManager;
+import com.jfrog.ide.common.log.ProgressIndicator;
+import com.jfrog.ide.common.scan.ComponentPrefix;
+import org.apache.commons.collections4.CollectionUtils;
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.jfrog.build.extractor.scan.DependencyTree;
+import org.jfrog.build.extractor.scan.GeneralInfo;
+import org.jfrog.build.extractor.scan.Scope;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+
+/**
+ * Build and scan the dependency tree of a Python SDK.
+ * A single instance per SDK is shared by all open projects using the SDK, through {@link PypiScanResultsService}.
+ * Only one project builds or scans the SDK at a time. The other projects wait and reuse the results.
+ * The components are scanned through the {@link XrayRequestScheduler}, like the components of the other scan managers.
+ *
+ * @author yahavi
+ */
+class PypiSdkScanner extends ComponentsScanner {
+    private static final Set<String> SITE_PACKAGES_DIRS = Sets.newHashSet("site-packages", "dist-packages");
+    private static final long LOCK_POLL_MILLIS = 100;
+
+    private final PypiMetadataReader metadataReader = new PypiMetadataReader();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Sdk pythonSdk;
+    // Set without the lock, to never block the caller while the SDK is scanned
+    private volatile boolean treeStale = true;
+    // Guarded by lock
+    private DependencyTree dependencyTree;
+    // Guarded by lock
+    private boolean scanned;
+
+    PypiSdkScanner(Sdk pythonSdk) {
+        super(ComponentPrefix.PYPI);
+        this.pythonSdk = pythonSdk;
+    }
+
+    /**
+     * Build the dependency tree of the SDK, unless the tree is up to date.
+     *
+     * @return the dependency tree of the SDK
+     */
+    DependencyTree getDependencyTree() {
+        lockInterruptibly();
+        try {
+            if (!treeStale && dependencyTree != null) {
+                return dependencyTree;
+            }
+            // Reset before building, so that invalidations during the build are not lost
+            treeStale = false;
+            dependencyTree = createSdkRootNode();
+            scanned = false;
+            return dependencyTree;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Scan the dependency tree of the SDK with Xray, unless it was already scanned. The tree is built by
+     * {@link #getDependencyTree()} before the scan, and is never modified after it was scanned, since it may be
+     * displayed by other projects.
+     *
+     * @param indicator    - The progress indicator
+     * @param quickScan    - True to allow usage of the scan cache
+     * @param highPriority - Returns true if the requests should be sent before the requests of other projects
+     * @return the scanned dependency tree of the SDK
+     */
+    DependencyTree scan(ProgressIndicator indicator, boolean quickScan, BooleanSupplier highPriority) throws Exception {
+        lockInterruptibly();
+        try {
+            DependencyTree scanResults = dependencyTree != null ? dependencyTree : getDependencyTree();
+            if (!scanned) {
+                ComponentIndex components = ComponentIndex.create(scanResults);
+                scanAndApply(components, components.getComponentIds(), quickScan, indicator, highPriority, this::checkCanceled);
+                scanned = true;
+            }
+            return scanResults;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Mark the dependency tree as stale, after the packages of the SDK have changed.
+     */
+    void invalidate() {
+        treeStale = true;
+    }
+
+    /**
+     * Wait until no other project builds or scans the SDK.
+     */
+    private void lockInterruptibly() {
+        try {
+            while (!lock.tryLock(LOCK_POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+                checkCanceled();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ProcessCanceledException(e);
+        }
+    }
+
+    private DependencyTree createSdkRootNode() {
+        DependencyTree rootNode = createRootNode();
+        initDependencyNode(rootNode, pythonSdk.getName(), "", pythonSdk.getHomePath(), "pypi");
+
+        try {
+            rootNode.add(createSdkDependencyTree(pythonSdk));
+        } catch (ExecutionException e) {
+            getLog().error(ExceptionUtils.getRootCauseMessage(e), e);
+        }
+        if (rootNode.getChildren().size() == 1) {
+            rootNode = (DependencyTree) rootNode.getChildAt(0);
+        }
+        return rootNode;
+    }
+
+    /**
+     * Create a root node of all Python SDKs.
+     *
+     * @return root node of all Python SDKs.
+     */
+    private DependencyTree createRootNode() {
+        DependencyTree rootNode = new DependencyTree(pythonSdk.getName());
+        GeneralInfo generalInfo = new GeneralInfo().artifactId(pythonSdk.getName()).path(pythonSdk.getHomePath()).pkgType("pypi");
+        rootNode.setGeneralInfo(generalInfo);
+        rootNode.setScopes(Sets.newHashSet(new Scope()));
+        return rootNode;
+    }
+
+    /**
+     * Create a dependency tree for a given Python SDK.
+     *
+     * @param pythonSdk - The python SDK
+     * @return dependency tree created for a given Python SDK.
+     */
+    private DependencyTree createSdkDependencyTree(Sdk pythonSdk) throws ExecutionException {
+        // Retrieve all Pypi packages
+        List<PyPackage> packages = getPackages(pythonSdk);
+        getLog().debug(CollectionUtils.size(packages) + " Pypi packages found in SDK " + pythonSdk.getName());
+
+        // Create root SDK node
+        DependencyTree sdkNode = new DependencyTree(pythonSdk.getName());
+        initDependencyNode(sdkNode, pythonSdk.getName(), pythonSdk.getVersionString(), pythonSdk.getHomePath(), "Python SDK");
+
+        // Populate dependency tree
+        PypiDependencyGraph dependencyGraph = new PypiDependencyGraph(packages, getLog());
+        dependencyGraph.populateDependencyTree(sdkNode, this::createPackageNode);
+        return sdkNode;
+    }
+
+    /**
+     * Get the packages installed in the SDK. Read the packages metadata from the site-packages directories if possible.
+     * Otherwise, run pip.
+     *
+     * @param pythonSdk - The python SDK
+     * @return the packages installed in the SDK.
+     */
+    private List<PyPackage> getPackages(Sdk pythonSdk) throws ExecutionException {
+        VirtualFile[] sdkRoots = ReadAction.compute(() -> pythonSdk.getRootProvider().getFiles(OrderRootType.CLASSES));
+        List<Path> sitePackagesDirs = Arrays.stream(sdkRoots)
+                .filter(root -> root.isDirectory() && SITE_PACKAGES_DIRS.contains(root.getName()))
+                .map(root -> Paths.get(root.getPath()))
+                .collect(Collectors.toList());
+        if (!sitePackagesDirs.isEmpty()) {
+            try {
+                PypiEnvironmentMarkers markers = PypiEnvironmentMarkers.forSdk(pythonSdk.getVersionString());
+                List<PypiMetadataReader.PackageMetadata> packagesMetadata = metadataReader.readPackages(sitePackagesDirs, markers);
+                if (packagesMetadata != null) {
+                    return packagesMetadata.stream().map(PypiSdkScanner::createPackage).collect(Collectors.toList());
+                }
+            } catch (IOException e) {
+                getLog().debug("Couldn't read the packages metadata of SDK " + pythonSdk.getName() + ": " + ExceptionUtils.getRootCauseMessage(e));
+            }
+        }
+        PyPackageManager packageManager = PyPipEnvPackageManager.getInstance(pythonSdk);
+        return packageManager.refreshAndGetPackages(true);
+    }
+
+    private static PyPackage createPackage(PypiMetadataReader.PackageMetadata packageMetadata) {
+        List<PyRequirement> requirements = packageMetadata.getRequirements().stream()
+                .map(PyRequirementParser::fromLine)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+        return new PyPackage(packageMetadata.getName(), packageMetadata.getVersion(), packageMetadata.getLocation(), requirements);
+    }
+
+    /**
+     * Create a dependency tree node for a Python package.
+     *
+     * @param pyPackage - The Python package
+     * @return the dependency tree node
+     */
+    private DependencyTree createPackageNode(PyPackage pyPackage) {
+        String unresolved = pyPackage.isInstalled() ? "" : " [Unresolved]";
+        DependencyTree node = new DependencyTree(pyPackage.getName() + ":" + pyPackage.getVersion() + unresolved);
+        initDependencyNode(node, pyPackage.getName(), pyPackage.getVersion(), "", "pypi");
+        return node;
+    }
+
+    /**
+     * Set general info and the 'None' scope to a dependency tree node.
+     *
+     * @param node    - The dependency tree to init
+     * @param name    - Dependency name
+     * @param version - Dependency version
+     * @param path    - Path to project/sdk if applicable
+     * @param type    - Dependency type
+     */
+    private void initDependencyNode(DependencyTree node, String name, String version, String path, String type) {
+        GeneralInfo generalInfo = new GeneralInfo()
+                .artifactId(name)
+                .version(version)
+                .path(path)
+                .pkgType(type);
+        node.setGeneralInfo(generalInfo);
+        node.setScopes(Sets.newHashSet(new Scope()));
+    }
+}
@@ -0,0 +1,212 @@
+package com.jfrog.ide.idea.scan;
+
+import com.intellij.openapi.components.ServiceManager;
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.ThrowableComputable;
+import com.intellij.openapi.util.registry.Registry;
+import com.intellij.openapi.wm.IdeFocusManager;
+import com.intellij.openapi.wm.IdeFrame;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import com.jfrog.ide.idea.log.Logger;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Coordinate the scans of all open projects. The scans share global limits on the number of concurrent build-tool
+ * processes building dependency trees and on the number of concurrent Xray requests.
+ * Waiting operations of the project whose frame has the focus get the next free permit.
+ * All dependency tree builds go through {@link #runBuild}. Each build is bounded by a timeout and reports its duration
+ * and result. A build returns its tree, which is published only if the build succeeded.
+ * The Go and npm processes are run by the {@link BuildProcessRunner}, which limits the concurrent processes and destroys
+ * the process tree when the scan is canceled or the build times out. The Gradle command line fallback is run by the
+ * tree builder of ide-plugins-common, and pip by the Python plugin, so a timeout stops waiting for them, but can't
+ * destroy their processes.
+ *
+ * @author yahavi
+ */
+public class ScanCoordinator {
+    private static final String MAX_CONCURRENT_BUILDS_KEY = "jfrog.scan.max.concurrent.builds";
+    private static final int DEFAULT_MAX_CONCURRENT_BUILDS = 2;
+    private static final String MAX_CONCURRENT_PROCESSES_KEY = "jfrog.scan.max.concurrent.processes";
+    private static final int DEFAULT_MAX_CONCURRENT_PROCESSES = 2;
+    private static final String MAX_CONCURRENT_REQUESTS_KEY = "jfrog.xray.max.concurrent.requests";
+    private static final int DEFAULT_MAX_CONCURRENT_REQUESTS = 4;
+    private static final String BUILD_TIMEOUT_MINUTES_KEY = "jfrog.scan.build.timeout.minutes";
+    private static final int DEFAULT_BUILD_TIMEOUT_MINUTES = 30;
+    private static final long POLL_INTERVAL_MILLIS = 100;
+
+    private final PriorityLimiter buildsLimiter;
+    private final PriorityLimiter xrayRequestsLimiter;
+    private final BuildProcessRunner processRunner;
+
+    public static ScanCoordinator getInstance() {
+        return ServiceManager.getService(ScanCoordinator.class);
+    }
+
+    private ScanCoordinator() {
+        buildsLimiter = new PriorityLimiter(Registry.intValue(MAX_CONCURRENT_BUILDS_KEY, DEFAULT_MAX_CONCURRENT_BUILDS));
+        xrayRequestsLimiter = new PriorityLimiter(Registry.intValue(MAX_CONCURRENT_REQUESTS_KEY, DEFAULT_MAX_CONCURRENT_REQUESTS));
+        processRunner = new BuildProcessRunner(new PriorityLimiter(Registry.intValue(MAX_CONCURRENT_PROCESSES_KEY, DEFAULT_MAX_CONCURRENT_PROCESSES)),
+                () -> TimeUnit.MINUTES.toMillis(getBuildTimeoutMinutes()), AppExecutorUtil.getAppScheduledExecutorService(), Logger.getInstance());
+    }
+
+    /**
+     * Build a dependency tree, after waiting for a free build permit. The build runs on a pooled thread, so that the
+     * scan stops waiting for it as soon as the scan is canceled or the build times out. The build thread is then
+     * interrupted, and the processes of the {@link BuildProcessRunner} are destroyed. The permit is held until the build
+     * thread is done, so abandoned builds still count towards the limit.
+     * The tree is built into a local tree, and returned only if the build succeeded, so a failed, canceled or timed out
+     * build never replaces the scan results.
+     *
+     * @param project - The project of the dependency tree
+     * @param name    - The name of the built project, for diagnostics
+     * @param build   - Build the dependency tree
+     * @param <T>     - The built tree type
+     * @param <E>     - The exception thrown by the build
+     * @return the built tree
+     * @throws E                        in case of an error building the tree
+     * @throws IOException              if the build timed out
+     * @throws ProcessCanceledException if the scan was canceled
+     */
+    public <T, E extends Exception> T runBuild(@NotNull Project project, String name, ThrowableComputable<T, E> build) throws E, IOException {
+        try {
+            buildsLimiter.acquire(() -> isFocused(project), ProgressManager::checkCanceled);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ProcessCanceledException(e);
+        }
+        long start = System.nanoTime();
+        ProgressIndicator indicator = ProgressManager.getInstance().getProgressIndicator();
+        Future<T> future;
+        try {
+            future = AppExecutorUtil.getAppExecutorService().submit(() -> {
+                try {
+                    return computeUnderProgress(build, indicator);
+                } finally {
+                    buildsLimiter.release();
+                }
+            });
+        } catch (RuntimeException e) {
+            buildsLimiter.release();
+            throw e;
+        }
+        String result = "failed";
+        try {
+            T tree = this.<T, E>waitForBuild(future, name, start);
+            result = "succeeded";
+            return tree;
+        } catch (ProcessCanceledException e) {
+            result = "was canceled";
+            throw e;
+        } finally {
+            Logger.getInstance().debug(String.format("Dependency tree build of %s %s after %d ms.", name, result,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)));
+        }
+    }
+
+    /**
+     * @return the runner of the build tool processes of all projects
+     */
+    BuildProcessRunner getProcessRunner() {
+        return processRunner;
+    }
+
+    /**
+     * @return the limiter of the concurrent Xray requests of all projects
+     */
+    PriorityLimiter getXrayRequestsLimiter() {
+        return xrayRequestsLimiter;
+    }
+
+    /**
+     * @param project - The project
+     * @return true if the frame of the project has the focus, or had it last
+     */
+    static boolean isFocused(@NotNull Project project) {
+        IdeFrame frame = IdeFocusManager.getGlobalInstance().getLastFocusedFrame();
+        return frame != null && project.equals(frame.getProject());
+    }
+
+    /**
+     * Wait for the build to finish. Interrupt the build thread if the scan was canceled or if the build timed out.
+     *
+     * @param future - The build
+     * @param name   - The name of the built project
+     * @param start  - The start time of the build in nanoseconds
+     * @return the built tree
+     */
+    @SuppressWarnings("unchecked")
+    private <T, E extends Exception> T waitForBuild(Future<T> future, String name, long start) throws E, IOException {
+        long timeoutMinutes = getBuildTimeoutMinutes();
+        long deadline = start + TimeUnit.MINUTES.toNanos(timeoutMinutes);
+        try {
+            while (true) {
+                try {
+                    return future.get(POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+                } catch (TimeoutException e) {
+                    ProgressManager.checkCanceled();
+                    if (System.nanoTime() - deadline > 0) {
+                        throw new IOException(String.format("Building the dependency tree of %s timed out after %d minutes.", name, timeoutMinutes));
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ProcessCanceledException(e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            // The build throws only unchecked exceptions and exceptions of type E
+            throw (E) cause;
+        } finally {
+            // Interrupt the build thread, unless it is done. The processes of the process runner are then destroyed.
+            if (future.cancel(true)) {
+                Logger.getInstance().debug("Abandoned the dependency tree build of " + name + ".");
+            }
+        }
+    }
+
+    private static long getBuildTimeoutMinutes() {
+        return Registry.intValue(BUILD_TIMEOUT_MINUTES_KEY, DEFAULT_BUILD_TIMEOUT_MINUTES);
+    }
+
+    /**
+     * Build the tree under the progress indicator of the scan, so that the build can check if the scan was canceled.
+     *
+     * @param build     - Build the dependency tree
+     * @param indicator - The progress indicator of the scan or null
+     * @return the built tree
+     */
+    @SuppressWarnings("unchecked")
+    private static <T, E extends Exception> T computeUnderProgress(ThrowableComputable<T, E> build, ProgressIndicator indicator) throws Exception {
+        if (indicator == null) {
+            return build.compute();
+        }
+        Object[] tree = new Object[1];
+        Exception[] error = new Exception[1];
+        ProgressManager.getInstance().executeProcessUnderProgress(() -> {
+            try {
+                tree[0] = build.compute();
+            } catch (Exception e) {
+                error[0] = e;
+            }
+        }, indicator);
+        if (error[0] != null) {
+            throw error[0];
+        }
+        return (T) tree[0];
+    }
+}
@@ -1,13 +1,19 @@
 package com.jfrog.ide.idea.scan;
 
+import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 import com.intellij.codeInsight.daemon.DaemonCodeAnalyzer;
+import com.intellij.ide.IdeEventQueue;
+import com.intellij.ide.PowerSaveMode;
 import com.intellij.codeInspection.GlobalInspectionContext;
 import com.intellij.codeInspection.InspectionEngine;
 import com.intellij.codeInspection.InspectionManager;
 import com.intellij.codeInspection.LocalInspectionTool;
 import com.intellij.codeInspection.ex.InspectionManagerEx;
 import com.intellij.codeInspection.ex.LocalInspectionToolWrapper;
+import com.intellij.ide.plugins.IdeaPluginDescriptor;
+import com.intellij.ide.plugins.PluginManagerCore;
+import com.intellij.openapi.extensions.PluginId;
 import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.openapi.fileEditor.FileEditor;
 import com.intellij.openapi.fileEditor.FileEditorManager;
@@ -16,10 +22,10 @@ import com.intellij.openapi.progress.ProgressManager;
 import com.intellij.openapi.progress.Task;
 import com.intellij.openapi.project.DumbService;
 import com.intellij.openapi.project.Project;
-import com.intellij.openapi.vfs.VirtualFileManager;
-import com.intellij.openapi.vfs.newvfs.BulkFileListener;
-import com.intellij.openapi.vfs.newvfs.events.VFileEvent;
+import com.intellij.openapi.util.registry.Registry;
 import com.intellij.psi.PsiFile;
+import com.intellij.util.EnvironmentUtil;
+import com.intellij.util.concurrency.AppExecutorUtil;
 import com.intellij.util.messages.MessageBus;
 import com.intellij.util.messages.MessageBusConnection;
 import com.jfrog.ide.common.log.ProgressIndicator;
@@ -36,7 +42,6 @@ import com.jfrog.ide.idea.ui.LocalComponentsTree;
 import com.jfrog.ide.idea.ui.filters.filtermanager.ConsistentFilterManager;
 import com.jfrog.ide.idea.ui.filters.filtermanager.LocalFilterManager;
 import com.jfrog.xray.client.services.summary.Components;
-import org.apache.commons.lang.StringUtils;
 import org.apache.commons.lang3.ArrayUtils;
 import org.jetbrains.annotations.NotNull;
 import org.jfrog.build.extractor.scan.DependencyTree;
@@ -48,21 +53,47 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.List;
-import java.util.Set;
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * Created by romang on 4/26/17.
  */
 public abstract class ScanManager extends ScanManagerBase {
 
-    private static final Path HOME_PATH = Paths.get(System.getProperty("user.home"), ".jfrog-idea-plugin");
+    static final Path HOME_PATH = Paths.get(System.getProperty("user.home"), ".jfrog-idea-plugin");
+    private static final String SCAN_DEBOUNCE_KEY = "jfrog.scan.debounce.millis";
+    private static final int DEFAULT_SCAN_DEBOUNCE_MILLIS = 1000;
+    private static final String RESCAN_IDLE_KEY = "jfrog.scan.idle.millis";
+    private static final int DEFAULT_RESCAN_IDLE_MILLIS = 5000;
+    private static final String TREE_CACHE_MAX_AGE_KEY = "jfrog.tree.cache.max.age.hours";
+    private static final int DEFAULT_TREE_CACHE_MAX_AGE_HOURS = 24;
+    private static final String PROGRESSIVE_SCAN_KEY = "jfrog.scan.progressive";
+    // The number of components sent to Xray in each batch of the second phase of a progressive scan
+    private static final int PROGRESSIVE_SCAN_BATCH_SIZE = 500;
+    // The levels of the tree scanned in the first phase of a progressive scan - the modules and their direct dependencies
+    private static final int DIRECT_DEPENDENCIES_LEVEL = 2;
+    private static final String PLUGIN_ID = "org.jfrog.idea";
     protected Project project;
     String basePath;
+    private MessageBusConnection busConnection;
+    private DependencyTreeCache treeCache;
+    private final ScanResultsSnapshot snapshot;
+    // Scan the components with Xray, without replacing the scan results during the scan
+    private final ComponentsScanner componentsScanner;
+    // Component ID to a node of the last scanned dependency tree, populated with the Xray info
+    private volatile Map<String, DependencyTree> lastScannedComponents;
+    // The component index of the scan results
+    private ComponentIndex componentIndex;
 
-    // Lock to prevent multiple simultaneous scans
-    private final AtomicBoolean scanInProgress = new AtomicBoolean(false);
+    // True if a background rescan was skipped in power save mode
+    private volatile boolean rescanSkipped;
+
+    // Prevent multiple simultaneous scans and coalesce scan requests
+    private final ScanStateMachine scanState = new ScanStateMachine(AppExecutorUtil.getAppScheduledExecutorService(),
+            Registry.intValue(SCAN_DEBOUNCE_KEY, DEFAULT_SCAN_DEBOUNCE_MILLIS), this::getRescanDelay, this::launchScan);
 
     /**
      * @param project  - Currently opened IntelliJ project. We'll use this project to retrieve project based services
@@ -71,18 +102,34 @@ public abstract class ScanManager extends ScanManagerBase {
      * @param prefix   - Components prefix for xray scan, e.g. gav:// or npm://.
      */
     ScanManager(@NotNull Project project, String basePath, ComponentPrefix prefix) throws IOException {
+        this(project, basePath, prefix, new ComponentsScanner(prefix));
+    }
+
+    /**
+     * @param project           - Currently opened IntelliJ project. We'll use this project to retrieve project based services
+     *                          like {@link ConsistentFilterManager} and {@link ComponentsTree}.
+     * @param basePath          - Project base path.
+     * @param prefix            - Components prefix for xray scan, e.g. gav:// or npm://.
+     * @param componentsScanner - Scan the components with Xray. May be shared with other scan managers.
+     */
+    ScanManager(@NotNull Project project, String basePath, ComponentPrefix prefix, ComponentsScanner componentsScanner) throws IOException {
         super(HOME_PATH.resolve("cache"), basePath, Logger.getInstance(), GlobalSettings.getInstance().getServerConfig(), prefix);
         this.project = project;
         this.basePath = basePath;
+        this.snapshot = new ScanResultsSnapshot(HOME_PATH.resolve("cache").resolve("snapshots"), getScanManagerId());
+        this.componentsScanner = componentsScanner;
         Files.createDirectories(HOME_PATH);
         registerOnChangeHandlers();
     }
 
     /**
      * Collect and return {@link Components} to be scanned by JFrog Xray.
-     * Implementation should be project type specific.
+     * Implementation should be project type specific. The returned tree is published as the scan results only if the
+     * build succeeded.
+     *
+     * @return the dependency tree or null if the tree couldn't be built
      */
-    protected abstract void buildTree() throws IOException;
+    protected abstract DependencyTree buildTree() throws IOException;
 
     /**
      * Return all project descriptors under the scan-manager project, which need to be inspected by the corresponding {@link LocalInspectionTool}.
@@ -99,50 +146,435 @@ public abstract class ScanManager extends ScanManagerBase {
      */
     protected abstract LocalInspectionTool getInspectionTool();
 
+    /**
+     * Return the Inspection tool of a project-descriptor file, for scan-managers with descriptors of several types.
+     *
+     * @param descriptor - The project-descriptor file
+     * @return the Inspection tool of the project-descriptor file.
+     */
+    LocalInspectionTool getInspectionTool(PsiFile descriptor) {
+        return getInspectionTool();
+    }
+
+    /**
+     * Return the files the dependency tree is built from, such as descriptors and lockfiles. If the files and the
+     * environment returned by {@link #getTreeEnvironment()} are unchanged, the tree is read from the disk instead of
+     * running {@link #buildTree()}.
+     *
+     * @return the files the dependency tree is built from or an empty list if the tree should not be cached.
+     */
+    Collection<Path> getTreeInputs() throws IOException {
+        return Collections.emptyList();
+    }
+
+    /**
+     * Return the environment variables and settings affecting the dependency tree.
+     *
+     * @return the environment variables and settings affecting the dependency tree.
+     */
+    Map<String, String> getTreeEnvironment() {
+        return Collections.emptyMap();
+    }
+
     /**
      * Scan and update dependency components.
      */
     private void scanAndUpdate(boolean quickScan, ProgressIndicator indicator) {
         try {
-            buildTree();
-            scanAndCacheArtifacts(indicator, quickScan);
-            addXrayInfoToTree(getScanResults());
-            setScanResults();
-            DumbService.getInstance(project).smartInvokeLater(this::runInspections);
+            buildTreeAndScan(quickScan, indicator);
         } catch (ProcessCanceledException e) {
             getLog().info("Xray scan was canceled");
         } catch (Exception e) {
             getLog().error("", e);
         } finally {
-            scanInProgress.set(false);
+            finishScan();
         }
     }
 
     /**
-     * Launch async dependency scan.
+     * Build the dependency tree, scan it with Xray, and publish the results.
+     * Called for scans triggered by changes in the project. Scan managers may override this method to update only the
+     * changed parts of the dependency tree.
+     *
+     * @param quickScan - True to allow usage of the scan cache
+     * @param indicator - The progress indicator
+     */
+    void buildTreeAndScan(boolean quickScan, ProgressIndicator indicator) throws Exception {
+        loadOrBuildTree(quickScan);
+        scanAndUpdateResults(quickScan, indicator);
+    }
+
+    /**
+     * Read the dependency tree from the disk if its inputs are unchanged since it was built. Otherwise, build the tree
+     * and save it for the next scans.
+     *
+     * @param quickScan - True to allow usage of the cached tree
      */
-    void asyncScanAndUpdateResults(boolean quickScan) {
+    void loadOrBuildTree(boolean quickScan) throws IOException {
+        Collection<Path> treeInputs = getTreeInputs();
+        if (treeInputs.isEmpty()) {
+            DependencyTree scanResults = ScanCoordinator.getInstance().runBuild(project, getProjectName(), this::buildTree);
+            if (scanResults != null) {
+                setScanResults(scanResults);
+            }
+            return;
+        }
+        Map<String, String> environment = new HashMap<>(getTreeEnvironment());
+        IdeaPluginDescriptor plugin = PluginManagerCore.getPlugin(PluginId.getId(PLUGIN_ID));
+        environment.put(PLUGIN_ID, plugin != null ? plugin.getVersion() : "");
+        String fingerprint = DependencyTreeCache.fingerprint(treeInputs, environment);
+        DependencyTreeCache treeCache = getTreeCache();
+        if (quickScan) {
+            try {
+                DependencyTree cachedTree = treeCache.read(fingerprint);
+                if (cachedTree != null) {
+                    getLog().debug("Dependency tree of " + getProjectName() + " is unchanged, reading it from the cache.");
+                    setScanResults(cachedTree);
+                    return;
+                }
+            } catch (IOException e) {
+                getLog().warn("Couldn't read the cached dependency tree of " + getProjectName() + ": " + e.getMessage());
+            }
+        }
+        DependencyTree scanResults = ScanCoordinator.getInstance().runBuild(project, getProjectName(), this::buildTree);
+        if (scanResults == null) {
+            return;
+        }
+        setScanResults(scanResults);
+        try {
+            treeCache.write(fingerprint, scanResults);
+        } catch (IOException e) {
+            getLog().warn("Couldn't cache the dependency tree of " + getProjectName() + ": " + e.getMessage());
+        }
+    }
+
+    private synchronized DependencyTreeCache getTreeCache() {
+        if (treeCache == null) {
+            long maxAgeMillis = TimeUnit.HOURS.toMillis(Registry.intValue(TREE_CACHE_MAX_AGE_KEY, DEFAULT_TREE_CACHE_MAX_AGE_HOURS));
+            treeCache = new DependencyTreeCache(HOME_PATH.resolve("cache").resolve("trees"), getScanManagerId(), maxAgeMillis);
+        }
+        return treeCache;
+    }
+
+    /**
+     * @return an ID of the scan manager, which is kept between IDE sessions. Scan managers of different package
+     * managers may have the same base path.
+     */
+    private String getScanManagerId() {
+        return getClass().getSimpleName() + ":" + basePath;
+    }
+
+    /**
+     * Return the values of the given environment variables.
+     *
+     * @param names - The environment variables names
+     * @return the environment variables values by their names
+     */
+    static Map<String, String> getEnvironment(String... names) {
+        Map<String, String> environment = EnvironmentUtil.getEnvironmentMap();
+        Map<String, String> values = new HashMap<>();
+        for (String name : names) {
+            values.put(name, environment.get(name));
+        }
+        return values;
+    }
+
+    /**
+     * Scan the dependency tree created by {@link #buildTree()} with Xray, and publish the results.
+     *
+     * @param quickScan - True to allow usage of the scan cache
+     * @param indicator - The progress indicator
+     */
+    void scanAndUpdateResults(boolean quickScan, ProgressIndicator indicator) throws Exception {
+        DependencyTree scanResults = getScanResults();
+        boolean published = false;
+        if (quickScan && lastScannedComponents != null && scanResults != null) {
+            scanAddedComponents(scanResults, indicator);
+        } else if (isProgressiveScan(scanResults)) {
+            scanProgressively(scanResults, quickScan, indicator);
+            published = true;
+        } else if (scanResults != null) {
+            scanAndApply(getComponentIndex(), getComponentIndex().getComponentIds(), quickScan, indicator);
+        }
+        updateLastScannedComponents();
+        if (!published) {
+            publishScanResults();
+        }
+    }
+
+    /**
+     * Remember a node of each component of the scan results, to scan only the components added in the next scan.
+     */
+    private void updateLastScannedComponents() {
+        if (getScanResults() == null) {
+            lastScannedComponents = null;
+            return;
+        }
+        ComponentIndex components = getComponentIndex();
+        lastScannedComponents = components.getComponentIds().stream()
+                .collect(Collectors.toMap(Function.identity(), componentId -> components.get(componentId).get(0)));
+    }
+
+    /**
+     * @param scanResults - The dependency tree
+     * @return true if the tree is large enough to be scanned in two phases
+     */
+    private boolean isProgressiveScan(DependencyTree scanResults) {
+        return scanResults != null && Registry.is(PROGRESSIVE_SCAN_KEY, true) &&
+                getComponentIndex().size() > PROGRESSIVE_SCAN_BATCH_SIZE;
+    }
+
+    /**
+     * Scan the dependency tree in two phases, to show the issues of the direct dependencies as soon as possible.
+     * The first phase scans the direct dependencies and shows the tree. The second phase scans the rest of the
+     * components in batches, and updates the subtrees of the direct dependencies in the components tree after each
+     * batch, without replacing the tree model.
+     *
+     * @param scanResults - The dependency tree
+     * @param quickScan   - True to allow usage of the scan cache
+     * @param indicator   - The progress indicator
+     */
+    private void scanProgressively(DependencyTree scanResults, boolean quickScan, ProgressIndicator indicator) throws Exception {
+        ComponentIndex components = getComponentIndex();
+        Set<String> directComponentIds = new LinkedHashSet<>();
+        Deque<DependencyTree> nodes = new ArrayDeque<>(scanResults.getChildren());
+        while (!nodes.isEmpty()) {
+            DependencyTree node = nodes.pop();
+            directComponentIds.add(node.toString());
+            if (node.getLevel() < DIRECT_DEPENDENCIES_LEVEL) {
+                nodes.addAll(node.getChildren());
+            }
+        }
+        getLog().debug(String.format("Scanning %s: %d direct components first, then %d transitive components.",
+                getProjectName(), directComponentIds.size(), components.size() - directComponentIds.size()));
+        scanAndApply(components, directComponentIds, quickScan, indicator);
+        showScanResults(scanResults, false);
+
+        List<String> transitiveComponentIds = components.getComponentIds().stream()
+                .filter(componentId -> !directComponentIds.contains(componentId))
+                .collect(Collectors.toList());
+        ProjectsMap.ProjectKey projectKey = ProjectsMap.createKey(getProjectName(), scanResults.getGeneralInfo());
+        LocalComponentsTree componentsTree = LocalComponentsTree.getInstance(project);
+        LocalFilterManager filterManager = LocalFilterManager.getInstance(project);
+        for (List<String> batch : Lists.partition(transitiveComponentIds, PROGRESSIVE_SCAN_BATCH_SIZE)) {
+            checkCanceled();
+            Set<DependencyTree> updatedSubtrees = Collections.newSetFromMap(new IdentityHashMap<>());
+            for (DependencyTree node : scanAndApply(components, batch, quickScan, indicator)) {
+                DependencyTree subtree = node;
+                while (subtree.getLevel() > DIRECT_DEPENDENCIES_LEVEL) {
+                    subtree = (DependencyTree) subtree.getParent();
+                }
+                updatedSubtrees.add(subtree);
+            }
+            updatedSubtrees.forEach(filterManager::collectsFiltersInformation);
+            componentsTree.updateNodes(projectKey, updatedSubtrees);
+        }
+        saveSnapshot(scanResults);
+        DumbService.getInstance(project).smartInvokeLater(this::runInspections);
+    }
+
+    /**
+     * Scan the components and add the Xray info to all of their nodes.
+     *
+     * @param components   - The component index of the scan results
+     * @param componentIds - The IDs of the components to scan
+     * @param quickScan    - True to allow usage of the scan cache
+     * @param indicator    - The progress indicator
+     * @return the updated nodes
+     */
+    private List<DependencyTree> scanAndApply(ComponentIndex components, Collection<String> componentIds, boolean quickScan, ProgressIndicator indicator) throws Exception {
+        return componentsScanner.scanAndApply(components, componentIds, quickScan, indicator, () -> ScanCoordinator.isFocused(project), this::checkCanceled);
+    }
+
+    /**
+     * Scan only the components added since the last scan. The Xray info of the other components is copied from the
+     * last scanned tree.
+     *
+     * @param scanResults - The new dependency tree
+     * @param indicator   - The progress indicator
+     */
+    private void scanAddedComponents(DependencyTree scanResults, ProgressIndicator indicator) throws Exception {
+        ComponentIndex components = getComponentIndex();
+        Map<String, DependencyTree> addedComponents = new HashMap<>();
+        for (String componentId : components.getComponentIds()) {
+            DependencyTree lastScanned = lastScannedComponents.get(componentId);
+            if (lastScanned == null) {
+                addedComponents.put(componentId, components.get(componentId).get(0));
+                continue;
+            }
+            components.get(componentId).forEach(node -> ComponentsScanner.copyXrayInfo(lastScanned, node));
+        }
+        long removedCount = lastScannedComponents.keySet().stream().filter(componentId -> components.get(componentId).isEmpty()).count();
+        getLog().info(String.format("Scanning %s: %d added, %d removed and %d unchanged components since the last scan.",
+                getProjectName(), addedComponents.size(), removedCount, components.size() - addedComponents.size()));
+
+        Map<String, DependencyTree> scannedComponents = scanComponents(addedComponents.values(), true, indicator);
+        for (String componentId : addedComponents.keySet()) {
+            DependencyTree scanned = scannedComponents.get(componentId);
+            if (scanned != null) {
+                components.get(componentId).forEach(node -> ComponentsScanner.copyXrayInfo(scanned, node));
+            }
+        }
+    }
+
+    /**
+     * Get the component index of the scan results. The index is created once for each dependency tree.
+     *
+     * @return the component index of the scan results
+     */
+    synchronized ComponentIndex getComponentIndex() {
+        DependencyTree scanResults = getScanResults();
+        if (componentIndex == null || componentIndex.getRoot() != scanResults) {
+            componentIndex = ComponentIndex.create(scanResults);
+        }
+        return componentIndex;
+    }
+
+    /**
+     * Add the Xray info to the nodes of the tree. The Xray info of each component is looked up once and applied to
+     * all nodes of the component, instead of looking up each node in the tree.
+     *
+     * @param root - The dependency tree
+     */
+    @Override
+    protected void addXrayInfoToTree(DependencyTree root) {
+        if (root == null || root.isLeaf()) {
+            return;
+        }
+        ComponentIndex index = root == getScanResults() ? getComponentIndex() : ComponentIndex.create(root);
+        DependencyTree componentsRoot = new DependencyTree();
+        index.getComponentIds().forEach(componentId -> componentsRoot.add((DependencyTree) index.get(componentId).get(0).clone()));
+        componentsScanner.addCachedXrayInfo(componentsRoot);
+        for (DependencyTree component : componentsRoot.getChildren()) {
+            index.get(component.toString()).forEach(node -> ComponentsScanner.copyXrayInfo(component, node));
+        }
+    }
+
+    /**
+     * Show the scan results in the components tree and run the inspections on the project descriptors.
+     */
+    void publishScanResults() {
+        setScanResults();
+        DumbService.getInstance(project).smartInvokeLater(this::runInspections);
+    }
+
+    /**
+     * Scan the given components with Xray, without scanning the rest of the dependency tree.
+     * The components are scanned flat - their descendants are not scanned. The components are sent in batches sized
+     * by the {@link XrayRequestScheduler}.
+     *
+     * @param components - The components to scan
+     * @param quickScan  - True to allow usage of the scan cache
+     * @param indicator  - The progress indicator
+     * @return component ID to a copy of the component node, populated with the Xray info
+     */
+    Map<String, DependencyTree> scanComponents(Collection<DependencyTree> components, boolean quickScan, ProgressIndicator indicator) throws Exception {
+        return componentsScanner.scan(components, quickScan, indicator, () -> ScanCoordinator.isFocused(project), this::checkCanceled);
+    }
+
+    /**
+     * Scan the components of subtrees replaced in the scan results, and publish the changes. Only the components which
+     * were not in the last scanned tree are sent to Xray. The Xray info of the other components is copied from the
+     * last scanned tree.
+     *
+     * @param updatedNodes - The updated subtrees, already attached to the scan results
+     * @param components   - The nodes of the updated subtrees to scan
+     * @param indicator    - The progress indicator
+     */
+    void scanAndUpdateNodes(Collection<DependencyTree> updatedNodes, Collection<DependencyTree> components, ProgressIndicator indicator) throws Exception {
+        Map<String, DependencyTree> lastScanned = lastScannedComponents;
+        Map<String, List<DependencyTree>> nodesByComponentId = components.stream()
+                .collect(Collectors.groupingBy(DependencyTree::toString));
+        List<DependencyTree> addedComponents = new ArrayList<>();
+        for (Map.Entry<String, List<DependencyTree>> component : nodesByComponentId.entrySet()) {
+            DependencyTree lastScannedNode = lastScanned != null ? lastScanned.get(component.getKey()) : null;
+            if (lastScannedNode == null) {
+                addedComponents.add(component.getValue().get(0));
+                continue;
+            }
+            component.getValue().forEach(node -> ComponentsScanner.copyXrayInfo(lastScannedNode, node));
+        }
+        getLog().debug(String.format("Scanning %s: %d added and %d unchanged components in %d updated subtrees.",
+                getProjectName(), addedComponents.size(), nodesByComponentId.size() - addedComponents.size(), updatedNodes.size()));
+
+        Map<String, DependencyTree> scannedComponents = scanComponents(addedComponents, true, indicator);
+        for (DependencyTree addedComponent : addedComponents) {
+            DependencyTree scanned = scannedComponents.get(addedComponent.toString());
+            if (scanned != null) {
+                nodesByComponentId.get(addedComponent.toString()).forEach(node -> ComponentsScanner.copyXrayInfo(scanned, node));
+            }
+        }
+        updateScanResultsNodes(updatedNodes);
+        updateLastScannedComponents();
+    }
+
+    /**
+     * Publish changes in subtrees of the scan results, without replacing the whole project in the components tree.
+     *
+     * @param updatedNodes - The updated subtrees, already attached to the scan results and populated with Xray info
+     */
+    private void updateScanResultsNodes(Collection<DependencyTree> updatedNodes) {
+        DependencyTree scanResults = getScanResults();
+        if (scanResults == null) {
+            return;
+        }
+        synchronized (this) {
+            // The subtrees of the scan results were replaced
+            componentIndex = null;
+        }
+        LocalFilterManager.getInstance(project).collectsFiltersInformation(scanResults);
+        ProjectsMap.ProjectKey projectKey = ProjectsMap.createKey(getProjectName(), scanResults.getGeneralInfo());
+        LocalComponentsTree componentsTree = LocalComponentsTree.getInstance(project);
+        componentsTree.updateNodes(projectKey, updatedNodes);
+        saveSnapshot(scanResults);
+        DumbService.getInstance(project).smartInvokeLater(this::runInspections);
+    }
+
+    /**
+     * Background rescans wait until the user has been idle for a while, and are skipped in power save mode.
+     * Explicit scans don't go through the scan state machine, so they always start immediately.
+     *
+     * @return the milliseconds to defer the rescan by, 0 to start it now or -1 to skip it
+     */
+    private long getRescanDelay() {
+        if (PowerSaveMode.isEnabled()) {
+            getLog().debug("Power save mode is on, skipping the scan of " + getProjectName() + ".");
+            rescanSkipped = true;
+            return -1;
+        }
+        return Math.max(0, Registry.intValue(RESCAN_IDLE_KEY, DEFAULT_RESCAN_IDLE_MILLIS) - IdeEventQueue.getInstance().getIdleTime());
+    }
+
+    /**
+     * Launch async dependency scan. Called by the scan state machine after moving to the running state.
+     * The scan runs in a low priority thread, since it was not requested by the user.
+     */
+    void launchScan() {
         if (DumbService.isDumb(project)) { // If intellij is still indexing the project
+            finishScan();
             return;
         }
+        boolean quickScan = !scanState.takeFullScanRequest();
         Task.Backgroundable scanAndUpdateTask = new Task.Backgroundable(null, "Xray: Scanning for vulnerabilities...") {
             @Override
             public void run(@NotNull com.intellij.openapi.progress.ProgressIndicator indicator) {
                 if (project.isDisposed()) {
+                    finishScan();
                     return;
                 }
                 if (!GlobalSettings.getInstance().areXrayCredentialsSet()) {
                     getLog().warn("Xray server is not configured.");
+                    finishScan();
                     return;
                 }
-                // Prevent multiple simultaneous scans
-                if (!scanInProgress.compareAndSet(false, true)) {
-                    if (!quickScan) {
-                        getLog().info("Scan already in progress");
-                    }
-                    return;
+                Thread thread = Thread.currentThread();
+                int priority = thread.getPriority();
+                thread.setPriority(Thread.MIN_PRIORITY);
+                try {
+                    scanAndUpdate(quickScan, new ProgressIndicatorImpl(indicator));
+                } finally {
+                    thread.setPriority(priority);
                 }
-                scanAndUpdate(quickScan, new ProgressIndicatorImpl(indicator));
             }
         };
         // The progress manager is only good for foreground threads.
@@ -167,10 +599,19 @@ public abstract class ScanManager extends ScanManagerBase {
     }
 
     /**
-     * Launch async dependency scan.
+     * Request an async dependency scan. Requests arriving within the debounce window or during a running scan are
+     * coalesced into a single scan.
      */
     void asyncScanAndUpdateResults() {
-        asyncScanAndUpdateResults(true);
+        scanState.requestScan();
+    }
+
+    /**
+     * Request an async full scan, which doesn't use the scan cache. Used when a full scan was requested while the scan
+     * manager was scanning. The full scan runs after the running scan ends.
+     */
+    void asyncFullScanAndUpdateResults() {
+        scanState.requestFullScan();
     }
 
     void runInspections() {
@@ -180,10 +621,9 @@ public abstract class ScanManager extends ScanManagerBase {
         }
         InspectionManagerEx inspectionManagerEx = (InspectionManagerEx) InspectionManager.getInstance(project);
         GlobalInspectionContext context = inspectionManagerEx.createNewGlobalContext(false);
-        LocalInspectionTool localInspectionTool = getInspectionTool();
         for (PsiFile descriptor : projectDescriptors) {
             // Run inspection on descriptor.
-            InspectionEngine.runInspectionOnFile(descriptor, new LocalInspectionToolWrapper(localInspectionTool), context);
+            InspectionEngine.runInspectionOnFile(descriptor, new LocalInspectionToolWrapper(getInspectionTool(descriptor)), context);
             FileEditor[] editors = FileEditorManager.getInstance(project).getAllEditors(descriptor.getVirtualFile());
             if (!ArrayUtils.isEmpty(editors)) {
                 // Refresh descriptor highlighting only if it is already opened.
@@ -193,8 +633,22 @@ public abstract class ScanManager extends ScanManagerBase {
     }
 
     private void registerOnChangeHandlers() {
-        MessageBusConnection busConnection = ApplicationManager.getApplication().getMessageBus().connect();
-        busConnection.subscribe(ApplicationEvents.ON_CONFIGURATION_DETAILS_CHANGE, this::asyncScanAndUpdateResults);
+        busConnection = ApplicationManager.getApplication().getMessageBus().connect();
+        busConnection.subscribe(ApplicationEvents.ON_CONFIGURATION_DETAILS_CHANGE, () -> {
+            // The Xray info of all components may change after changing the Xray server
+            lastScannedComponents = null;
+            asyncScanAndUpdateResults();
+        });
+        busConnection.subscribe(PowerSaveMode.TOPIC, new PowerSaveMode.Listener() {
+            @Override
+            public void powerSaveStateChanged() {
+                // Run the rescans skipped in power save mode
+                if (!PowerSaveMode.isEnabled() && rescanSkipped) {
+                    rescanSkipped = false;
+                    asyncScanAndUpdateResults();
+                }
+            }
+        });
     }
 
     /**
@@ -225,6 +679,44 @@ public abstract class ScanManager extends ScanManagerBase {
         if (scanResults == null) {
             return;
         }
+        showScanResults(scanResults, false);
+        saveSnapshot(scanResults);
+    }
+
+    private void saveSnapshot(DependencyTree scanResults) {
+        try {
+            snapshot.write(scanResults);
+        } catch (IOException e) {
+            getLog().warn("Couldn't save the scan results of " + getProjectName() + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Show the scan results of the previous scan, until the next scan is done. The results are marked as stale in the
+     * components tree. The Xray info is read from the components cache, without sending requests to Xray.
+     */
+    void restoreLastScanResults() {
+        DependencyTree lastScanResults;
+        try {
+            lastScanResults = snapshot.read();
+        } catch (IOException e) {
+            getLog().debug("Couldn't read the last scan results of " + getProjectName() + ": " + e.getMessage());
+            return;
+        }
+        if (lastScanResults == null || lastScanResults.getGeneralInfo() == null) {
+            return;
+        }
+        XrayResultsCache.getInstance().populate(lastScanResults);
+        showScanResults(lastScanResults, true);
+    }
+
+    /**
+     * Add the scan results to the components tree and apply the filters on them.
+     *
+     * @param scanResults - The scan results
+     * @param stale       - True if the scan results are of a previous scan
+     */
+    private void showScanResults(DependencyTree scanResults, boolean stale) {
         if (!scanResults.isLeaf()) {
             LocalFilterManager.getInstance(project).collectsFiltersInformation(scanResults);
         }
@@ -232,8 +724,15 @@ public abstract class ScanManager extends ScanManagerBase {
                 scanResults.getGeneralInfo());
         MessageBus projectMessageBus = project.getMessageBus();
 
-        ComponentsTree componentsTree = LocalComponentsTree.getInstance(project);
-        componentsTree.addScanResults(getProjectName(), scanResults);
+        LocalComponentsTree componentsTree = LocalComponentsTree.getInstance(project);
+        if (stale) {
+            if (!componentsTree.addStaleScanResults(getProjectName(), scanResults)) {
+                // The project was already scanned
+                return;
+            }
+        } else {
+            componentsTree.addScanResults(getProjectName(), scanResults);
+        }
         projectMessageBus.syncPublisher(ProjectEvents.ON_SCAN_PROJECT_CHANGE).update(projectKey);
     }
 
@@ -247,7 +746,39 @@ public abstract class ScanManager extends ScanManagerBase {
     }
 
     boolean isScanInProgress() {
-        return this.scanInProgress.get();
+        return scanState.isScanInProgress();
+    }
+
+    /**
+     * @return the state of the scans of the scan manager
+     */
+    ScanStateMachine.State getScanState() {
+        return scanState.getState();
+    }
+
+    /**
+     * Mark the scan manager as scanning.
+     *
+     * @param quickScan - True if the started scan uses the scan cache
+     * @return false if a scan is already in progress
+     */
+    boolean tryStartScan(boolean quickScan) {
+        return scanState.tryStart(!quickScan);
+    }
+
+    /**
+     * @return the key of the project in the components tree or null if the dependency tree wasn't built yet
+     */
+    ProjectsMap.ProjectKey getProjectKey() {
+        DependencyTree scanResults = getScanResults();
+        return scanResults != null ? ProjectsMap.createKey(getProjectName(), scanResults.getGeneralInfo()) : null;
+    }
+
+    /**
+     * Mark the scan manager as idle. If scans were requested during the scan, a single follow-up scan is scheduled.
+     */
+    void finishScan() {
+        scanState.finish();
     }
 
     public String getProjectPath() {
@@ -261,17 +792,15 @@ public abstract class ScanManager extends ScanManagerBase {
      * @param fileName - file to track for changes.
      */
     protected void subscribeLaunchDependencyScanOnFileChangedEvents(String fileName) {
-        String fileToSubscribe = Paths.get(basePath, fileName).toString();
-        project.getMessageBus().connect().subscribe(VirtualFileManager.VFS_CHANGES, new BulkFileListener() {
-            @Override
-            public void after(@NotNull List<? extends VFileEvent> events) {
-                for (VFileEvent event : events) {
-                    String filePath = event.getPath();
-                    if (StringUtils.equals(filePath, fileToSubscribe)) {
-                        asyncScanAndUpdateResults();
-                    }
-                }
-            }
-        });
+        DescriptorChangeDispatcher.getInstance(project).register(Paths.get(basePath, fileName).toString(), this);
+    }
+
+    /**
+     * Stop listening to changes. Called after the scan manager is no longer in use.
+     */
+    void dispose() {
+        scanState.cancel();
+        busConnection.disconnect();
+        DescriptorChangeDispatcher.getInstance(project).unregister(this);
     }
 }
@@ -2,7 +2,11 @@ package com.jfrog.ide.idea.scan;
 
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.openapi.components.ServiceManager;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.progress.Task;
 import com.intellij.openapi.project.DumbService;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.projectRoots.Sdk;
@@ -10,24 +14,30 @@ import com.jfrog.ide.common.utils.PackageFileFinder;
 import com.jfrog.ide.idea.configuration.GlobalSettings;
 import com.jfrog.ide.idea.log.Logger;
 import com.jfrog.ide.idea.navigation.NavigationService;
-import com.jfrog.ide.idea.ui.ComponentsTree;
 import com.jfrog.ide.idea.ui.LocalComponentsTree;
 import com.jfrog.ide.idea.utils.Utils;
 import org.jetbrains.annotations.NotNull;
 
+import javax.swing.*;
 import java.io.IOException;
 import java.nio.file.Path;
 import java.util.Collection;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
 /**
  * Created by yahavi
  */
-public class ScanManagersFactory {
+public class ScanManagersFactory implements Disposable {
 
-    private Map<Integer, ScanManager> scanManagers = Maps.newHashMap();
+    private volatile Map<Integer, ScanManager> scanManagers = Maps.newHashMap();
+    private volatile boolean discoveringProjects;
     private final Project project;
+    // Go modules of the same repository mostly depend on the same module versions
+    private final DependencyNodePool goNodePool = new DependencyNodePool();
 
     public static ScanManagersFactory getInstance(@NotNull Project project) {
         return ServiceManager.getService(project, ScanManagersFactory.class);
@@ -48,10 +58,25 @@ public class ScanManagersFactory {
      * @param quickScan - True to allow usage of the scan cache.
      */
     public void startScan(boolean quickScan) {
+        startScan(quickScan, true);
+    }
+
+    /**
+     * Start an Xray scan for all projects.
+     *
+     * @param quickScan           - True to allow usage of the scan cache.
+     * @param refreshScanManagers - True to look for added and removed projects before scanning.
+     */
+    private void startScan(boolean quickScan, boolean refreshScanManagers) {
         if (DumbService.isDumb(project)) { // If intellij is still indexing the project
             return;
         }
-        if (isScanInProgress()) {
+        if (discoveringProjects) {
+            Logger.getInstance().info("Discovering projects, the scan will start when done...");
+            return;
+        }
+        if (quickScan && isScanInProgress()) {
+            // A full scan is never skipped. The scan managers which are still scanning run it after their scan ends.
             Logger.getInstance().info("Previous scan still running...");
             return;
         }
@@ -60,21 +85,85 @@ public class ScanManagersFactory {
             return;
         }
         try {
-            ComponentsTree componentsTree = LocalComponentsTree.getInstance(project);
+            LocalComponentsTree componentsTree = LocalComponentsTree.getInstance(project);
             if (componentsTree == null) {
                 return;
             }
-            refreshScanManagers();
-            componentsTree.reset();
-            NavigationService.clearNavigationMap(project);
-            for (ScanManager scanManager : scanManagers.values()) {
-                scanManager.asyncScanAndUpdateResults(quickScan);
+            if (refreshScanManagers) {
+                refreshScanManagers();
+            }
+            if (quickScan) {
+                // Keep showing the current results until the projects are scanned again
+                componentsTree.markScanResultsStale();
+            } else {
+                componentsTree.reset();
+                NavigationService.clearNavigationMap(project);
             }
+            runInForeground(new ScanOrchestrator(project, Sets.newHashSet(scanManagers.values()), quickScan));
         } catch (IOException | RuntimeException e) {
             Logger.getInstance().error("", e);
         }
     }
 
+    /**
+     * Discover the projects in a background thread, so that the tool window doesn't wait for the file system walk.
+     * Each discovered scan manager is published immediately and shows the scan results of the previous IDE session.
+     * When the discovery is done, the projects are scanned as soon as the indexing is over.
+     *
+     * @param onDiscoveryDone - Called with true if at least one supported project was discovered
+     */
+    public void discoverProjectsAndScan(Consumer<Boolean> onDiscoveryDone) {
+        discoveringProjects = true;
+        ApplicationManager.getApplication().executeOnPooledThread(() -> {
+            long start = System.nanoTime();
+            try {
+                refreshScanManagers(this::publishScanManager);
+            } catch (IOException | RuntimeException e) {
+                Logger.getInstance().error("Couldn't discover the projects", e);
+            } finally {
+                discoveringProjects = false;
+            }
+            if (project.isDisposed()) {
+                // The project was closed during the discovery
+                dispose();
+                return;
+            }
+            Logger.getInstance().info(String.format("Discovered %d projects in %d ms.", scanManagers.size(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)));
+            onDiscoveryDone.accept(!scanManagers.isEmpty());
+            DumbService.getInstance(project).runWhenSmart(() -> startScan(true, false));
+        });
+    }
+
+    /**
+     * Make a scan manager created during the projects discovery available before the discovery is done.
+     *
+     * @param projectHash - Project hash - calculated by the project name and the path
+     * @param scanManager - The new scan manager
+     */
+    private synchronized void publishScanManager(int projectHash, ScanManager scanManager) {
+        if (project.isDisposed()) {
+            return;
+        }
+        Map<Integer, ScanManager> scanManagers = Maps.newHashMap(this.scanManagers);
+        scanManagers.put(projectHash, scanManager);
+        this.scanManagers = scanManagers;
+        ApplicationManager.getApplication().executeOnPooledThread(scanManager::restoreLastScanResults);
+    }
+
+    /**
+     * The progress manager is only good for foreground threads. Run the task when the thread is in the foreground.
+     *
+     * @param task - The task to run
+     */
+    private void runInForeground(Task.Backgroundable task) {
+        if (SwingUtilities.isEventDispatchThread()) {
+            ProgressManager.getInstance().run(task);
+        } else {
+            ApplicationManager.getApplication().invokeLater(() -> ProgressManager.getInstance().run(task));
+        }
+    }
+
     /**
      * Run inspections for all scan managers.
      */
@@ -89,6 +178,16 @@ public class ScanManagersFactory {
      * Scan projects, create new ScanManagers and delete unnecessary ones.
      */
     public void refreshScanManagers() throws IOException {
+        refreshScanManagers((projectHash, scanManager) -> {
+        });
+    }
+
+    /**
+     * Scan projects, create new ScanManagers and delete unnecessary ones.
+     *
+     * @param onCreated - Called for each new scan manager
+     */
+    private synchronized void refreshScanManagers(BiConsumer<Integer, ScanManager> onCreated) throws IOException {
         Map<Integer, ScanManager> scanManagers = Maps.newHashMap();
         final Set<Path> paths = Sets.newHashSet();
         int projectHash = Utils.getProjectIdentifier(project);
@@ -98,43 +197,60 @@ public class ScanManagersFactory {
         } else {
             // Unlike other scan managers whereby we create them if the package descriptor exist, the Maven
             // scan manager is created if the Maven plugin is installed and there are Maven projects loaded.
-            createScanManagerIfApplicable(scanManagers, projectHash, ScanManagerTypes.MAVEN, "");
+            createScanManagerIfApplicable(scanManagers, projectHash, ScanManagerTypes.MAVEN, "", onCreated);
         }
         paths.add(Utils.getProjectBasePath(project));
-        createScanManagers(scanManagers, paths);
-        createPypiScanManagerIfApplicable(scanManagers);
+        createScanManagers(scanManagers, paths, onCreated);
+        createPypiScanManagerIfApplicable(scanManagers, onCreated);
+        disposeUnusedScanManagers(scanManagers);
         this.scanManagers = scanManagers;
     }
 
-    private void createScanManagers(Map<Integer, ScanManager> scanManagers, Set<Path> paths) throws IOException {
+    /**
+     * Dispose the scan managers which are not in use after refreshing the scan managers.
+     *
+     * @param scanManagers - The new scan managers
+     */
+    private void disposeUnusedScanManagers(Map<Integer, ScanManager> scanManagers) {
+        this.scanManagers.entrySet().stream()
+                .filter(entry -> scanManagers.get(entry.getKey()) != entry.getValue())
+                .map(Map.Entry::getValue)
+                .forEach(ScanManager::dispose);
+    }
+
+    private void createScanManagers(Map<Integer, ScanManager> scanManagers, Set<Path> paths,
+                                    BiConsumer<Integer, ScanManager> onCreated) throws IOException {
         scanManagers.values().stream().map(ScanManager::getProjectPaths).flatMap(Collection::stream).forEach(paths::add);
         PackageFileFinder packageFileFinder = new PackageFileFinder(paths, GlobalSettings.getInstance().getServerConfig().getExcludedPaths(), Logger.getInstance());
 
         // Create npm scan-managers.
         Set<String> packageJsonDirs = packageFileFinder.getNpmPackagesFilePairs();
-        createScanManagersForPackageDirs(packageJsonDirs, scanManagers, ScanManagerTypes.NPM);
+        createScanManagersForPackageDirs(packageJsonDirs, scanManagers, ScanManagerTypes.NPM, onCreated);
 
-        // Create Gradle scan-managers.
-        Set<String> buildGradleDirs = packageFileFinder.getBuildGradlePackagesFilePairs();
-        createScanManagersForPackageDirs(buildGradleDirs, scanManagers, ScanManagerTypes.GRADLE);
+        // Create a Gradle scan-manager for each root build.
+        Set<String> buildGradleDirs = GradleBuildRoots.getRootDirs(packageFileFinder.getBuildGradlePackagesFilePairs(), paths);
+        createScanManagersForPackageDirs(buildGradleDirs, scanManagers, ScanManagerTypes.GRADLE, onCreated);
 
         // Create Go scan-managers.
         Set<String> goModDirs = packageFileFinder.getGoPackagesFilePairs();
-        createScanManagersForPackageDirs(goModDirs, scanManagers, ScanManagerTypes.GO);
+        createScanManagersForPackageDirs(goModDirs, scanManagers, ScanManagerTypes.GO, onCreated);
     }
 
     /**
      * Create PypiScanManager for each Python SDK configured.
      *
      * @param scanManagers - The scan managers list
+     * @param onCreated    - Called for each new scan manager
      */
-    private void createPypiScanManagerIfApplicable(Map<Integer, ScanManager> scanManagers) throws IOException {
+    private void createPypiScanManagerIfApplicable(Map<Integer, ScanManager> scanManagers,
+                                                   BiConsumer<Integer, ScanManager> onCreated) throws IOException {
         try {
             for (Sdk pythonSdk : PypiScanManager.getAllPythonSdks()) {
                 int projectHash = Utils.getProjectIdentifier(pythonSdk.getName(), pythonSdk.getHomePath());
                 ScanManager scanManager = this.scanManagers.get(projectHash);
                 if (scanManager == null) {
-                    scanManager = new PypiScanManager(project, pythonSdk);
+                    scanManager = PypiScanManager.create(project, pythonSdk);
+                    onCreated.accept(projectHash, scanManager);
                 }
                 scanManagers.put(projectHash, scanManager);
             }
@@ -144,14 +260,14 @@ public class ScanManagersFactory {
     }
 
     private void createScanManagersForPackageDirs(Set<String> packageDirs, Map<Integer, ScanManager> scanManagers,
-                                                  ScanManagerTypes type) throws IOException {
+                                                  ScanManagerTypes type, BiConsumer<Integer, ScanManager> onCreated) throws IOException {
         for (String dir : packageDirs) {
             int projectHash = Utils.getProjectIdentifier(dir, dir);
-            ScanManager scanManager = scanManagers.get(projectHash);
+            ScanManager scanManager = this.scanManagers.get(projectHash);
             if (scanManager != null) {
                 scanManagers.put(projectHash, scanManager);
             } else {
-                createScanManagerIfApplicable(scanManagers, projectHash, type, dir);
+                createScanManagerIfApplicable(scanManagers, projectHash, type, dir, onCreated);
             }
         }
     }
@@ -166,36 +282,55 @@ public class ScanManagersFactory {
     /**
      * Create a new scan manager according to the scan manager type. Add it to the scan managers set.
      * Maven - Create only if the 'maven' plugin is installed and there are Maven projects.
-     * Go, npm and gradle - Always create.
+     * Go, npm and gradle - Always create. A Gradle scan manager is created for each root build.
      *
      * @param scanManagers - Scan managers set
      * @param projectHash  - Project hash - calculated by the project name and the path
      * @param type         - Project type
      * @param dir          - Project dir
+     * @param onCreated    - Called with the new scan manager
      * @throws IOException in any case of error during scan manager creation.
      */
-    private void createScanManagerIfApplicable(Map<Integer, ScanManager> scanManagers, int projectHash, ScanManagerTypes type, String dir) throws IOException {
+    private void createScanManagerIfApplicable(Map<Integer, ScanManager> scanManagers, int projectHash, ScanManagerTypes type, String dir,
+                                               BiConsumer<Integer, ScanManager> onCreated) throws IOException {
         try {
+            ScanManager scanManager;
             switch (type) {
                 case MAVEN:
-                    if (MavenScanManager.isApplicable(project)) {
-                        scanManagers.put(projectHash, new MavenScanManager(project));
+                    if (!MavenScanManager.isApplicable(project)) {
+                        return;
                     }
-                    return;
+                    scanManager = new MavenScanManager(project);
+                    break;
                 case GRADLE:
-                    scanManagers.put(projectHash, new GradleScanManager(project, dir));
-                    return;
+                    scanManager = new GradleScanManager(project, dir);
+                    break;
                 case NPM:
-                    scanManagers.put(projectHash, new NpmScanManager(project, dir));
-                    return;
+                    scanManager = new NpmScanManager(project, dir);
+                    break;
                 case GO:
-                    scanManagers.put(projectHash, new GoScanManager(project, dir));
+                    scanManager = new GoScanManager(project, dir, goNodePool);
+                    break;
+                default:
+                    return;
             }
+            scanManagers.put(projectHash, scanManager);
+            onCreated.accept(projectHash, scanManager);
         } catch (NoClassDefFoundError noClassDefFoundError) {
             // The 'maven' or 'python' plugins are not installed.
         }
     }
 
+    /**
+     * Dispose all scan managers after the project is closed.
+     */
+    @Override
+    public void dispose() {
+        scanManagers.values().forEach(ScanManager::dispose);
+        scanManagers = Maps.newHashMap();
+        goNodePool.clear();
+    }
+
     private boolean isScanInProgress() {
         return scanManagers.values().stream().anyMatch(ScanManager::isScanInProgress);
     }
@@ -0,0 +1,164 @@
+package com.jfrog.ide.idea.scan;
+
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.project.Project;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import com.jfrog.ide.common.utils.ProjectsMap;
+import com.jfrog.ide.idea.log.Logger;
+import com.jfrog.ide.idea.ui.LocalComponentsTree;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.stream.Collectors;
+
+/**
+ * Scan all scan managers of a project in a single background task.
+ * The dependency trees are built concurrently on a pool bounded by the number of cores. The Xray scan of each tree
+ * starts as soon as the tree is ready, while the other trees are still being built.
+ *
+ * @author yahavi
+ */
+class ScanOrchestrator extends Task.Backgroundable {
+
+    private static final int BUILD_TREE_THREADS = Runtime.getRuntime().availableProcessors();
+    private static final long POLL_INTERVAL_MILLIS = 100;
+
+    private final Collection<ScanManager> scanManagers;
+    private final boolean quickScan;
+
+    /**
+     * @param project      - The IntelliJ project
+     * @param scanManagers - The scan managers to scan
+     * @param quickScan    - True to allow usage of the scan cache
+     */
+    ScanOrchestrator(@NotNull Project project, Collection<ScanManager> scanManagers, boolean quickScan) {
+        super(project, "Xray: Scanning for vulnerabilities...", true);
+        this.scanManagers = scanManagers;
+        this.quickScan = quickScan;
+    }
+
+    @Override
+    public void run(@NotNull ProgressIndicator indicator) {
+        if (myProject.isDisposed()) {
+            return;
+        }
+        // Scan managers which are already scanning scan again after their running scan ends
+        List<ScanManager> lockedScanManagers = new ArrayList<>();
+        List<ScanManager> busyScanManagers = new ArrayList<>();
+        for (ScanManager scanManager : scanManagers) {
+            if (scanManager.tryStartScan(quickScan)) {
+                lockedScanManagers.add(scanManager);
+            } else {
+                busyScanManagers.add(scanManager);
+                queueScan(scanManager);
+            }
+        }
+        if (lockedScanManagers.isEmpty()) {
+            return;
+        }
+        ExecutorService executor = AppExecutorUtil.createBoundedApplicationPoolExecutor("JFrog Xray build trees", BUILD_TREE_THREADS);
+        try {
+            CompletionService<ScanManager> completionService = new ExecutorCompletionService<>(executor);
+            for (ScanManager scanManager : lockedScanManagers) {
+                completionService.submit(() -> buildTree(scanManager, indicator), scanManager);
+            }
+            int total = lockedScanManagers.size();
+            for (int completed = 0; completed < total; completed++) {
+                ScanManager scanManager = takeNextBuiltTree(completionService, indicator);
+                if (scanManager == null) {
+                    continue;
+                }
+                indicator.setText2(scanManager.getProjectPath());
+                final int done = completed;
+                scanAndUpdateResults(scanManager, fraction -> {
+                    indicator.setIndeterminate(false);
+                    indicator.setFraction((done + fraction) / total);
+                });
+                indicator.setFraction((double) (completed + 1) / total);
+            }
+            // Remove the results of projects which no longer exist or failed to be scanned. The results of the busy
+            // scan managers are kept until their queued scans publish them.
+            Set<ProjectsMap.ProjectKey> pendingProjects = busyScanManagers.stream()
+                    .map(ScanManager::getProjectKey)
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toSet());
+            LocalComponentsTree.getInstance(myProject).removeStaleScanResults(pendingProjects);
+        } catch (ProcessCanceledException e) {
+            Logger.getInstance().info("Xray scan was canceled");
+        } finally {
+            executor.shutdownNow();
+            lockedScanManagers.forEach(ScanManager::finishScan);
+        }
+    }
+
+    /**
+     * Queue a scan of a scan manager which is already scanning. The queued scan runs after the running scan ends, so that
+     * an explicit refresh is never dropped.
+     *
+     * @param scanManager - The busy scan manager
+     */
+    private void queueScan(ScanManager scanManager) {
+        Logger.getInstance().debug(scanManager.getProjectPath() + " is already being scanned, its scan will run after the running scan.");
+        if (quickScan) {
+            scanManager.asyncScanAndUpdateResults();
+        } else {
+            scanManager.asyncFullScanAndUpdateResults();
+        }
+    }
+
+    /**
+     * Build or read the cached dependency tree of the scan manager. Runs on the executor threads under the task progress indicator,
+     * so that {@link ScanManager#checkCanceled()} reflects the task cancellation.
+     */
+    private void buildTree(ScanManager scanManager, ProgressIndicator indicator) {
+        ProgressManager.getInstance().executeProcessUnderProgress(() -> {
+            try {
+                scanManager.loadOrBuildTree(quickScan);
+            } catch (ProcessCanceledException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        }, indicator);
+    }
+
+    /**
+     * Wait for the next dependency tree to be built.
+     *
+     * @return the scan manager of the built tree or null if building the tree failed
+     * @throws ProcessCanceledException if the task was canceled
+     */
+    private ScanManager takeNextBuiltTree(CompletionService<ScanManager> completionService, ProgressIndicator indicator) {
+        try {
+            Future<ScanManager> future;
+            while ((future = completionService.poll(POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS)) == null) {
+                indicator.checkCanceled();
+            }
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ProcessCanceledException(e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause() instanceof CompletionException ? e.getCause().getCause() : e.getCause();
+            if (cause instanceof ProcessCanceledException) {
+                throw (ProcessCanceledException) cause;
+            }
+            Logger.getInstance().error("", cause);
+            return null;
+        }
+    }
+
+    private void scanAndUpdateResults(ScanManager scanManager, com.jfrog.ide.common.log.ProgressIndicator indicator) {
+        try {
+            scanManager.scanAndUpdateResults(quickScan, indicator);
+        } catch (ProcessCanceledException e) {
+            throw e;
+        } catch (Exception e) {
+            Logger.getInstance().error("", e);
+        }
+    }
+}
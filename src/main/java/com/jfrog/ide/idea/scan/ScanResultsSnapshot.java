@@ -0,0 +1,75 @@
+package com.jfrog.ide.idea.scan;
+
+import com.google.common.hash.Hashing;
+import org.jfrog.build.extractor.scan.DependencyTree;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A snapshot of the last scan results of a project, used to show the results immediately after the IDE starts.
+ * The snapshot contains the structure of the dependency tree. The Xray info is restored from the Xray scan cache.
+ *
+ * @author yahavi
+ */
+class ScanResultsSnapshot {
+    private static final int FORMAT_VERSION = 1;
+    private static final int MAGIC = 0x4A465253;
+
+    private final Path snapshotFile;
+
+    /**
+     * @param snapshotsDir  - The directory of the snapshots
+     * @param scanManagerId - The ID of the scan manager
+     */
+    ScanResultsSnapshot(Path snapshotsDir, String scanManagerId) {
+        this.snapshotFile = snapshotsDir.resolve(Hashing.sha256().hashString(scanManagerId, StandardCharsets.UTF_8) + ".snapshot");
+    }
+
+    /**
+     * Read the snapshot.
+     *
+     * @return the dependency tree of the last scan or null if there is no snapshot
+     * @throws IOException in case of an error reading the snapshot
+     */
+    DependencyTree read() throws IOException {
+        if (!Files.isRegularFile(snapshotFile)) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(Files.newInputStream(snapshotFile))))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+                return null;
+            }
+            return DependencyTreeSerializer.read(in);
+        } catch (EOFException e) {
+            // The file was truncated
+            return null;
+        }
+    }
+
+    /**
+     * Replace the snapshot with the given scan results.
+     *
+     * @param scanResults - The dependency tree of the last scan
+     * @throws IOException in case of an error writing the snapshot
+     */
+    void write(DependencyTree scanResults) throws IOException {
+        Files.createDirectories(snapshotFile.getParent());
+        Path tempFile = Files.createTempFile(snapshotFile.getParent(), snapshotFile.getFileName().toString(), ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(Files.newOutputStream(tempFile))))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                DependencyTreeSerializer.write(out, scanResults);
+            }
+            Files.move(tempFile, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package com.jfrog.ide.idea.scan;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Coalesce the scan requests of a single scan manager.
+ * Any number of scan requests arriving within the debounce window, or while a scan is running, result in exactly one
+ * scan. Requests arriving while a scan is running are never dropped - a single follow-up scan runs after it ends.
+ * When the debounce window ends, the scan may be deferred or skipped, for example until the IDE is idle.
+ * A full scan, which doesn't use the scan cache, can be requested too. It is coalesced with the other requests, and the
+ * next launched scan takes it by calling {@link #takeFullScanRequest()}.
+ *
+ * @author yahavi
+ */
+class ScanStateMachine {
+
+    enum State {
+        // No scan is running or scheduled
+        IDLE,
+        // A scan will start when the debounce window ends, or when it is no longer deferred
+        DEBOUNCING,
+        // A scan is running
+        RUNNING,
+        // A scan is running and another scan should run after it ends
+        RUNNING_WITH_PENDING_RESCAN
+    }
+
+    private final ScheduledExecutorService scheduler;
+    private final Runnable launchScan;
+    private final LongSupplier startDelay;
+    private final long debounceMillis;
+    private ScheduledFuture<?> debounceFuture;
+    private State state = State.IDLE;
+    private boolean canceled;
+    private boolean fullScanRequested;
+    private long generation;
+
+    /**
+     * @param scheduler      - Scheduler to run the scans on when the debounce window ends
+     * @param debounceMillis - Debounce window in milliseconds
+     * @param startDelay     - Called when the debounce window ends. Returns the milliseconds to defer the scan by, 0 to
+     *                       start it now, or a negative number to skip it.
+     * @param launchScan     - Launch a scan. The scan must call {@link #finish()} when done.
+     */
+    ScanStateMachine(@NotNull ScheduledExecutorService scheduler, long debounceMillis, @NotNull LongSupplier startDelay,
+                     @NotNull Runnable launchScan) {
+        this.scheduler = scheduler;
+        this.debounceMillis = debounceMillis;
+        this.startDelay = startDelay;
+        this.launchScan = launchScan;
+    }
+
+    /**
+     * Request a scan. The scan starts after the debounce window, or after the running scan ends.
+     */
+    synchronized void requestScan() {
+        if (canceled) {
+            return;
+        }
+        switch (state) {
+            case IDLE:
+            case DEBOUNCING:
+                // Start or restart the debounce window
+                state = State.DEBOUNCING;
+                scheduleScan(debounceMillis);
+                return;
+            case RUNNING:
+                state = State.RUNNING_WITH_PENDING_RESCAN;
+                return;
+            case RUNNING_WITH_PENDING_RESCAN:
+                // Already coalesced into the follow-up scan
+        }
+    }
+
+    /**
+     * Request a full scan. Like {@link #requestScan()}, but the launched scan doesn't use the scan cache.
+     */
+    synchronized void requestFullScan() {
+        if (canceled) {
+            return;
+        }
+        fullScanRequested = true;
+        requestScan();
+    }
+
+    /**
+     * Called by the launched scan to check if a full scan was requested. Clears the request.
+     *
+     * @return true if the launched scan should be a full scan
+     */
+    synchronized boolean takeFullScanRequest() {
+        boolean requested = fullScanRequested;
+        fullScanRequested = false;
+        return requested;
+    }
+
+    /**
+     * Start a quick scan immediately, without waiting for the debounce window.
+     *
+     * @return false if a scan is already running
+     */
+    synchronized boolean tryStart() {
+        return tryStart(false);
+    }
+
+    /**
+     * Start a scan immediately, without waiting for the debounce window.
+     * A scheduled scan is canceled, since the started scan covers it. A requested full scan is covered only by a full
+     * scan, so it stays pending after a quick scan.
+     *
+     * @param fullScan - True if the started scan is a full scan
+     * @return false if a scan is already running
+     */
+    synchronized boolean tryStart(boolean fullScan) {
+        if (isScanInProgress()) {
+            return false;
+        }
+        cancelScheduledScan();
+        if (fullScan) {
+            fullScanRequested = false;
+        }
+        state = fullScanRequested ? State.RUNNING_WITH_PENDING_RESCAN : State.RUNNING;
+        return true;
+    }
+
+    /**
+     * Mark the running scan as done. If scans were requested while running, schedule a single follow-up scan.
+     */
+    synchronized void finish() {
+        if (state == State.RUNNING_WITH_PENDING_RESCAN && !canceled) {
+            state = State.DEBOUNCING;
+            scheduleScan(debounceMillis);
+            return;
+        }
+        state = State.IDLE;
+    }
+
+    /**
+     * Cancel the scheduled scan and the pending follow-up scan, and ignore all further scan requests. Called after the
+     * scan manager is disposed. A running scan is not interrupted, but no scan is launched after it ends.
+     */
+    synchronized void cancel() {
+        canceled = true;
+        fullScanRequested = false;
+        cancelScheduledScan();
+        // Invalidate a debounce window that has already ended and is waiting for the lock
+        generation++;
+        state = isScanInProgress() ? State.RUNNING : State.IDLE;
+    }
+
+    synchronized boolean isScanInProgress() {
+        return state == State.RUNNING || state == State.RUNNING_WITH_PENDING_RESCAN;
+    }
+
+    synchronized State getState() {
+        return state;
+    }
+
+    private void scheduleScan(long delayMillis) {
+        cancelScheduledScan();
+        long scheduledGeneration = ++generation;
+        debounceFuture = scheduler.schedule(() -> onDebounceEnded(scheduledGeneration), delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void cancelScheduledScan() {
+        if (debounceFuture != null) {
+            debounceFuture.cancel(false);
+            debounceFuture = null;
+        }
+    }
+
+    private void onDebounceEnded(long scheduledGeneration) {
+        long delayMillis = startDelay.getAsLong();
+        synchronized (this) {
+            // The scan was rescheduled or started explicitly since this debounce window started
+            if (state != State.DEBOUNCING || scheduledGeneration != generation) {
+                return;
+            }
+            if (delayMillis > 0) {
+                scheduleScan(delayMillis);
+                return;
+            }
+            if (delayMillis < 0) {
+                state = State.IDLE;
+                debounceFuture = null;
+                return;
+            }
+            state = State.RUNNING;
+            debounceFuture = null;
+        }
+        try {
+            launchScan.run();
+        } catch (RuntimeException e) {
+            finish();
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.jfrog.ide.idea.scan;
+
+import com.intellij.openapi.components.ServiceManager;
+import com.jfrog.ide.idea.configuration.GlobalSettings;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.function.IntSupplier;
+
+/**
+ * Send the components to Xray in batches, shared by all scan managers of all projects. Each batch is sent as a single
+ * component summary request, so the batch size is the number of components in a request.
+ * The batch size adapts to the Xray server (AIMD): It grows additively while the requests are answered quickly, and is
+ * halved after a slow or failed request. The number of requests in flight across all scan managers is bounded by the
+ * {@link ScanCoordinator}.
+ * Failed requests are retried according to the connection retries of the server configuration, with jittered
+ * exponential backoff.
+ *
+ * @author yahavi
+ */
+public class XrayRequestScheduler {
+    static final int MIN_BATCH_SIZE = 10;
+    static final int MAX_BATCH_SIZE = 1000;
+    static final int INITIAL_BATCH_SIZE = 100;
+    private static final int BATCH_SIZE_INCREASE = 20;
+    private static final long BACKOFF_BASE_MILLIS = 500;
+    private static final long MAX_BACKOFF_MILLIS = TimeUnit.SECONDS.toMillis(30);
+    private static final long POLL_INTERVAL_MILLIS = 100;
+
+    private final PriorityLimiter requests;
+    // Connection timeout in seconds
+    private final IntSupplier connectionTimeout;
+    private final IntSupplier connectionRetries;
+    private final long backoffBaseMillis;
+    private int batchSize = INITIAL_BATCH_SIZE;
+
+    /**
+     * Send a batch of components to Xray.
+     *
+     * @param <T> - The component type
+     */
+    @FunctionalInterface
+    public interface BatchRequest<T> {
+        void send(List<T> batch) throws Exception;
+    }
+
+    public static XrayRequestScheduler getInstance() {
+        return ServiceManager.getService(XrayRequestScheduler.class);
+    }
+
+    @SuppressWarnings("unused")
+    private XrayRequestScheduler() {
+        this(ScanCoordinator.getInstance().getXrayRequestsLimiter(),
+                () -> GlobalSettings.getInstance().getServerConfig().getConnectionTimeout(),
+                () -> GlobalSettings.getInstance().getServerConfig().getConnectionRetries(),
+                BACKOFF_BASE_MILLIS);
+    }
+
+    /**
+     * @param requests          - Limit the number of requests in flight
+     * @param connectionTimeout - The connection timeout in seconds
+     * @param connectionRetries - The number of retries of a failed request
+     * @param backoffBaseMillis - The maximal delay before the first retry. Doubled on each retry.
+     */
+    XrayRequestScheduler(PriorityLimiter requests, IntSupplier connectionTimeout, IntSupplier connectionRetries, long backoffBaseMillis) {
+        this.requests = requests;
+        this.connectionTimeout = connectionTimeout;
+        this.connectionRetries = connectionRetries;
+        this.backoffBaseMillis = backoffBaseMillis;
+    }
+
+    /**
+     * Send the items in batches. The batches of a single call are sent one after the other, so the request doesn't
+     * have to be thread-safe.
+     *
+     * @param items         - The items to send
+     * @param request       - Send a single batch
+     * @param highPriority  - Returns true if the requests should be sent before the requests of other projects
+     * @param checkCanceled - Throws an unchecked exception if the operation was canceled
+     * @param <T>           - The item type
+     * @throws Exception if a batch failed after all retries, or if the thread was interrupted
+     */
+    public <T> void execute(List<T> items, BatchRequest<T> request, BooleanSupplier highPriority, Runnable checkCanceled) throws Exception {
+        int sent = 0;
+        int failures = 0;
+        while (sent < items.size()) {
+            checkCanceled.run();
+            List<T> batch = items.subList(sent, Math.min(items.size(), sent + getBatchSize()));
+            try {
+                send(batch, request, highPriority, checkCanceled);
+                sent += batch.size();
+                failures = 0;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw e;
+            } catch (Exception e) {
+                checkCanceled.run();
+                if (++failures > connectionRetries.getAsInt()) {
+                    throw e;
+                }
+                sleep(getBackoffMillis(failures), checkCanceled);
+            }
+        }
+    }
+
+    /**
+     * @return the number of items to send in the next batch
+     */
+    synchronized int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * @return the connection timeout of the Xray server in milliseconds
+     */
+    long getConnectionTimeoutMillis() {
+        return TimeUnit.SECONDS.toMillis(connectionTimeout.getAsInt());
+    }
+
+    private <T> void send(List<T> batch, BatchRequest<T> request, BooleanSupplier highPriority, Runnable checkCanceled) throws Exception {
+        requests.acquire(highPriority, checkCanceled);
+        long start = System.nanoTime();
+        try {
+            request.send(batch);
+        } catch (Exception e) {
+            decreaseBatchSize();
+            throw e;
+        } finally {
+            requests.release();
+        }
+        onSuccess(batch.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    /**
+     * Grow the batch size after a full batch was answered quickly. Shrink it if the answer was slow, before the
+     * requests start to time out.
+     *
+     * @param sentItems     - The number of items sent in the request
+     * @param latencyMillis - The request latency
+     */
+    private synchronized void onSuccess(int sentItems, long latencyMillis) {
+        if (latencyMillis > getConnectionTimeoutMillis() / 4) {
+            decreaseBatchSize();
+        } else if (sentItems >= batchSize) {
+            batchSize = Math.min(MAX_BATCH_SIZE, batchSize + BATCH_SIZE_INCREASE);
+        }
+    }
+
+    private synchronized void decreaseBatchSize() {
+        batchSize = Math.max(MIN_BATCH_SIZE, batchSize / 2);
+    }
+
+    /**
+     * Exponential backoff with full jitter.
+     *
+     * @param attempt - The number of failed attempts
+     * @return random delay before the next attempt
+     */
+    private long getBackoffMillis(int attempt) {
+        long maxBackoff = Math.min(MAX_BACKOFF_MILLIS, backoffBaseMillis << Math.min(attempt - 1, 16));
+        return ThreadLocalRandom.current().nextLong(maxBackoff + 1);
+    }
+
+    private static void sleep(long millis, Runnable checkCanceled) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis);
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > 0) {
+            checkCanceled.run();
+            TimeUnit.NANOSECONDS.sleep(Math.min(remaining, TimeUnit.MILLISECONDS.toNanos(POLL_INTERVAL_MILLIS)));
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package com.jfrog.ide.idea.scan;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.PropertyAccessor;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.components.ServiceManager;
+import com.jfrog.ide.idea.configuration.GlobalSettings;
+import com.jfrog.ide.idea.log.Logger;
+import org.apache.commons.lang3.StringUtils;
+import org.jfrog.build.extractor.scan.DependencyTree;
+import org.jfrog.build.extractor.scan.Issue;
+import org.jfrog.build.extractor.scan.License;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The Xray issues and licenses of all components scanned in the IDE, shared by all projects. This is the scan cache of
+ * all scan managers - the components are looked up here before they are sent to Xray.
+ * Kept in a {@link ComponentCache}, so that looking up a component reads and deserializes only its own record.
+ * The components are keyed by the Xray server URL, since the Xray info of a component depends on the server.
+ *
+ * @author yahavi
+ */
+public class XrayResultsCache implements Disposable {
+    private static final long MAX_AGE_MILLIS = TimeUnit.DAYS.toMillis(7);
+
+    private static final ObjectMapper objectMapper = new ObjectMapper()
+            .setVisibility(PropertyAccessor.ALL, JsonAutoDetect.Visibility.NONE)
+            .setVisibility(PropertyAccessor.FIELD, JsonAutoDetect.Visibility.ANY)
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    private ComponentCache componentCache;
+
+    private static class XrayInfo {
+        private Set<Issue> issues;
+        private Set<License> licenses;
+
+        @SuppressWarnings("unused")
+        private XrayInfo() {
+        }
+
+        private XrayInfo(Set<Issue> issues, Set<License> licenses) {
+            this.issues = issues;
+            this.licenses = licenses;
+        }
+    }
+
+    public static XrayResultsCache getInstance() {
+        return ServiceManager.getService(XrayResultsCache.class);
+    }
+
+    private XrayResultsCache() {
+        try {
+            componentCache = new ComponentCache(ScanManager.HOME_PATH.resolve("cache"), "components", MAX_AGE_MILLIS);
+        } catch (IOException e) {
+            Logger.getInstance().warn("Couldn't open the components cache: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Save the Xray info of the components returned by a scan. Only the scanned components are saved, not the trees
+     * they belong to. A component is saved only if its Xray info changed. A component which can't be serialized is
+     * skipped.
+     *
+     * @param scannedComponents - Component ID to a node populated with the Xray info
+     */
+    void put(Map<String, DependencyTree> scannedComponents) {
+        if (componentCache == null || scannedComponents.isEmpty()) {
+            return;
+        }
+        String serverKey = getServerKey();
+        Map<String, byte[]> components = new HashMap<>();
+        for (Map.Entry<String, DependencyTree> component : scannedComponents.entrySet()) {
+            String key = createKey(serverKey, component.getKey());
+            try {
+                DependencyTree node = component.getValue();
+                byte[] xrayInfo = objectMapper.writeValueAsBytes(new XrayInfo(node.getIssues(), node.getLicenses()));
+                // Skip unchanged components, to avoid growing the log on each scan
+                if (!Arrays.equals(xrayInfo, componentCache.get(key))) {
+                    components.put(key, xrayInfo);
+                }
+            } catch (IOException | RuntimeException e) {
+                Logger.getInstance().debug("Couldn't cache the Xray info of " + component.getKey() + ": " + e.getMessage());
+            }
+        }
+        try {
+            componentCache.putAll(components);
+        } catch (IOException e) {
+            Logger.getInstance().warn("Couldn't write the components cache: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Populate the nodes of the tree with the cached Xray info. Each component is looked up once.
+     *
+     * @param root - The dependency tree
+     * @return the number of nodes without cached Xray info
+     */
+    int populate(DependencyTree root) {
+        if (componentCache == null || root == null) {
+            return -1;
+        }
+        int missing = 0;
+        String serverKey = getServerKey();
+        Map<String, Optional<XrayInfo>> components = new HashMap<>();
+        Deque<DependencyTree> nodes = new ArrayDeque<>(root.getChildren());
+        while (!nodes.isEmpty()) {
+            DependencyTree node = nodes.pop();
+            nodes.addAll(node.getChildren());
+            Optional<XrayInfo> xrayInfo = components.computeIfAbsent(createKey(serverKey, node.toString()), this::get);
+            if (xrayInfo.isEmpty()) {
+                missing++;
+                continue;
+            }
+            setXrayInfo(node, xrayInfo.get());
+        }
+        return missing;
+    }
+
+    /**
+     * Populate unique components with their cached Xray info, without populating their descendants.
+     *
+     * @param components - Components with unique component IDs
+     * @return the components without cached Xray info
+     */
+    List<DependencyTree> populateComponents(Collection<DependencyTree> components) {
+        if (componentCache == null) {
+            return new ArrayList<>(components);
+        }
+        String serverKey = getServerKey();
+        List<DependencyTree> missing = new ArrayList<>();
+        for (DependencyTree component : components) {
+            Optional<XrayInfo> xrayInfo = get(createKey(serverKey, component.toString()));
+            if (xrayInfo.isEmpty()) {
+                missing.add(component);
+                continue;
+            }
+            setXrayInfo(component, xrayInfo.get());
+        }
+        return missing;
+    }
+
+    private static void setXrayInfo(DependencyTree node, XrayInfo xrayInfo) {
+        if (xrayInfo.issues != null) {
+            node.setIssues(new HashSet<>(xrayInfo.issues));
+        }
+        if (xrayInfo.licenses != null) {
+            node.setLicenses(new HashSet<>(xrayInfo.licenses));
+        }
+    }
+
+    private Optional<XrayInfo> get(String key) {
+        try {
+            byte[] value = componentCache.get(key);
+            return value == null ? Optional.empty() : Optional.of(objectMapper.readValue(value, XrayInfo.class));
+        } catch (IOException | RuntimeException e) {
+            Logger.getInstance().debug("Couldn't read the Xray info of " + key + ": " + e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * @return the URL of the configured Xray server, without a trailing slash
+     */
+    private static String getServerKey() {
+        return StringUtils.removeEnd(StringUtils.trimToEmpty(GlobalSettings.getInstance().getServerConfig().getXrayUrl()), "/");
+    }
+
+    /**
+     * @param serverKey   - The Xray server URL
+     * @param componentId - The component ID
+     * @return the key of the component in the cache
+     */
+    static String createKey(String serverKey, String componentId) {
+        return serverKey + " " + componentId;
+    }
+
+    @Override
+    public void dispose() {
+        if (componentCache == null) {
+            return;
+        }
+        try {
+            componentCache.close();
+        } catch (IOException e) {
+            // Ignore
+        }
+    }
+}
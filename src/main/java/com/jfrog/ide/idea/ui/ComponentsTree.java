@@ -1,5 +1,6 @@
 package com.jfrog.ide.idea.ui;
 
+import com.intellij.ide.util.treeView.TreeState;
 import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.ui.JBMenuItem;
@@ -16,6 +17,7 @@ import com.jfrog.ide.idea.exclusion.ExclusionUtils;
 import com.jfrog.ide.idea.log.Logger;
 import com.jfrog.ide.idea.navigation.NavigationService;
 import com.jfrog.ide.idea.navigation.NavigationTarget;
+import com.jfrog.ide.idea.scan.ComponentIndex;
 import com.jfrog.ide.idea.ui.filters.filtermenu.FilterMenu;
 import com.jfrog.ide.idea.utils.Utils;
 import org.jetbrains.annotations.NotNull;
@@ -45,6 +47,8 @@ public abstract class ComponentsTree extends Tree {
     private final List<FilterMenu<?>> filterMenus = new ArrayList<>();
     private final JBPopupMenu popupMenu = new JBPopupMenu();
     ProjectsMap projects = new ProjectsMap();
+    // The component index of the displayed tree, created on demand
+    private volatile ComponentIndex displayedComponentIndex;
 
     protected Project project;
 
@@ -58,6 +62,7 @@ public abstract class ComponentsTree extends Tree {
 
     public void populateTree(DependencyTree root) {
         filterMenus.forEach(FilterMenu::refresh);
+        displayedComponentIndex = null;
         setModel(new DefaultTreeModel(root));
         validate();
         repaint();
@@ -65,9 +70,27 @@ public abstract class ComponentsTree extends Tree {
 
     public void reset() {
         projects = new ProjectsMap();
+        displayedComponentIndex = null;
         setModel(null);
     }
 
+    /**
+     * Get the component index of the displayed tree. Used by the inspections to find the nodes of the dependencies in
+     * the project descriptors, and to register their navigation.
+     *
+     * @return the component index of the displayed tree
+     */
+    public ComponentIndex getDisplayedComponentIndex() {
+        TreeModel model = getModel();
+        DependencyTree root = model != null ? (DependencyTree) model.getRoot() : null;
+        ComponentIndex index = displayedComponentIndex;
+        if (index == null || index.getRoot() != root) {
+            index = ComponentIndex.create(root);
+            displayedComponentIndex = index;
+        }
+        return index;
+    }
+
     public void addFilterMenu(FilterMenu<?> filterMenu) {
         this.filterMenus.add(filterMenu);
     }
@@ -98,6 +121,8 @@ public abstract class ComponentsTree extends Tree {
             return;
         }
 
+        // Keep the expanded and selected nodes of the replaced project
+        TreeState treeState = TreeState.createOn(this);
         DependencyTree root = (DependencyTree) getModel().getRoot();
         // One project in tree - Append filtered root and the old root the a new empty parent node.
         if (root.getUserObject() != null) {
@@ -108,12 +133,111 @@ public abstract class ComponentsTree extends Tree {
                 newRoot.add(filteredRoot);
             }
             populateTree(newRoot);
-            return;
+        } else {
+            // Two or more projects in tree - Append filtered root to the empty parent node.
+            addOrReplace(root, filteredRoot);
+            populateTree(root);
         }
+        treeState.applyTo(this);
+    }
+
+    /**
+     * Replace subtrees of a displayed project using a single tree-model event, without replacing the whole tree model.
+     * The expansion state of the tree is preserved.
+     *
+     * @param projectRoot   - The root of the project containing the subtrees
+     * @param filteredNodes - The path of each replaced subtree, mapped to the new filtered subtree
+     * @return false if one of the replaced subtrees is not displayed
+     */
+    public boolean replaceNodes(DependencyTree projectRoot, Map<List<Object>, DependencyTree> filteredNodes) {
+        if (filteredNodes.isEmpty() || getModel() == null) {
+            return false;
+        }
+        DefaultTreeModel model = (DefaultTreeModel) getModel();
+        DependencyTree displayedProject = findDisplayedProject((DependencyTree) model.getRoot(), projectRoot);
+        if (displayedProject == null) {
+            return false;
+        }
+        TreeState treeState = TreeState.createOn(this);
+        boolean replacedAll = true;
+        Set<DependencyTree> changedParents = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Map.Entry<List<Object>, DependencyTree> filteredNode : filteredNodes.entrySet()) {
+            DependencyTree parent = replaceNode(model, displayedProject, filteredNode.getKey(), filteredNode.getValue());
+            if (parent == null) {
+                replacedAll = false;
+                continue;
+            }
+            changedParents.add(parent);
+        }
+        displayedComponentIndex = null;
+        // Recalculate the issues of the project, since the issues of the ancestors of the subtrees may change
+        displayedProject.setIssues(displayedProject.processTreeIssues());
+        notifyAncestorsChanged(model, displayedProject, changedParents);
+        treeState.applyTo(this);
+        return replacedAll;
+    }
 
-        // Two or more projects in tree - Append filtered root to the empty parent node.
-        addOrReplace(root, filteredRoot);
-        populateTree(root);
+    /**
+     * Replace a displayed subtree and notify the model about the removed and inserted node at its index.
+     *
+     * @param model            - The tree model
+     * @param displayedProject - The displayed project node
+     * @param path             - The user objects of the path from the project node to the replaced node
+     * @param filteredNode     - The new subtree
+     * @return the parent of the replaced node or null if the node is not displayed
+     */
+    private DependencyTree replaceNode(DefaultTreeModel model, DependencyTree displayedProject, List<Object> path, DependencyTree filteredNode) {
+        if (path.isEmpty()) {
+            return null;
+        }
+        DependencyTree displayedNode = displayedProject;
+        for (Object userObject : path) {
+            if (displayedNode == null) {
+                return false;
+            }
+            displayedNode = displayedNode.getChildren().stream()
+                    .filter(child -> Objects.equals(child.getUserObject(), userObject))
+                    .findAny()
+                    .orElse(null);
+        }
+        if (displayedNode == null) {
+            return null;
+        }
+        DependencyTree parent = (DependencyTree) displayedNode.getParent();
+        int[] index = {parent.getIndex(displayedNode)};
+        parent.remove(index[0]);
+        model.nodesWereRemoved(parent, index, new Object[]{displayedNode});
+        parent.insert(filteredNode, index[0]);
+        model.nodesWereInserted(parent, index);
+        return parent;
+    }
+
+    /**
+     * Notify the model that the parents of the replaced nodes and their ancestors changed, since their issues may
+     * change. Each ancestor is notified once.
+     *
+     * @param model            - The tree model
+     * @param displayedProject - The displayed project node
+     * @param changedParents   - The parents of the replaced nodes
+     */
+    private void notifyAncestorsChanged(DefaultTreeModel model, DependencyTree displayedProject, Set<DependencyTree> changedParents) {
+        Set<DependencyTree> notified = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (DependencyTree parent : changedParents) {
+            for (DependencyTree node = parent; node != null && notified.add(node); node = (DependencyTree) node.getParent()) {
+                model.nodeChanged(node);
+                if (node == displayedProject) {
+                    break;
+                }
+            }
+        }
+    }
+
+    private DependencyTree findDisplayedProject(DependencyTree root, DependencyTree projectRoot) {
+        if (Utils.areRootNodesEqual(root, projectRoot)) {
+            return root;
+        }
+        int childIndex = searchNode(root, projectRoot);
+        return childIndex >= 0 ? root.getChildren().get(childIndex) : null;
     }
 
     private int searchNode(DependencyTree root, DependencyTree filteredRoot) {
@@ -1,6 +1,7 @@
 package com.jfrog.ide.idea.ui;
 
 import com.intellij.ui.render.LabelBasedRenderer;
+import com.intellij.util.ui.UIUtil;
 import com.jfrog.ide.idea.ui.utils.IconUtils;
 import org.apache.commons.lang.StringUtils;
 import org.jetbrains.annotations.NotNull;
@@ -31,6 +32,11 @@ public class ComponentsTreeCellRenderer extends LabelBasedRenderer.Tree {
             cellRenderer.setText(scanTreeNode + " (" + scanTreeNode.getIssueCount() + ")");
         }
 
+        // Show the results of a previous scan in gray, until the project is scanned again
+        if (!sel && tree instanceof LocalComponentsTree && ((LocalComponentsTree) tree).isStale(scanTreeNode)) {
+            cellRenderer.setForeground(UIUtil.getInactiveTextColor());
+        }
+
         return cellRenderer;
     }
 }
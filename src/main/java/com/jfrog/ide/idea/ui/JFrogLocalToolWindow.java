@@ -30,13 +30,30 @@ import static com.jfrog.ide.idea.ui.JFrogToolWindow.TITLE_LABEL_SIZE;
  */
 public class JFrogLocalToolWindow extends AbstractJFrogToolWindow {
 
+    private JLabel discoveringProjectsLabel;
+
+    /**
+     * Show the "Discovering projects" message until {@link #onProjectsDiscovered(boolean)} is called.
+     *
+     * @param project - Currently opened IntelliJ project
+     */
+    public JFrogLocalToolWindow(@NotNull Project project) {
+        super(project, true, LocalComponentsTree.getInstance(project));
+    }
+
     /**
-     * @param project   - Currently opened IntelliJ project
+     * Replace the "Discovering projects" message, unless a component was already selected.
+     *
      * @param supported - True if the current opened project is supported by the plugin.
      *                  If not, show the "Unsupported project type" message.
      */
-    public JFrogLocalToolWindow(@NotNull Project project, boolean supported) {
-        super(project, supported, LocalComponentsTree.getInstance(project));
+    public void onProjectsDiscovered(boolean supported) {
+        if (issuesDetailsPanel == null || discoveringProjectsLabel == null || discoveringProjectsLabel.getParent() != issuesDetailsPanel) {
+            return;
+        }
+        String panelText = supported ? ComponentUtils.SELECT_COMPONENT_TEXT : ComponentUtils.UNSUPPORTED_TEXT;
+        ComponentDetails.replaceAndUpdateUI(issuesDetailsPanel, ComponentUtils.createDisabledTextLabel(panelText), BorderLayout.CENTER);
+        discoveringProjectsLabel = null;
     }
 
     @Override
@@ -69,8 +86,9 @@ public class JFrogLocalToolWindow extends AbstractJFrogToolWindow {
         title.setFont(title.getFont().deriveFont(TITLE_FONT_SIZE));
 
         issuesDetailsPanel = new JBPanel<>(new BorderLayout()).withBackground(UIUtil.getTableBackground());
-        String panelText = supported ? ComponentUtils.SELECT_COMPONENT_TEXT : ComponentUtils.UNSUPPORTED_TEXT;
-        issuesDetailsPanel.add(ComponentUtils.createDisabledTextLabel(panelText), BorderLayout.CENTER);
+        // The projects are discovered in the background after the tool window is created
+        discoveringProjectsLabel = ComponentUtils.createDisabledTextLabel(ComponentUtils.DISCOVERING_PROJECTS_TEXT);
+        issuesDetailsPanel.add(discoveringProjectsLabel, BorderLayout.CENTER);
         issuesDetailsScroll = ScrollPaneFactory.createScrollPane(issuesDetailsPanel, ScrollPaneConstants.VERTICAL_SCROLLBAR_ALWAYS, ScrollPaneConstants.HORIZONTAL_SCROLLBAR_NEVER);
         return new TitledPane(JSplitPane.VERTICAL_SPLIT, TITLE_LABEL_SIZE, title, issuesDetailsScroll);
     }
@@ -17,13 +17,26 @@ public class JFrogToolWindow {
     public static final int TITLE_LABEL_SIZE = (int) TITLE_FONT_SIZE + 10;
     public static final int SCROLL_BAR_SCROLLING_UNITS = 16;
 
-    void initToolWindow(@NotNull ToolWindow toolWindow, @NotNull Project project, boolean localProjectSupported, boolean buildsConfigured) {
+    private JFrogLocalToolWindow jfrogLocalContent;
+
+    void initToolWindow(@NotNull ToolWindow toolWindow, @NotNull Project project, boolean buildsConfigured) {
         ContentManager contentManager = toolWindow.getContentManager();
-        JFrogLocalToolWindow jfrogLocalContent = new JFrogLocalToolWindow(project, localProjectSupported);
+        jfrogLocalContent = new JFrogLocalToolWindow(project);
         JFrogCiToolWindow jFrogCiContent = new JFrogCiToolWindow(project, buildsConfigured);
         addContent(contentManager, jfrogLocalContent, jFrogCiContent);
     }
 
+    /**
+     * Replace the "Discovering projects" message of the local view after the projects discovery is done.
+     *
+     * @param localProjectSupported - True if the current opened project is supported by the plugin
+     */
+    void onProjectsDiscovered(boolean localProjectSupported) {
+        if (jfrogLocalContent != null) {
+            jfrogLocalContent.onProjectsDiscovered(localProjectSupported);
+        }
+    }
+
     private void addContent(ContentManager contentManager, JFrogLocalToolWindow jfrogLocalContent, JFrogCiToolWindow jfrogBuildsContent) {
         ContentFactory contentFactory = ContentFactory.SERVICE.getInstance();
         Content localContent = contentFactory.createContent(jfrogLocalContent, "Local", false);
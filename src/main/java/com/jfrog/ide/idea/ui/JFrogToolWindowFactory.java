@@ -1,18 +1,19 @@
 package com.jfrog.ide.idea.ui;
 
 import com.intellij.ide.util.PropertiesComponent;
+import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.openapi.components.ServiceManager;
 import com.intellij.openapi.project.DumbService;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.wm.ToolWindow;
 import com.intellij.openapi.wm.ToolWindowFactory;
 import com.jfrog.ide.idea.ci.CiManager;
+import com.jfrog.ide.idea.log.Logger;
 import com.jfrog.ide.idea.scan.ScanManagersFactory;
-import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.jetbrains.annotations.NotNull;
 
-import java.io.IOException;
+import java.util.concurrent.TimeUnit;
 
 import static com.jfrog.ide.idea.ui.configuration.JFrogProjectConfiguration.BUILDS_PATTERN_KEY;
 
@@ -23,23 +24,15 @@ public class JFrogToolWindowFactory implements ToolWindowFactory {
 
     @Override
     public void createToolWindowContent(@NotNull final Project project, @NotNull final ToolWindow toolWindow) {
-        boolean localProjectSupported = isLocalProjectSupported(project);
-        boolean buildsConfigured = isBuildsConfigured(project);
-        DumbService.getInstance(project).runWhenSmart(() -> {
-            ServiceManager.getService(project, JFrogToolWindow.class).initToolWindow(toolWindow, project, localProjectSupported, buildsConfigured);
-            ScanManagersFactory.getInstance(project).startScan(true);
-            CiManager.getInstance(project).asyncRefreshBuilds();
-        });
-    }
+        long start = System.nanoTime();
+        JFrogToolWindow jfrogToolWindow = ServiceManager.getService(project, JFrogToolWindow.class);
+        jfrogToolWindow.initToolWindow(toolWindow, project, isBuildsConfigured(project));
+        Logger.getInstance().info(String.format("JFrog tool window created in %d ms.", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)));
 
-    private boolean isLocalProjectSupported(Project project) {
-        ScanManagersFactory scanManagersFactory = ScanManagersFactory.getInstance(project);
-        try {
-            scanManagersFactory.refreshScanManagers();
-        } catch (IOException e) {
-            // Ignore
-        }
-        return CollectionUtils.isNotEmpty(ScanManagersFactory.getScanManagers(project));
+        // Discover the projects in the background. The projects are scanned when the discovery and the indexing are done.
+        ScanManagersFactory.getInstance(project).discoverProjectsAndScan(localProjectSupported ->
+                ApplicationManager.getApplication().invokeLater(() -> jfrogToolWindow.onProjectsDiscovered(localProjectSupported), project.getDisposed()));
+        DumbService.getInstance(project).runWhenSmart(() -> CiManager.getInstance(project).asyncRefreshBuilds());
     }
 
     private boolean isBuildsConfigured(Project project) {
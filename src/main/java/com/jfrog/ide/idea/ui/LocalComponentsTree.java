@@ -1,5 +1,6 @@
 package com.jfrog.ide.idea.ui;
 
+import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.openapi.components.ServiceManager;
 import com.intellij.openapi.project.DumbService;
 import com.intellij.openapi.project.Project;
@@ -9,13 +10,21 @@ import com.jfrog.ide.common.utils.ProjectsMap;
 import com.jfrog.ide.idea.events.ProjectEvents;
 import com.jfrog.ide.idea.scan.ScanManagersFactory;
 import com.jfrog.ide.idea.ui.filters.filtermanager.LocalFilterManager;
+import com.jfrog.ide.idea.utils.Utils;
 import org.jetbrains.annotations.NotNull;
 import org.jfrog.build.extractor.scan.DependencyTree;
 
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
 /**
  * @author yahavi
  */
 public class LocalComponentsTree extends ComponentsTree {
+    // Projects showing the results of a previous scan
+    private final Set<ProjectsMap.ProjectKey> staleProjects = ConcurrentHashMap.newKeySet();
+
     public LocalComponentsTree(@NotNull Project project) {
         super(project);
     }
@@ -41,4 +50,115 @@ public class LocalComponentsTree extends ComponentsTree {
         DumbService.getInstance(this.project).smartInvokeLater(() -> ScanManagersFactory.getInstance(this.project).runInspectionsForAllScanManagers());
     }
 
+    /**
+     * Update subtrees of a scanned project, without rebuilding the tree model of the whole project.
+     * If one of the subtrees is not displayed, the filters are applied on the whole project.
+     *
+     * @param projectKey - The project key
+     * @param nodes      - The updated subtrees, already attached to the project dependency tree
+     */
+    public void updateNodes(ProjectsMap.ProjectKey projectKey, Collection<DependencyTree> nodes) {
+        DependencyTree project = projects.get(projectKey);
+        if (project == null) {
+            return;
+        }
+        FilterManager filterManager = LocalFilterManager.getInstance(this.project);
+        Map<List<Object>, DependencyTree> filteredNodes = new HashMap<>();
+        for (DependencyTree node : nodes) {
+            if (!project.isNodeDescendant(node)) {
+                continue;
+            }
+            List<Object> path = Arrays.stream(node.getPath())
+                    .skip(project.getLevel() + 1)
+                    .map(treeNode -> ((DependencyTree) treeNode).getUserObject())
+                    .collect(Collectors.toList());
+            DependencyTree filteredNode = filterManager.applyFilters(node);
+            filteredNode.setIssues(filteredNode.processTreeIssues());
+            filteredNodes.put(path, filteredNode);
+        }
+        if (filteredNodes.isEmpty()) {
+            return;
+        }
+        ApplicationManager.getApplication().invokeLater(() -> {
+            if (!replaceNodes(project, filteredNodes)) {
+                applyFilters(projectKey);
+            }
+        });
+    }
+
+    @Override
+    public void reset() {
+        super.reset();
+        staleProjects.clear();
+    }
+
+    @Override
+    public void addScanResults(String projectName, DependencyTree dependencyTree) {
+        super.addScanResults(projectName, dependencyTree);
+        staleProjects.remove(ProjectsMap.createKey(projectName, dependencyTree.getGeneralInfo()));
+    }
+
+    /**
+     * Add the results of a previous scan, which are shown until the project is scanned.
+     *
+     * @param projectName    - The project name
+     * @param dependencyTree - The scan results of the previous scan
+     * @return false if the project already has scan results
+     */
+    public boolean addStaleScanResults(String projectName, DependencyTree dependencyTree) {
+        ProjectsMap.ProjectKey projectKey = ProjectsMap.createKey(projectName, dependencyTree.getGeneralInfo());
+        if (projects.get(projectKey) != null) {
+            return false;
+        }
+        staleProjects.add(projectKey);
+        super.addScanResults(projectName, dependencyTree);
+        return true;
+    }
+
+    /**
+     * Mark the results of all projects as stale. The results are shown until the projects are scanned again.
+     */
+    public void markScanResultsStale() {
+        staleProjects.addAll(projects.keySet());
+    }
+
+    /**
+     * Remove the projects which were not scanned since their results were marked as stale.
+     *
+     * @param pendingProjects - Projects whose scans are still pending. Their stale results are kept.
+     */
+    public void removeStaleScanResults(Collection<ProjectsMap.ProjectKey> pendingProjects) {
+        boolean removed = staleProjects.removeIf(projectKey -> {
+            if (pendingProjects.contains(projectKey)) {
+                return false;
+            }
+            projects.remove(projectKey);
+            return true;
+        });
+        if (!removed) {
+            return;
+        }
+        ApplicationManager.getApplication().invokeLater(this::applyFiltersForAllProjects);
+    }
+
+    /**
+     * @param node - A node in the components tree
+     * @return true if the node belongs to a project showing the results of a previous scan
+     */
+    public boolean isStale(DependencyTree node) {
+        if (staleProjects.isEmpty()) {
+            return false;
+        }
+        DependencyTree projectRoot = node;
+        while (projectRoot.getParent() != null && ((DependencyTree) projectRoot.getParent()).getUserObject() != null) {
+            projectRoot = (DependencyTree) projectRoot.getParent();
+        }
+        for (ProjectsMap.ProjectKey projectKey : staleProjects) {
+            DependencyTree project = projects.get(projectKey);
+            if (project != null && Utils.areRootNodesEqual(project, projectRoot)) {
+                return true;
+            }
+        }
+        return false;
+    }
 }
@@ -20,6 +20,7 @@ public class ComponentUtils {
 
     public static final String UNSUPPORTED_TEXT = "Unsupported project type, currently only Maven, Gradle, Go, npm, and PyPI projects are supported.";
     public static final String SELECT_COMPONENT_TEXT = "Select component or issue for more details.";
+    public static final String DISCOVERING_PROJECTS_TEXT = "Discovering projects...";
 
     public static JTextArea createJTextArea(String text, boolean lineWrap) {
         JTextArea jTextArea = new JTextArea(text);
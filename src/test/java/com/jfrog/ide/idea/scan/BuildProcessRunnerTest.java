@@ -0,0 +1,208 @@
+package com.jfrog.ide.idea.scan;
+
+import com.intellij.openapi.progress.ProcessCanceledException;
+import junit.framework.TestCase;
+import org.apache.commons.lang3.SystemUtils;
+import org.jfrog.build.api.util.NullLog;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Run shell commands with the process runner. Skipped on Windows.
+ *
+ * @author yahavi
+ */
+public class BuildProcessRunnerTest extends TestCase {
+    private static final Path WORKING_DIR = Paths.get(".").toAbsolutePath();
+    private static final BooleanSupplier NOT_CANCELED = () -> false;
+
+    private ScheduledExecutorService executor;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        executor = Executors.newScheduledThreadPool(4);
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        executor.shutdownNow();
+        super.tearDown();
+    }
+
+    public void testStreamedOutput() throws IOException {
+        if (SystemUtils.IS_OS_WINDOWS) {
+            return;
+        }
+        BuildProcessRunner.Result<List<String>> result = createRunner(1, 60_000)
+                .run(sh("printf 'a\\nb\\nc\\n'; echo error >&2; exit 3"), WORKING_DIR, Collections.emptyMap(), BuildProcessRunnerTest::readLines, NOT_CANCELED);
+        assertEquals(Arrays.asList("a", "b", "c"), result.getValue());
+        assertEquals(3, result.getExitCode());
+        assertFalse(result.isOk());
+        assertEquals(6, result.getOutputBytes());
+        assertEquals("error", result.getStderr());
+    }
+
+    public void testEnvironment() throws IOException {
+        if (SystemUtils.IS_OS_WINDOWS) {
+            return;
+        }
+        BuildProcessRunner.Result<List<String>> result = createRunner(1, 60_000)
+                .run(sh("echo $JFROG_TEST_VALUE"), WORKING_DIR, Collections.singletonMap("JFROG_TEST_VALUE", "value"), BuildProcessRunnerTest::readLines, NOT_CANCELED);
+        assertEquals(Collections.singletonList("value"), result.getValue());
+        assertTrue(result.isOk());
+    }
+
+    public void testPartiallyParsedOutput() throws IOException {
+        if (SystemUtils.IS_OS_WINDOWS) {
+            return;
+        }
+        // The parser reads only the first line. The rest of the output is drained, so the process doesn't block.
+        BuildProcessRunner.Result<String> result = createRunner(1, 60_000)
+                .run(sh("seq 1 100000"), WORKING_DIR, Collections.emptyMap(),
+                        stdout -> new BufferedReader(new InputStreamReader(stdout, StandardCharsets.UTF_8)).readLine(), NOT_CANCELED);
+        assertEquals("1", result.getValue());
+        assertTrue(result.isOk());
+        long expectedBytes = 0;
+        for (int i = 1; i <= 100000; i++) {
+            expectedBytes += String.valueOf(i).length() + 1;
+        }
+        assertEquals(expectedBytes, result.getOutputBytes());
+    }
+
+    public void testTimeout() throws Exception {
+        if (SystemUtils.IS_OS_WINDOWS) {
+            return;
+        }
+        List<Long> childPids = new CopyOnWriteArrayList<>();
+        long start = System.nanoTime();
+        try {
+            createRunner(1, 500).run(sh("sleep 60 & echo $!; wait"), WORKING_DIR, Collections.emptyMap(), stdout -> readPids(stdout, childPids), NOT_CANCELED);
+            fail("The process should time out");
+        } catch (IOException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("timed out"));
+        }
+        assertTrue(TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start) < 30);
+        assertDestroyed(childPids);
+    }
+
+    public void testCanceled() throws Exception {
+        if (SystemUtils.IS_OS_WINDOWS) {
+            return;
+        }
+        List<Long> childPids = new CopyOnWriteArrayList<>();
+        AtomicBoolean canceled = new AtomicBoolean();
+        executor.schedule(() -> canceled.set(true), 300, TimeUnit.MILLISECONDS);
+        try {
+            createRunner(1, 60_000).run(sh("sleep 60 & echo $!; wait"), WORKING_DIR, Collections.emptyMap(), stdout -> readPids(stdout, childPids), canceled::get);
+            fail("The process should be canceled");
+        } catch (ProcessCanceledException e) {
+            // Expected
+        }
+        assertDestroyed(childPids);
+    }
+
+    public void testInterrupted() throws Exception {
+        if (SystemUtils.IS_OS_WINDOWS) {
+            return;
+        }
+        List<Long> childPids = new CopyOnWriteArrayList<>();
+        BuildProcessRunner runner = createRunner(1, 60_000);
+        ExecutorService buildExecutor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> build = buildExecutor.submit(() -> runner.run(sh("sleep 60 & echo $!; wait"), WORKING_DIR, Collections.emptyMap(),
+                    stdout -> readPids(stdout, childPids), NOT_CANCELED));
+            waitFor(() -> !childPids.isEmpty());
+            // Interrupt the build thread, as the scan coordinator does when a build is abandoned
+            build.cancel(true);
+            assertDestroyed(childPids);
+        } finally {
+            buildExecutor.shutdownNow();
+        }
+    }
+
+    public void testConcurrencyLimit() throws Exception {
+        if (SystemUtils.IS_OS_WINDOWS) {
+            return;
+        }
+        BuildProcessRunner runner = createRunner(2, 60_000);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        List<Future<?>> builds = new ArrayList<>();
+        ExecutorService buildExecutor = Executors.newFixedThreadPool(6);
+        try {
+            for (int i = 0; i < 6; i++) {
+                builds.add(buildExecutor.submit(() -> runner.run(sh("sleep 0.2"), WORKING_DIR, Collections.emptyMap(), stdout -> {
+                    maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    try {
+                        return readLines(stdout);
+                    } finally {
+                        running.decrementAndGet();
+                    }
+                }, NOT_CANCELED)));
+            }
+            for (Future<?> build : builds) {
+                build.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            buildExecutor.shutdownNow();
+        }
+        assertEquals(2, maxRunning.get());
+    }
+
+    private BuildProcessRunner createRunner(int maxProcesses, long timeoutMillis) {
+        return new BuildProcessRunner(new PriorityLimiter(maxProcesses), () -> timeoutMillis, executor, new NullLog());
+    }
+
+    private static List<String> sh(String script) {
+        return Arrays.asList("sh", "-c", script);
+    }
+
+    private static List<String> readLines(InputStream stdout) throws IOException {
+        List<String> lines = new ArrayList<>();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(stdout, StandardCharsets.UTF_8));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lines.add(line);
+        }
+        return lines;
+    }
+
+    /**
+     * Read the PIDs of the background processes, and then wait for the end of the output.
+     */
+    private static List<String> readPids(InputStream stdout, List<Long> pids) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(stdout, StandardCharsets.UTF_8));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            pids.add(Long.parseLong(line.trim()));
+        }
+        return Collections.emptyList();
+    }
+
+    private static void assertDestroyed(List<Long> pids) throws InterruptedException {
+        assertFalse(pids.isEmpty());
+        for (long pid : pids) {
+            waitFor(() -> ProcessHandle.of(pid).map(process -> !process.isAlive()).orElse(true));
+        }
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            assertTrue("Timed out waiting for the condition", System.nanoTime() - deadline < 0);
+            Thread.sleep(20);
+        }
+    }
+}
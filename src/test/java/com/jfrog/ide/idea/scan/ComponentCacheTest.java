@@ -0,0 +1,187 @@
+package com.jfrog.ide.idea.scan;
+
+import com.intellij.openapi.util.io.FileUtil;
+import junit.framework.TestCase;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * @author yahavi
+ */
+public class ComponentCacheTest extends TestCase {
+    private static final long MAX_AGE_MILLIS = TimeUnit.DAYS.toMillis(1);
+
+    private Path cacheDir;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        cacheDir = Files.createTempDirectory("component-cache");
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        FileUtil.delete(cacheDir.toFile());
+        super.tearDown();
+    }
+
+    public void testPutGet() throws IOException {
+        try (ComponentCache cache = new ComponentCache(cacheDir, "components", MAX_AGE_MILLIS)) {
+            assertNull(cache.get("npm://a:1.0.0"));
+            cache.putAll(Map.of("npm://a:1.0.0", bytes("a"), "npm://b:1.0.0", bytes("b")));
+            assertEquals("a", string(cache.get("npm://a:1.0.0")));
+            assertEquals("b", string(cache.get("npm://b:1.0.0")));
+
+            // Replace a value
+            cache.putAll(Map.of("npm://a:1.0.0", bytes("a2")));
+            assertEquals("a2", string(cache.get("npm://a:1.0.0")));
+            assertEquals(2, cache.size());
+        }
+    }
+
+    public void testReopen() throws IOException {
+        try (ComponentCache cache = new ComponentCache(cacheDir, "components", MAX_AGE_MILLIS)) {
+            cache.putAll(Map.of("a", bytes("a"), "b", bytes("b")));
+            cache.compact();
+            cache.putAll(Map.of("c", bytes("c"), "a", bytes("a2")));
+        }
+        try (ComponentCache cache = new ComponentCache(cacheDir, "components", MAX_AGE_MILLIS)) {
+            assertEquals("a2", string(cache.get("a")));
+            assertEquals("b", string(cache.get("b")));
+            assertEquals("c", string(cache.get("c")));
+            assertEquals(3, cache.size());
+        }
+    }
+
+    public void testCompaction() throws IOException {
+        try (ComponentCache cache = new ComponentCache(cacheDir, "components", MAX_AGE_MILLIS)) {
+            cache.putAll(createComponents(0, 2500));
+            cache.putAll(createComponents(2000, 3000));
+            cache.compact();
+            assertEquals(3000, cache.size());
+            for (int i = 0; i < 3000; i++) {
+                assertEquals("value-" + i, string(cache.get("gav://group:artifact-" + i + ":1.0.0")));
+            }
+        }
+        // Only the files of the latest generation and the lock file are kept
+        try (Stream<Path> files = Files.list(cacheDir)) {
+            Set<String> fileNames = files.map(file -> file.getFileName().toString()).collect(Collectors.toSet());
+            assertEquals(3, fileNames.size());
+            assertTrue(fileNames.contains("components.lock"));
+        }
+    }
+
+    /**
+     * Two caches sharing a directory, like the caches of two IDE processes. Compacting one cache must keep the records
+     * the other cache compacted before.
+     */
+    public void testSharedDirectory() throws IOException {
+        try (ComponentCache first = new ComponentCache(cacheDir, "components", MAX_AGE_MILLIS);
+             ComponentCache second = new ComponentCache(cacheDir, "components", MAX_AGE_MILLIS)) {
+            first.putAll(Map.of("a", bytes("a")));
+            second.putAll(Map.of("b", bytes("b")));
+            second.compact();
+            first.putAll(Map.of("c", bytes("c"), "b", bytes("b2")));
+            first.compact();
+            assertEquals("a", string(first.get("a")));
+            assertEquals("b2", string(first.get("b")));
+            assertEquals("c", string(first.get("c")));
+        }
+        try (ComponentCache cache = new ComponentCache(cacheDir, "components", MAX_AGE_MILLIS)) {
+            assertEquals("a", string(cache.get("a")));
+            assertEquals("b2", string(cache.get("b")));
+            assertEquals("c", string(cache.get("c")));
+            assertEquals(3, cache.size());
+        }
+    }
+
+    public void testTruncatedLog() throws IOException {
+        try (ComponentCache cache = new ComponentCache(cacheDir, "components", MAX_AGE_MILLIS)) {
+            cache.putAll(Map.of("a", bytes("a")));
+            cache.putAll(Map.of("b", bytes("b")));
+        }
+        // Simulate a crash while appending the last record
+        Path logFile = getFile(".log");
+        try (FileChannel channel = FileChannel.open(logFile, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 1);
+        }
+        try (ComponentCache cache = new ComponentCache(cacheDir, "components", MAX_AGE_MILLIS)) {
+            assertEquals("a", string(cache.get("a")));
+            assertNull(cache.get("b"));
+            cache.putAll(Map.of("c", bytes("c")));
+        }
+        try (ComponentCache cache = new ComponentCache(cacheDir, "components", MAX_AGE_MILLIS)) {
+            assertEquals("c", string(cache.get("c")));
+        }
+    }
+
+    public void testCorruptedDataFile() throws IOException {
+        try (ComponentCache cache = new ComponentCache(cacheDir, "components", MAX_AGE_MILLIS)) {
+            cache.putAll(Map.of("a", bytes("a")));
+            cache.compact();
+        }
+        Files.write(getFile(".data"), bytes("corrupted"));
+        try (ComponentCache cache = new ComponentCache(cacheDir, "components", MAX_AGE_MILLIS)) {
+            assertNull(cache.get("a"));
+            cache.putAll(Map.of("b", bytes("b")));
+            assertEquals("b", string(cache.get("b")));
+        }
+    }
+
+    public void testExpiration() throws IOException {
+        try (ComponentCache cache = new ComponentCache(cacheDir, "components", -1)) {
+            cache.putAll(Map.of("a", bytes("a")));
+            assertNull(cache.get("a"));
+            cache.compact();
+            assertEquals(0, cache.size());
+        }
+    }
+
+    /**
+     * Open a cache of 50,000 components and look up 1,000 of them.
+     */
+    public void testLargeCache() throws IOException {
+        int componentsCount = 50_000;
+        try (ComponentCache cache = new ComponentCache(cacheDir, "components", MAX_AGE_MILLIS)) {
+            cache.putAll(createComponents(0, componentsCount));
+        }
+        try (ComponentCache cache = new ComponentCache(cacheDir, "components", MAX_AGE_MILLIS)) {
+            for (int i = 0; i < componentsCount; i += componentsCount / 1000) {
+                assertEquals("value-" + i, string(cache.get("gav://group:artifact-" + i + ":1.0.0")));
+            }
+        }
+    }
+
+    private Path getFile(String suffix) throws IOException {
+        try (Stream<Path> files = Files.list(cacheDir)) {
+            List<Path> matching = files.filter(file -> file.toString().endsWith(suffix)).collect(Collectors.toList());
+            assertEquals(1, matching.size());
+            return matching.get(0);
+        }
+    }
+
+    static Map<String, byte[]> createComponents(int from, int to) {
+        Map<String, byte[]> components = new HashMap<>();
+        for (int i = from; i < to; i++) {
+            components.put("gav://group:artifact-" + i + ":1.0.0", bytes("value-" + i));
+        }
+        return components;
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String string(byte[] value) {
+        return value == null ? null : new String(value, StandardCharsets.UTF_8);
+    }
+}
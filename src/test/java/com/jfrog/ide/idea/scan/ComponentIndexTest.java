@@ -0,0 +1,160 @@
+package com.jfrog.ide.idea.scan;
+
+import junit.framework.TestCase;
+import org.jfrog.build.extractor.scan.DependencyTree;
+import org.jfrog.build.extractor.scan.GeneralInfo;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * @author yahavi
+ */
+public class ComponentIndexTest extends TestCase {
+
+    public void testIndex() {
+        DependencyTree root = new DependencyTree("project");
+        DependencyTree a = new DependencyTree("a:1.0.0");
+        DependencyTree b = new DependencyTree("b:1.0.0");
+        a.add(new DependencyTree("shared:1.0.0"));
+        b.add(new DependencyTree("shared:1.0.0"));
+        b.add(new DependencyTree("a:1.0.0"));
+        root.add(a);
+        root.add(b);
+
+        ComponentIndex index = ComponentIndex.create(root);
+        assertSame(root, index.getRoot());
+        assertEquals(3, index.size());
+        assertEquals(5, index.getNodesCount());
+        assertEquals(2, index.get("shared:1.0.0").size());
+        assertEquals(2, index.get("a:1.0.0").size());
+        assertSame(b, index.get("b:1.0.0").get(0));
+        assertTrue(index.get("project").isEmpty());
+        assertTrue(index.get("missing:1.0.0").isEmpty());
+    }
+
+    public void testGetByArtifactId() {
+        DependencyTree root = new DependencyTree("project");
+        DependencyTree core = new DependencyTree("org.jfrog:core:1.0.0");
+        core.setGeneralInfo(new GeneralInfo().groupId("org.jfrog").artifactId("core").version("1.0.0"));
+        DependencyTree otherCore = new DependencyTree("org.other:core:2.0.0");
+        otherCore.setGeneralInfo(new GeneralInfo().groupId("org.other").artifactId("core").version("2.0.0"));
+        root.add(core);
+        core.add(otherCore);
+
+        ComponentIndex index = ComponentIndex.create(root);
+        List<DependencyTree> nodes = index.getByArtifactId("core");
+        assertEquals(2, nodes.size());
+        assertTrue(nodes.contains(core));
+        assertTrue(nodes.contains(otherCore));
+        assertTrue(index.getByArtifactId("missing").isEmpty());
+    }
+
+    public void testGetChildren() {
+        DependencyTree root = new DependencyTree("project");
+        DependencyTree module = new DependencyTree("module");
+        module.setGeneralInfo(new GeneralInfo().artifactId("module").path("/project/module"));
+        DependencyTree first = new DependencyTree("org.jfrog:core:1.0.0");
+        DependencyTree second = new DependencyTree("org.other:core:2.0.0");
+        DependencyTree transitive = new DependencyTree("org.jfrog:core:1.0.0");
+        root.add(module);
+        module.add(first);
+        module.add(second);
+        second.add(transitive);
+
+        ComponentIndex index = ComponentIndex.create(root);
+        // Without a group ID, the children of all group IDs are returned in their order under the parent
+        List<DependencyTree> children = index.getChildren(module, "", "core");
+        assertEquals(2, children.size());
+        assertSame(first, children.get(0));
+        assertSame(second, children.get(1));
+        assertEquals(Collections.singletonList(second), index.getChildren(module, "org.other", "core"));
+        assertEquals(Collections.singletonList(first), index.getChildren(module, " org.jfrog ", "core"));
+        assertTrue(index.getChildren(module, "org.missing", "core").isEmpty());
+        assertSame(transitive, index.getChildren(second, "org.jfrog", "core").get(0));
+        assertSame(module, index.getChildren(root, "", "module").get(0));
+        assertSame(module, index.getChildren(root, null, "module").get(0));
+        assertTrue(index.getChildren(root, "", "core").isEmpty());
+        assertTrue(index.getChildren(module, "", "missing").isEmpty());
+        assertTrue(index.getChildren(null, "", "core").isEmpty());
+    }
+
+    public void testGetByPath() {
+        DependencyTree root = new DependencyTree("project");
+        DependencyTree first = new DependencyTree("first");
+        first.setGeneralInfo(new GeneralInfo().artifactId("first").path("/project/first"));
+        DependencyTree second = new DependencyTree("second");
+        second.setGeneralInfo(new GeneralInfo().artifactId("second").path("/project/second"));
+        root.add(first);
+        root.add(second);
+        second.add(new DependencyTree("dependency:1.0.0"));
+
+        ComponentIndex index = ComponentIndex.create(root);
+        assertSame(first, index.getByPath("/project/first").get(0));
+        assertSame(second, index.getByPath("/project/second").get(0));
+        assertTrue(index.getByPath("/project").isEmpty());
+    }
+
+    public void testGetGeneralInfo() {
+        DependencyTree root = new DependencyTree("project");
+        DependencyTree withGeneralInfo = new DependencyTree("org.jfrog:core:1.0.0");
+        GeneralInfo generalInfo = new GeneralInfo().groupId("org.jfrog").artifactId("core").version("1.0.0");
+        withGeneralInfo.setGeneralInfo(generalInfo);
+        DependencyTree first = new DependencyTree("org.jfrog:util:2.0.0");
+        DependencyTree second = new DependencyTree("org.jfrog:util:2.0.0");
+        root.add(withGeneralInfo);
+        root.add(first);
+        withGeneralInfo.add(second);
+
+        ComponentIndex index = ComponentIndex.create(root);
+        assertSame(generalInfo, index.getGeneralInfo(withGeneralInfo));
+        // The general info of nodes without one is derived from the component ID once for all nodes of the component
+        GeneralInfo derived = index.getGeneralInfo(first);
+        assertEquals("org.jfrog", derived.getGroupId());
+        assertEquals("util", derived.getArtifactId());
+        assertEquals("2.0.0", derived.getVersion());
+        assertSame(derived, index.getGeneralInfo(second));
+        assertNull(first.getGeneralInfo());
+    }
+
+    public void testEmptyTree() {
+        ComponentIndex index = ComponentIndex.create(null);
+        assertNull(index.getRoot());
+        assertEquals(0, index.size());
+        assertTrue(index.get("a:1.0.0").isEmpty());
+    }
+
+    /**
+     * Index a tree of 100,000 nodes with 1,000 unique components, and apply a result to all nodes of each component.
+     */
+    public void testLargeTree() {
+        ComponentIndex index = ComponentIndex.create(createLargeTree());
+        int occurrences = 0;
+        for (String componentId : index.getComponentIds()) {
+            for (DependencyTree node : index.get(componentId)) {
+                node.setGeneralInfo(new GeneralInfo().componentId(componentId));
+                occurrences++;
+            }
+        }
+
+        assertEquals(100_000, index.getNodesCount());
+        assertEquals(100_000, occurrences);
+        assertEquals(1000 + 100, index.size());
+    }
+
+    /**
+     * @return a tree of 100 direct dependencies with 999 children each, of 1,000 unique transitive components
+     */
+    static DependencyTree createLargeTree() {
+        int uniqueComponents = 1000;
+        DependencyTree root = new DependencyTree("project");
+        for (int i = 0; i < 100; i++) {
+            DependencyTree direct = new DependencyTree("direct-" + i + ":1.0.0");
+            root.add(direct);
+            for (int j = 0; j < 999; j++) {
+                direct.add(new DependencyTree("transitive-" + (i + j) % uniqueComponents + ":1.0.0"));
+            }
+        }
+        return root;
+    }
+}
@@ -0,0 +1,137 @@
+package com.jfrog.ide.idea.scan;
+
+import com.jfrog.ide.common.log.ProgressIndicator;
+import com.jfrog.ide.common.scan.ComponentPrefix;
+import com.jfrog.xray.client.Xray;
+import com.jfrog.xray.client.impl.XrayClientBuilder;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import junit.framework.TestCase;
+import org.apache.commons.lang3.StringUtils;
+import org.jfrog.build.extractor.scan.DependencyTree;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test that each batch of the request scheduler is sent to a mock Xray as a single component summary request.
+ *
+ * @author yahavi
+ */
+public class ComponentsScannerTest extends TestCase {
+    private static final String SUMMARY_API = "/api/v1/summary/component";
+
+    private final List<Integer> requestSizes = Collections.synchronizedList(new ArrayList<>());
+    private ExecutorService serverExecutor;
+    private XrayResultsCache resultsCache;
+    private HttpServer server;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        serverExecutor = Executors.newCachedThreadPool();
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext(SUMMARY_API, this::respond);
+        server.setExecutor(serverExecutor);
+        server.start();
+        resultsCache = mock(XrayResultsCache.class);
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        server.stop(0);
+        serverExecutor.shutdownNow();
+        super.tearDown();
+    }
+
+    public void testRequestPerBatch() throws Exception {
+        List<DependencyTree> components = createComponents(250);
+        Map<String, DependencyTree> scanned = createScanner().scan(components, false, mock(ProgressIndicator.class), () -> false, () -> {
+        });
+
+        assertEquals(components.stream().map(DependencyTree::toString).collect(Collectors.toSet()), scanned.keySet());
+        // The first batch is answered quickly, so the next batch grows. The rest of the components are sent in the last batch.
+        int secondBatchSize = XrayRequestScheduler.INITIAL_BATCH_SIZE + 20;
+        assertEquals(Arrays.asList(XrayRequestScheduler.INITIAL_BATCH_SIZE, secondBatchSize, 250 - XrayRequestScheduler.INITIAL_BATCH_SIZE - secondBatchSize), requestSizes);
+        // The scanned components of each batch are cached
+        verify(resultsCache, times(3)).put(any());
+        // The scan results are copies
+        components.forEach(component -> assertNotSame(component, scanned.get(component.toString())));
+    }
+
+    public void testQuickScanSendsMissingComponents() throws Exception {
+        // Only the last 50 components are missing from the cache
+        when(resultsCache.populateComponents(anyCollection())).thenAnswer(invocation -> {
+            Collection<DependencyTree> requested = invocation.getArgument(0);
+            return requested.stream().skip(200).collect(Collectors.toList());
+        });
+        List<DependencyTree> components = createComponents(250);
+        Map<String, DependencyTree> scanned = createScanner().scan(components, true, mock(ProgressIndicator.class), () -> false, () -> {
+        });
+
+        assertEquals(250, scanned.size());
+        assertEquals(Collections.singletonList(50), requestSizes);
+    }
+
+    public void testDuplicateComponents() throws Exception {
+        List<DependencyTree> components = createComponents(10);
+        components.addAll(createComponents(10));
+        Map<String, DependencyTree> scanned = createScanner().scan(components, false, mock(ProgressIndicator.class), () -> false, () -> {
+        });
+
+        assertEquals(10, scanned.size());
+        assertEquals(Collections.singletonList(10), requestSizes);
+    }
+
+    private ComponentsScanner createScanner() {
+        XrayRequestScheduler scheduler = new XrayRequestScheduler(new PriorityLimiter(4), () -> 60, () -> 0, 10);
+        return new ComponentsScanner(ComponentPrefix.GAV, scheduler, resultsCache, this::createXrayClient);
+    }
+
+    private Xray createXrayClient() {
+        return (Xray) new XrayClientBuilder()
+                .setUrl("http://127.0.0.1:" + server.getAddress().getPort())
+                .setUserName("user")
+                .setPassword("password")
+                .build();
+    }
+
+    /**
+     * Respond with an artifact without issues for each requested component.
+     */
+    private void respond(HttpExchange exchange) throws IOException {
+        String body;
+        try (InputStream in = exchange.getRequestBody()) {
+            body = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        String[] componentIds = StringUtils.substringsBetween(body, "\"component_id\":\"", "\"");
+        requestSizes.add(componentIds.length);
+        byte[] response = Arrays.stream(componentIds)
+                .map(componentId -> StringUtils.removeStart(componentId, ComponentPrefix.GAV.getPrefix()))
+                .map(componentId -> "{\"general\":{\"component_id\":\"" + componentId + "\"},\"issues\":[],\"licenses\":[]}")
+                .collect(Collectors.joining(",", "{\"artifacts\":[", "]}"))
+                .getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(200, response.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(response);
+        }
+    }
+
+    private static List<DependencyTree> createComponents(int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> new DependencyTree("group:artifact-" + i + ":1.0.0"))
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,77 @@
+package com.jfrog.ide.idea.scan;
+
+import junit.framework.TestCase;
+import org.jfrog.build.extractor.scan.DependencyTree;
+import org.jfrog.build.extractor.scan.GeneralInfo;
+
+/**
+ * @author yahavi
+ */
+public class DependencyNodePoolTest extends TestCase {
+
+    public void testShareBetweenModules() {
+        DependencyNodePool pool = new DependencyNodePool();
+        DependencyTree first = createModule("github.com/jfrog/first");
+        DependencyTree second = createModule("github.com/jfrog/second");
+
+        // The first module populates the pool
+        assertEquals(0, pool.intern(first));
+        // The second module shares the values of both dependencies, but not of its root
+        assertEquals(2, pool.intern(second));
+        assertEquals(4, pool.size());
+
+        DependencyTree firstDependency = (DependencyTree) first.getChildAt(0);
+        DependencyTree secondDependency = (DependencyTree) second.getChildAt(0);
+        assertNotSame(firstDependency, secondDependency);
+        assertSame(firstDependency.getGeneralInfo(), secondDependency.getGeneralInfo());
+        assertSame(firstDependency.getUserObject(), secondDependency.getUserObject());
+        assertSame(((DependencyTree) firstDependency.getChildAt(0)).getGeneralInfo(),
+                ((DependencyTree) secondDependency.getChildAt(0)).getGeneralInfo());
+        assertNotSame(first.getGeneralInfo(), second.getGeneralInfo());
+    }
+
+    public void testDifferentValues() {
+        DependencyNodePool pool = new DependencyNodePool();
+        DependencyTree root = new DependencyTree("root");
+        DependencyTree first = createNode("github.com/jfrog/dependency:v1.0.0");
+        DependencyTree second = createNode("github.com/jfrog/dependency:v1.0.0");
+        second.getGeneralInfo().path("/vendor");
+        root.add(first);
+        root.add(second);
+
+        // The general info instances are shared only if all their values are equal
+        assertEquals(0, pool.intern(root));
+        assertNotSame(first.getGeneralInfo(), second.getGeneralInfo());
+        assertSame(first.getUserObject(), second.getUserObject());
+        assertEquals(0, pool.intern(null));
+    }
+
+    public void testClear() {
+        DependencyNodePool pool = new DependencyNodePool();
+        DependencyTree first = createModule("github.com/jfrog/first");
+        pool.intern(first);
+        assertEquals(3, pool.size());
+
+        // After the project is closed, the trees of a reopened project don't share the values of the old trees
+        pool.clear();
+        assertEquals(0, pool.size());
+        DependencyTree second = createModule("github.com/jfrog/second");
+        assertEquals(0, pool.intern(second));
+        assertNotSame(((DependencyTree) first.getChildAt(0)).getGeneralInfo(), ((DependencyTree) second.getChildAt(0)).getGeneralInfo());
+    }
+
+    private static DependencyTree createModule(String name) {
+        DependencyTree root = createNode(name);
+        DependencyTree dependency = createNode("github.com/jfrog/dependency:v1.0.0");
+        dependency.add(createNode("github.com/jfrog/transitive:v2.0.0"));
+        root.add(dependency);
+        return root;
+    }
+
+    private static DependencyTree createNode(String componentId) {
+        // Create a new string instance for each node, as the tree builders do
+        DependencyTree node = new DependencyTree(new String(componentId));
+        node.setGeneralInfo(new GeneralInfo().componentId(componentId).pkgType("go"));
+        return node;
+    }
+}
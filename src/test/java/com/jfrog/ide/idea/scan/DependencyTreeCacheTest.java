@@ -0,0 +1,124 @@
+package com.jfrog.ide.idea.scan;
+
+import com.google.common.collect.Sets;
+import com.intellij.openapi.util.io.FileUtil;
+import junit.framework.TestCase;
+import org.jfrog.build.extractor.scan.DependencyTree;
+import org.jfrog.build.extractor.scan.GeneralInfo;
+import org.jfrog.build.extractor.scan.Scope;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author yahavi
+ */
+public class DependencyTreeCacheTest extends TestCase {
+    private static final long MAX_AGE_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+    private Path tempDir;
+    private String scanManagerId;
+    private Path descriptor;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        tempDir = Files.createTempDirectory("dependency-tree-cache");
+        scanManagerId = "GoScanManager:" + tempDir;
+        descriptor = Files.write(tempDir.resolve("go.mod"), "module example.com/project".getBytes());
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        FileUtil.delete(tempDir.toFile());
+        super.tearDown();
+    }
+
+    public void testReadWrite() throws IOException {
+        DependencyTreeCache treeCache = new DependencyTreeCache(tempDir.resolve("cache"), scanManagerId, MAX_AGE_MILLIS);
+        String fingerprint = fingerprint();
+        assertNull(treeCache.read(fingerprint));
+
+        treeCache.write(fingerprint, createTree());
+        DependencyTree root = treeCache.read(fingerprint);
+        assertNotNull(root);
+        assertEquals("project", root.getUserObject());
+        GeneralInfo generalInfo = root.getGeneralInfo();
+        assertEquals("project", generalInfo.getArtifactId());
+        assertEquals("1.0.0", generalInfo.getVersion());
+        assertEquals(tempDir.toString(), generalInfo.getPath());
+        assertEquals("go", generalInfo.getPkgType());
+        assertNull(generalInfo.getGroupId());
+
+        assertEquals(2, root.getChildCount());
+        DependencyTree a = root.getChildren().get(0);
+        assertEquals("a:1.0.0", a.getUserObject());
+        assertEquals(Sets.newHashSet(new Scope("compile")), a.getScopes());
+        assertEquals("b:2.0.0", a.getChildren().get(0).getUserObject());
+        assertEquals(new DependencyTree("b:2.0.0").getScopes(), a.getChildren().get(0).getScopes());
+        assertTrue(root.getChildren().get(1).isLeaf());
+    }
+
+    public void testChangedInputs() throws IOException {
+        DependencyTreeCache treeCache = new DependencyTreeCache(tempDir.resolve("cache"), scanManagerId, MAX_AGE_MILLIS);
+        String fingerprint = fingerprint();
+        treeCache.write(fingerprint, createTree());
+
+        // Equal inputs have the same fingerprint
+        assertEquals(fingerprint, fingerprint());
+        assertNotNull(treeCache.read(fingerprint()));
+
+        Files.write(descriptor, "module example.com/project\nrequire a v1.0.0".getBytes());
+        assertFalse(fingerprint.equals(fingerprint()));
+        assertNull(treeCache.read(fingerprint()));
+
+        // The environment is part of the fingerprint
+        String otherEnvironment = DependencyTreeCache.fingerprint(Collections.singletonList(descriptor), Map.of("GOFLAGS", "-mod=mod"));
+        assertFalse(fingerprint().equals(otherEnvironment));
+
+        // Missing inputs are part of the fingerprint
+        List<Path> inputs = List.of(descriptor, tempDir.resolve("go.sum"));
+        String missingInput = DependencyTreeCache.fingerprint(inputs, Collections.emptyMap());
+        Files.write(tempDir.resolve("go.sum"), new byte[0]);
+        assertFalse(missingInput.equals(DependencyTreeCache.fingerprint(inputs, Collections.emptyMap())));
+    }
+
+    public void testMaxAge() throws IOException {
+        DependencyTreeCache treeCache = new DependencyTreeCache(tempDir.resolve("cache"), scanManagerId, -1);
+        treeCache.write(fingerprint(), createTree());
+        assertNull(treeCache.read(fingerprint()));
+    }
+
+    public void testClear() throws IOException {
+        DependencyTreeCache treeCache = new DependencyTreeCache(tempDir.resolve("cache"), scanManagerId, MAX_AGE_MILLIS);
+        treeCache.write(fingerprint(), createTree());
+        treeCache.clear();
+        assertNull(treeCache.read(fingerprint()));
+    }
+
+    public void testScanManagersSeparation() throws IOException {
+        Path cacheDir = tempDir.resolve("cache");
+        new DependencyTreeCache(cacheDir, scanManagerId, MAX_AGE_MILLIS).write(fingerprint(), createTree());
+        assertNull(new DependencyTreeCache(cacheDir, "NpmScanManager:" + tempDir, MAX_AGE_MILLIS).read(fingerprint()));
+    }
+
+    private String fingerprint() throws IOException {
+        return DependencyTreeCache.fingerprint(Collections.singletonList(descriptor), Map.of("GOFLAGS", ""));
+    }
+
+    private DependencyTree createTree() {
+        DependencyTree root = new DependencyTree("project");
+        root.setGeneralInfo(new GeneralInfo().artifactId("project").version("1.0.0").path(tempDir.toString()).pkgType("go"));
+        DependencyTree a = new DependencyTree("a:1.0.0");
+        a.setScopes(Sets.newHashSet(new Scope("compile")));
+        a.add(new DependencyTree("b:2.0.0"));
+        root.add(a);
+        root.add(new DependencyTree("c:3.0.0"));
+        return root;
+    }
+}
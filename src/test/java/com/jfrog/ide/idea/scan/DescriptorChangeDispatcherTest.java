@@ -0,0 +1,150 @@
+package com.jfrog.ide.idea.scan;
+
+import com.intellij.openapi.application.WriteAction;
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.openapi.util.registry.Registry;
+import com.intellij.openapi.vfs.LocalFileSystem;
+import com.intellij.openapi.vfs.VfsUtil;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.testFramework.fixtures.LightJavaCodeInsightFixtureTestCase;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+/**
+ * @author yahavi
+ */
+public class DescriptorChangeDispatcherTest extends LightJavaCodeInsightFixtureTestCase {
+    private static final String SCAN_DEBOUNCE_KEY = "jfrog.scan.debounce.millis";
+    private static final String RESCAN_IDLE_KEY = "jfrog.scan.idle.millis";
+    private static final int DEBOUNCE_MILLIS = 500;
+    private static final int BURST_SIZE = 10;
+
+    private final AtomicInteger scansCount = new AtomicInteger();
+    private NpmScanManager scanManager;
+    private Path projectDir;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        scansCount.set(0);
+        projectDir = FileUtil.createTempDirectory("descriptor-change-dispatcher", null).toPath();
+        Files.write(projectDir.resolve("package.json"), "{}".getBytes(StandardCharsets.UTF_8));
+        Files.write(projectDir.resolve(NpmLockfileTreeBuilder.PACKAGE_LOCK_JSON), "{}".getBytes(StandardCharsets.UTF_8));
+        // Count the scan requests instead of scanning
+        scanManager = new NpmScanManager(getProject(), projectDir.toString()) {
+            @Override
+            void asyncScanAndUpdateResults() {
+                scansCount.incrementAndGet();
+            }
+        };
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        try {
+            scanManager.dispose();
+            FileUtil.delete(projectDir.toFile());
+        } finally {
+            super.tearDown();
+        }
+    }
+
+    public void testDescriptorChanged() throws IOException {
+        modify(NpmLockfileTreeBuilder.PACKAGE_LOCK_JSON);
+        assertEquals(1, scansCount.get());
+    }
+
+    public void testOtherFileChanged() throws IOException {
+        // Only the registered descriptors trigger a scan
+        modify("package.json");
+        assertEquals(0, scansCount.get());
+    }
+
+    public void testBatchOfEvents() throws IOException {
+        VirtualFile lockfile = findFile(NpmLockfileTreeBuilder.PACKAGE_LOCK_JSON);
+        VirtualFile packageJson = findFile("package.json");
+        DescriptorChangeDispatcher.getInstance(getProject()).register(packageJson.getPath(), scanManager);
+
+        // The changes found by a single refresh are dispatched in a single batch, and trigger a single scan
+        Files.write(projectDir.resolve(NpmLockfileTreeBuilder.PACKAGE_LOCK_JSON), "{\"version\": 1}".getBytes(StandardCharsets.UTF_8));
+        Files.write(projectDir.resolve("package.json"), "{\"version\": 1}".getBytes(StandardCharsets.UTF_8));
+        VfsUtil.markDirtyAndRefresh(false, false, false, lockfile, packageJson);
+        assertEquals(1, scansCount.get());
+    }
+
+    public void testDisposedScanManager() throws IOException {
+        scanManager.dispose();
+        modify(NpmLockfileTreeBuilder.PACKAGE_LOCK_JSON);
+        assertEquals(0, scansCount.get());
+    }
+
+    public void testBurstOfEventsThroughStateMachine() throws Exception {
+        Registry.get(SCAN_DEBOUNCE_KEY).setValue(String.valueOf(DEBOUNCE_MILLIS));
+        Registry.get(RESCAN_IDLE_KEY).setValue("0");
+        AtomicInteger launchedScans = new AtomicInteger();
+        // Count the scans launched by the state machine. Each scan runs until the test finishes it.
+        NpmScanManager stateMachineScanManager = new NpmScanManager(getProject(), projectDir.toString()) {
+            @Override
+            void launchScan() {
+                launchedScans.incrementAndGet();
+            }
+        };
+        try {
+            // A burst of VFS events within the debounce window launches a single scan
+            modifyBurst();
+            waitFor(() -> launchedScans.get() == 1);
+            assertEquals(ScanStateMachine.State.RUNNING, stateMachineScanManager.getScanState());
+
+            // A burst of VFS events during the running scan is coalesced into a single pending scan
+            modifyBurst();
+            Thread.sleep(2 * DEBOUNCE_MILLIS);
+            assertEquals(1, launchedScans.get());
+            assertEquals(ScanStateMachine.State.RUNNING_WITH_PENDING_RESCAN, stateMachineScanManager.getScanState());
+
+            // The pending scan runs once after the running scan ends
+            stateMachineScanManager.finishScan();
+            waitFor(() -> launchedScans.get() == 2);
+            Thread.sleep(2 * DEBOUNCE_MILLIS);
+            assertEquals(2, launchedScans.get());
+            assertEquals(ScanStateMachine.State.RUNNING, stateMachineScanManager.getScanState());
+            stateMachineScanManager.finishScan();
+            assertEquals(ScanStateMachine.State.IDLE, stateMachineScanManager.getScanState());
+        } finally {
+            stateMachineScanManager.dispose();
+            Registry.get(SCAN_DEBOUNCE_KEY).resetToDefault();
+            Registry.get(RESCAN_IDLE_KEY).resetToDefault();
+        }
+    }
+
+    private void modifyBurst() throws IOException {
+        for (int i = 0; i < BURST_SIZE; i++) {
+            modify(NpmLockfileTreeBuilder.PACKAGE_LOCK_JSON);
+        }
+    }
+
+    private void modify(String fileName) throws IOException {
+        VirtualFile file = findFile(fileName);
+        byte[] content = ("{\"modified\": " + System.nanoTime() + "}").getBytes(StandardCharsets.UTF_8);
+        WriteAction.runAndWait(() -> file.setBinaryContent(content));
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            assertTrue("Timed out waiting for the scan", System.nanoTime() < deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    private VirtualFile findFile(String fileName) {
+        VirtualFile file = LocalFileSystem.getInstance().refreshAndFindFileByIoFile(projectDir.resolve(fileName).toFile());
+        assertNotNull(file);
+        return file;
+    }
+}
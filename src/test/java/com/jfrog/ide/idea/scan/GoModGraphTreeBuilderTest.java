@@ -0,0 +1,72 @@
+package com.jfrog.ide.idea.scan;
+
+import junit.framework.TestCase;
+import org.jfrog.build.extractor.scan.DependencyTree;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * @author yahavi
+ */
+public class GoModGraphTreeBuilderTest extends TestCase {
+    private static final Path MODULE_DIR = Paths.get("/repo/module").toAbsolutePath();
+    private static final String BUILD_LIST = String.join("\n",
+            "github.com/jfrog/module",
+            "github.com/jfrog/a v1.1.0",
+            "github.com/jfrog/b v1.2.0 => ../b",
+            "github.com/jfrog/c v2.0.0 => github.com/fork/c v2.0.1",
+            "github.com/jfrog/d v1.0.0");
+
+    public void testParseBuildList() throws IOException {
+        Map<String, String> buildList = GoModGraphTreeBuilder.parseBuildList(reader(BUILD_LIST));
+        assertEquals("", buildList.get("github.com/jfrog/module"));
+        assertEquals("v1.1.0", buildList.get("github.com/jfrog/a"));
+        assertEquals("v1.2.0", buildList.get("github.com/jfrog/b"));
+        assertEquals("v2.0.0", buildList.get("github.com/jfrog/c"));
+        assertEquals(5, buildList.size());
+    }
+
+    public void testCreateTree() throws IOException {
+        Map<String, String> buildList = GoModGraphTreeBuilder.parseBuildList(reader(BUILD_LIST));
+        Map<String, List<String>> graph = GoModGraphTreeBuilder.parseModGraph(reader(String.join("\n",
+                "github.com/jfrog/module github.com/jfrog/a@v1.1.0",
+                "github.com/jfrog/module github.com/jfrog/b@v1.2.0",
+                "github.com/jfrog/module go@1.21",
+                "github.com/jfrog/a@v1.1.0 github.com/jfrog/c@v2.0.0",
+                "github.com/jfrog/a@v1.1.0 github.com/jfrog/d@v0.9.0",
+                "github.com/jfrog/a@v1.0.0 github.com/jfrog/d@v1.0.0",
+                "github.com/jfrog/b@v1.2.0 github.com/jfrog/a@v1.1.0",
+                "github.com/jfrog/b@v1.2.0 github.com/jfrog/d@v1.0.0",
+                "github.com/jfrog/c@v2.0.0 github.com/jfrog/a@v1.1.0")), buildList);
+
+        DependencyTree root = GoModGraphTreeBuilder.createTree("github.com/jfrog/module", graph, MODULE_DIR);
+        assertEquals("github.com/jfrog/module", root.toString());
+        assertEquals("go", root.getGeneralInfo().getPkgType());
+        assertEquals(MODULE_DIR.toString(), root.getGeneralInfo().getPath());
+        // Requirements of unselected versions are skipped. Each module is expanded in its shallowest occurrence.
+        assertEquals("github.com/jfrog/a:v1.1.0(github.com/jfrog/c:v2.0.0(github.com/jfrog/a:v1.1.0)),"
+                + "github.com/jfrog/b:v1.2.0(github.com/jfrog/a:v1.1.0,github.com/jfrog/d:v1.0.0)", toString(root));
+    }
+
+    public void testNoDependencies() {
+        DependencyTree root = GoModGraphTreeBuilder.createTree("github.com/jfrog/module", Map.of(), MODULE_DIR);
+        assertTrue(root.isLeaf());
+    }
+
+    private static BufferedReader reader(String output) {
+        return new BufferedReader(new StringReader(output));
+    }
+
+    private static String toString(DependencyTree node) {
+        return node.getChildren().stream()
+                .map(child -> child.isLeaf() ? child.toString() : child + "(" + toString(child) + ")")
+                .collect(Collectors.joining(","));
+    }
+}
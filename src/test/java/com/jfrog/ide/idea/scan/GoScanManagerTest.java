@@ -0,0 +1,55 @@
+package com.jfrog.ide.idea.scan;
+
+import junit.framework.TestCase;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * @author yahavi
+ */
+public class GoScanManagerTest extends TestCase {
+    private static final Path MODULE_DIR = Paths.get("/repo/module").toAbsolutePath();
+
+    public void testReplaceDirectives() {
+        List<String> goMod = Arrays.asList(
+                "module github.com/jfrog/module",
+                "",
+                "require github.com/jfrog/a v1.0.0",
+                "",
+                "replace github.com/jfrog/a => ../a",
+                "replace github.com/jfrog/b v1.2.0 => ./b // Local fork",
+                "replace github.com/jfrog/c => github.com/fork/c v1.3.0");
+        assertEquals(Arrays.asList(MODULE_DIR.resolve("../a").normalize(), MODULE_DIR.resolve("b")),
+                GoScanManager.getLocalReplaceDirs(MODULE_DIR, goMod));
+    }
+
+    public void testReplaceBlock() {
+        List<String> goMod = Arrays.asList(
+                "module github.com/jfrog/module",
+                "replace (",
+                "    github.com/jfrog/a => ../a",
+                "    // github.com/jfrog/b => ../b",
+                "    github.com/jfrog/c v1.0.0 => github.com/fork/c v1.3.0",
+                ")",
+                "require (",
+                "    github.com/jfrog/d v1.0.0",
+                ")");
+        assertEquals(Collections.singletonList(MODULE_DIR.resolve("../a").normalize()),
+                GoScanManager.getLocalReplaceDirs(MODULE_DIR, goMod));
+    }
+
+    public void testAbsoluteReplaceDir() {
+        Path replaceDir = Paths.get("/forks/a").toAbsolutePath();
+        List<String> goMod = Collections.singletonList("replace github.com/jfrog/a => " + replaceDir);
+        assertEquals(Collections.singletonList(replaceDir), GoScanManager.getLocalReplaceDirs(MODULE_DIR, goMod));
+    }
+
+    public void testNoReplaceDirectives() {
+        List<String> goMod = Arrays.asList("module github.com/jfrog/module", "require github.com/jfrog/a v1.0.0");
+        assertTrue(GoScanManager.getLocalReplaceDirs(MODULE_DIR, goMod).isEmpty());
+    }
+}
@@ -0,0 +1,77 @@
+package com.jfrog.ide.idea.scan;
+
+import com.google.common.collect.Sets;
+import com.intellij.openapi.util.io.FileUtil;
+import junit.framework.TestCase;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * @author yahavi
+ */
+public class GradleBuildRootsTest extends TestCase {
+
+    private Path tempDir;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        tempDir = Files.createTempDirectory("gradle-build-roots");
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        FileUtil.delete(tempDir.toFile());
+        super.tearDown();
+    }
+
+    public void testMultiProjectBuild() throws IOException {
+        Path root = createBuildScript("multi", "settings.gradle");
+        Path api = createBuildScript("multi/api", "build.gradle");
+        Path impl = createBuildScript("multi/services/impl", "build.gradle.kts");
+
+        Set<String> rootDirs = GradleBuildRoots.getRootDirs(Sets.newHashSet(root.toString(), api.toString(), impl.toString()),
+                Collections.singleton(tempDir));
+        assertEquals(Sets.newHashSet(root.toString()), rootDirs);
+    }
+
+    public void testKotlinSettings() throws IOException {
+        Path root = createBuildScript("kotlin", "settings.gradle.kts");
+        Path app = createBuildScript("kotlin/app", "build.gradle.kts");
+
+        Set<String> rootDirs = GradleBuildRoots.getRootDirs(Collections.singleton(app.toString()), Collections.singleton(tempDir));
+        assertEquals(Sets.newHashSet(root.toString()), rootDirs);
+    }
+
+    public void testSeparateBuilds() throws IOException {
+        Path single = createBuildScript("single", "build.gradle");
+        Path multi = createBuildScript("multi", "settings.gradle");
+        Path sub = createBuildScript("multi/sub", "build.gradle");
+        // An included build has its own settings file
+        Path included = createBuildScript("multi/included", "settings.gradle");
+        Path includedSub = createBuildScript("multi/included/sub", "build.gradle");
+
+        Set<String> rootDirs = GradleBuildRoots.getRootDirs(Sets.newHashSet(single.toString(), sub.toString(), includedSub.toString()),
+                Collections.singleton(tempDir));
+        assertEquals(Sets.newHashSet(single.toString(), multi.toString(), included.toString()), rootDirs);
+    }
+
+    public void testSettingsOutsideSearchPaths() throws IOException {
+        createBuildScript("outer", "settings.gradle");
+        Path project = createBuildScript("outer/project", "build.gradle");
+
+        // The settings file above the project directory is ignored
+        Set<String> rootDirs = GradleBuildRoots.getRootDirs(Collections.singleton(project.toString()), Collections.singleton(project));
+        assertEquals(Sets.newHashSet(project.toString()), rootDirs);
+    }
+
+    private Path createBuildScript(String dir, String fileName) throws IOException {
+        Path projectDir = Files.createDirectories(tempDir.resolve(dir));
+        Files.write(projectDir.resolve(fileName), new byte[0]);
+        return projectDir;
+    }
+}
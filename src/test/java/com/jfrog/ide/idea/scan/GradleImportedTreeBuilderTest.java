@@ -0,0 +1,180 @@
+package com.jfrog.ide.idea.scan;
+
+import com.google.common.collect.Sets;
+import com.intellij.openapi.util.io.FileUtil;
+import junit.framework.TestCase;
+import org.jetbrains.plugins.gradle.model.ExternalDependency;
+import org.jetbrains.plugins.gradle.model.ExternalLibraryDependency;
+import org.jetbrains.plugins.gradle.model.ExternalProject;
+import org.jetbrains.plugins.gradle.model.ExternalSourceSet;
+import org.jetbrains.plugins.gradle.model.UnresolvedExternalDependency;
+import org.jfrog.build.extractor.scan.DependencyTree;
+import org.jfrog.build.extractor.scan.Scope;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Test building the dependency tree from a mocked imported Gradle model.
+ *
+ * @author yahavi
+ */
+public class GradleImportedTreeBuilderTest extends TestCase {
+    private static final long LAST_IMPORT = 1_600_000_000_000L;
+
+    private Path projectDir;
+    private Path buildScript;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        projectDir = Files.createTempDirectory("gradle-imported-tree");
+        buildScript = Files.write(projectDir.resolve("build.gradle"), "apply plugin: 'java'".getBytes());
+        Files.setLastModifiedTime(buildScript, FileTime.fromMillis(LAST_IMPORT - 1000));
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        FileUtil.delete(projectDir.toFile());
+        super.tearDown();
+    }
+
+    public void testSingleModule() throws IOException {
+        ExternalDependency leaf = createDependency("leaf", "compileClasspath");
+        ExternalDependency first = createDependency("first", "compileClasspath", createDependency("shared", "compileClasspath", leaf));
+        ExternalDependency second = createDependency("second", "testCompileClasspath", createDependency("shared", "testCompileClasspath", leaf));
+        ExternalProject module = createProject("module", projectDir, createSourceSet(first),
+                createSourceSet(second, createDependency("first", "testCompileClasspath")));
+
+        DependencyTree root = buildTree(module);
+        assertNotNull(root);
+        assertEquals("module", root.toString());
+        assertEquals("org.jfrog", root.getGeneralInfo().getGroupId());
+        assertEquals(2, root.getChildCount());
+
+        DependencyTree firstNode = (DependencyTree) root.getChildAt(0);
+        assertEquals("org.jfrog:first:1.0.0", firstNode.toString());
+        assertEquals(Sets.newHashSet("compileclasspath", "testcompileclasspath"),
+                firstNode.getScopes().stream().map(Scope::getName).collect(Collectors.toSet()));
+
+        // The transitive dependencies of a component are added under its first occurrence only
+        DependencyTree firstShared = (DependencyTree) firstNode.getChildAt(0);
+        assertEquals("org.jfrog:shared:1.0.0", firstShared.toString());
+        assertEquals(1, firstShared.getChildCount());
+        assertEquals("org.jfrog:leaf:1.0.0", firstShared.getChildAt(0).toString());
+        DependencyTree secondShared = (DependencyTree) root.getChildAt(1).getChildAt(0);
+        assertEquals("org.jfrog:shared:1.0.0", secondShared.toString());
+        assertTrue(secondShared.isLeaf());
+    }
+
+    public void testCircularDependencies() throws IOException {
+        ExternalDependency first = createDependency("first", "compileClasspath");
+        ExternalDependency second = createDependency("second", "compileClasspath", first);
+        doReturn(Collections.singletonList(second)).when(first).getDependencies();
+        ExternalProject module = createProject("module", projectDir, createSourceSet(first));
+
+        DependencyTree root = buildTree(module);
+        assertNotNull(root);
+        DependencyTree firstNode = (DependencyTree) root.getChildAt(0);
+        DependencyTree secondNode = (DependencyTree) firstNode.getChildAt(0);
+        assertEquals("org.jfrog:second:1.0.0", secondNode.toString());
+        assertTrue(secondNode.isLeaf());
+    }
+
+    public void testStaleImport() throws IOException {
+        ExternalProject module = createProject("module", projectDir, createSourceSet(createDependency("first", "compileClasspath")));
+        assertNotNull(buildTree(module));
+
+        // The build script changed after the last import
+        Files.setLastModifiedTime(buildScript, FileTime.fromMillis(LAST_IMPORT + 1000));
+        assertNull(buildTree(module));
+
+        // The project was never imported
+        Files.setLastModifiedTime(buildScript, FileTime.fromMillis(LAST_IMPORT - 1000));
+        assertNull(new GradleImportedTreeBuilder(null, projectDir, node -> {
+        }).buildTree(module, 0, Collections.singletonList(buildScript)));
+    }
+
+    public void testUnresolvedModule() throws IOException {
+        ExternalProject module = createProject("module", projectDir, createSourceSet(mock(UnresolvedExternalDependency.class)));
+        assertNull(buildTree(module));
+    }
+
+    public void testMissingModule() throws IOException {
+        ExternalProject module = createProject("module", projectDir.resolve("other"), createSourceSet(createDependency("first", "compileClasspath")));
+        assertNull(buildTree(module));
+    }
+
+    public void testMultiModuleRoot() throws IOException {
+        ExternalProject resolved = createProject("resolved", projectDir.resolve("resolved"), createSourceSet(createDependency("first", "compileClasspath")));
+        ExternalProject unresolved = createProject("unresolved", projectDir.resolve("unresolved"), createSourceSet(mock(UnresolvedExternalDependency.class)));
+        ExternalProject rootProject = createProject("root", projectDir);
+        Map<String, ExternalProject> childProjects = new LinkedHashMap<>();
+        childProjects.put("resolved", resolved);
+        childProjects.put("unresolved", unresolved);
+        doReturn(childProjects).when(rootProject).getChildProjects();
+
+        DependencyTree root = buildTree(rootProject);
+        assertNotNull(root);
+        assertEquals(projectDir.getFileName().toString(), root.toString());
+        assertEquals("gradle", root.getGeneralInfo().getPkgType());
+        assertEquals(3, root.getChildCount());
+        assertEquals("root", root.getChildAt(0).toString());
+        assertTrue(root.getChildAt(0).isLeaf());
+        assertEquals("resolved", root.getChildAt(1).toString());
+        assertEquals("org.jfrog:first:1.0.0", root.getChildAt(1).getChildAt(0).toString());
+        assertEquals("unresolved", root.getChildAt(2).toString());
+        assertTrue(root.getChildAt(2).isLeaf());
+
+        // A subproject is built alone
+        DependencyTree module = new GradleImportedTreeBuilder(null, projectDir.resolve("resolved"), node -> {
+        }).buildTree(rootProject, LAST_IMPORT, Collections.singletonList(buildScript));
+        assertNotNull(module);
+        assertEquals("resolved", module.toString());
+        assertEquals(1, module.getChildCount());
+    }
+
+    private DependencyTree buildTree(ExternalProject rootProject) throws IOException {
+        return new GradleImportedTreeBuilder(null, projectDir, node -> {
+        }).buildTree(rootProject, LAST_IMPORT, Collections.singletonList(buildScript));
+    }
+
+    private static ExternalProject createProject(String name, Path dir, ExternalSourceSet... sourceSets) {
+        ExternalProject project = mock(ExternalProject.class);
+        when(project.getName()).thenReturn(name);
+        when(project.getGroup()).thenReturn("org.jfrog");
+        when(project.getVersion()).thenReturn("1.0.0");
+        when(project.getProjectDir()).thenReturn(dir.toFile());
+        Map<String, ExternalSourceSet> sourceSetsMap = new LinkedHashMap<>();
+        for (int i = 0; i < sourceSets.length; i++) {
+            sourceSetsMap.put("sourceSet" + i, sourceSets[i]);
+        }
+        doReturn(sourceSetsMap).when(project).getSourceSets();
+        doReturn(Collections.emptyMap()).when(project).getChildProjects();
+        return project;
+    }
+
+    private static ExternalSourceSet createSourceSet(ExternalDependency... dependencies) {
+        ExternalSourceSet sourceSet = mock(ExternalSourceSet.class);
+        doReturn(Arrays.asList(dependencies)).when(sourceSet).getDependencies();
+        return sourceSet;
+    }
+
+    private static ExternalDependency createDependency(String name, String scope, ExternalDependency... dependencies) {
+        ExternalLibraryDependency dependency = mock(ExternalLibraryDependency.class);
+        when(dependency.getGroup()).thenReturn("org.jfrog");
+        when(dependency.getName()).thenReturn(name);
+        when(dependency.getVersion()).thenReturn("1.0.0");
+        when(dependency.getScope()).thenReturn(scope);
+        doReturn(Arrays.asList(dependencies)).when(dependency).getDependencies();
+        return dependency;
+    }
+}
@@ -0,0 +1,107 @@
+package com.jfrog.ide.idea.scan;
+
+import junit.framework.TestCase;
+import org.jetbrains.idea.maven.model.MavenArtifact;
+import org.jetbrains.idea.maven.model.MavenArtifactNode;
+import org.jfrog.build.extractor.scan.DependencyTree;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Test the Maven dependency graph on synthetic dependency trees.
+ *
+ * @author yahavi
+ */
+public class MavenDependencyGraphTest extends TestCase {
+    private static final int LAYERS = 6;
+    private static final int ARTIFACTS_PER_LAYER = 5;
+
+    /**
+     * Each artifact depends on all artifacts of the next layer, so the number of paths grows exponentially with the
+     * number of layers, while the number of edges grows linearly.
+     */
+    public void testDiamonds() {
+        List<List<MavenArtifactNode>> layers = new ArrayList<>();
+        for (int layer = LAYERS - 1; layer >= 0; layer--) {
+            List<MavenArtifactNode> nextLayer = layers.isEmpty() ? Collections.emptyList() : layers.get(0);
+            List<MavenArtifactNode> currentLayer = new ArrayList<>();
+            for (int i = 0; i < ARTIFACTS_PER_LAYER; i++) {
+                currentLayer.add(createArtifactNode("artifact-" + layer + "-" + i, "compile", nextLayer));
+            }
+            layers.add(0, currentLayer);
+        }
+
+        DependencyTree root = createTree(layers.get(0));
+        int edges = (LAYERS - 1) * ARTIFACTS_PER_LAYER * ARTIFACTS_PER_LAYER;
+        assertEquals(ARTIFACTS_PER_LAYER, root.getChildCount());
+        assertEquals(ARTIFACTS_PER_LAYER + edges, countDescendants(root));
+
+        // Each artifact is expanded once, and its other occurrences are leaves
+        DependencyTree first = (DependencyTree) root.getChildAt(0);
+        DependencyTree second = (DependencyTree) root.getChildAt(1);
+        assertEquals(ARTIFACTS_PER_LAYER, first.getChildCount());
+        assertEquals(ARTIFACTS_PER_LAYER, ((DependencyTree) first.getChildAt(0)).getChildCount());
+        assertEquals(ARTIFACTS_PER_LAYER, second.getChildCount());
+        assertTrue(((DependencyTree) second.getChildAt(0)).isLeaf());
+    }
+
+    public void testScopes() {
+        MavenArtifactNode leaf = createArtifactNode("leaf", "compile", Collections.emptyList());
+        MavenArtifactNode compileShared = createArtifactNode("shared", "compile", Collections.singletonList(leaf));
+        MavenArtifactNode testShared = createArtifactNode("shared", "test", Collections.singletonList(leaf));
+        MavenArtifactNode compileDirect = createArtifactNode("compile-direct", "compile", Collections.singletonList(compileShared));
+        MavenArtifactNode testDirect = createArtifactNode("test-direct", "test", Collections.singletonList(testShared));
+
+        // The shared artifact is expanded once in each scope
+        DependencyTree root = createTree(Arrays.asList(compileDirect, testDirect));
+        assertEquals(6, countDescendants(root));
+        assertEquals(1, root.getChildAt(0).getChildAt(0).getChildCount());
+        assertEquals(1, root.getChildAt(1).getChildAt(0).getChildCount());
+    }
+
+    public void testCycle() {
+        List<MavenArtifactNode> dependencies = new ArrayList<>();
+        MavenArtifactNode first = createArtifactNode("first", "compile", dependencies);
+        MavenArtifactNode second = createArtifactNode("second", "compile", Collections.singletonList(first));
+        dependencies.add(second);
+
+        DependencyTree root = createTree(Collections.singletonList(first));
+        // first -> second, without the cycle back to first
+        assertEquals(2, countDescendants(root));
+    }
+
+    private static DependencyTree createTree(List<MavenArtifactNode> directDependencies) {
+        MavenDependencyGraph dependencyGraph = new MavenDependencyGraph(node -> {
+        });
+        AncestorsSet ancestors = AncestorsSet.of(new HashSet<>());
+        DependencyTree root = new DependencyTree();
+        for (MavenArtifactNode dependency : directDependencies) {
+            if (ancestors.add(dependency.getArtifact().getDisplayStringForLibraryName())) {
+                root.add(dependencyGraph.createTree(dependencyGraph.add(dependency), dependency.getArtifact().getScope(), ancestors));
+            }
+        }
+        return root;
+    }
+
+    private static MavenArtifactNode createArtifactNode(String artifactId, String scope, List<MavenArtifactNode> dependencies) {
+        MavenArtifact artifact = mock(MavenArtifact.class);
+        when(artifact.getDisplayStringForLibraryName()).thenReturn("org.jfrog:" + artifactId + ":jar:1.0.0");
+        when(artifact.getDisplayStringSimple()).thenReturn("org.jfrog:" + artifactId + ":1.0.0");
+        when(artifact.getScope()).thenReturn(scope);
+        MavenArtifactNode artifactNode = mock(MavenArtifactNode.class);
+        when(artifactNode.getArtifact()).thenReturn(artifact);
+        when(artifactNode.getDependencies()).thenReturn(dependencies);
+        return artifactNode;
+    }
+
+    private static int countDescendants(DependencyTree root) {
+        return Collections.list(root.depthFirstEnumeration()).size() - 1;
+    }
+}
@@ -0,0 +1,60 @@
+package com.jfrog.ide.idea.scan;
+
+import com.intellij.openapi.vfs.VirtualFile;
+import junit.framework.TestCase;
+import org.jetbrains.idea.maven.project.MavenProject;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.Mockito.*;
+
+/**
+ * Test the Maven modules index on a synthetic reactor.
+ *
+ * @author yahavi
+ */
+public class MavenModulesIndexTest extends TestCase {
+    private static final int MODULES_COUNT = 1500;
+
+    private final List<MavenProject> modules = new ArrayList<>();
+    private final List<VirtualFile> pomFiles = new ArrayList<>();
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        for (int i = 0; i < MODULES_COUNT; i++) {
+            VirtualFile pomFile = mock(VirtualFile.class);
+            when(pomFile.getCanonicalPath()).thenReturn("/reactor/module-" + i + "/pom.xml");
+            MavenProject module = mock(MavenProject.class);
+            when(module.getFile()).thenReturn(pomFile);
+            modules.add(module);
+            pomFiles.add(pomFile);
+        }
+    }
+
+    public void testLookupAllModules() {
+        Map<String, MavenProject> modulesIndex = MavenScanManager.createModulesIndex(modules);
+        for (int i = 0; i < MODULES_COUNT; i++) {
+            assertSame(modules.get(i), modulesIndex.get("/reactor/module-" + i + "/pom.xml"));
+        }
+
+        // Each pom path is canonicalized exactly once, regardless of the number of lookups
+        pomFiles.forEach(pomFile -> verify(pomFile, times(1)).getCanonicalPath());
+        assertNull(modulesIndex.get("/reactor/missing/pom.xml"));
+    }
+
+    public void testDuplicatePath() {
+        VirtualFile pomFile = mock(VirtualFile.class);
+        when(pomFile.getCanonicalPath()).thenReturn("/reactor/module-0/pom.xml");
+        MavenProject duplicate = mock(MavenProject.class);
+        when(duplicate.getFile()).thenReturn(pomFile);
+        modules.add(duplicate);
+
+        // The first module wins, like the linear lookup
+        Map<String, MavenProject> modulesIndex = MavenScanManager.createModulesIndex(modules);
+        assertSame(modules.get(0), modulesIndex.get("/reactor/module-0/pom.xml"));
+        assertEquals(MODULES_COUNT, modulesIndex.size());
+    }
+}
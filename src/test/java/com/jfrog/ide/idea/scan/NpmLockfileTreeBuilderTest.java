@@ -0,0 +1,143 @@
+package com.jfrog.ide.idea.scan;
+
+import com.google.common.collect.Sets;
+import com.intellij.openapi.util.io.FileUtil;
+import junit.framework.TestCase;
+import org.jfrog.build.api.util.NullLog;
+import org.jfrog.build.extractor.scan.DependencyTree;
+import org.jfrog.build.extractor.scan.GeneralInfo;
+import org.jfrog.build.extractor.scan.Scope;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.stream.Collectors;
+
+/**
+ * @author yahavi
+ */
+public class NpmLockfileTreeBuilderTest extends TestCase {
+    private static final Path NPM_RESOURCES = Paths.get("src", "test", "resources", "npm");
+    private static final String EXPECTED_TREE = "a:1.0.0(b:2.0.0,c:1.0.0(b:2.0.0)),d:1.0.0(@scope/e:3.0.0,a:1.0.0,c:2.0.0)";
+
+    public void testLockfileV1() throws IOException {
+        checkTree(NPM_RESOURCES.resolve("lockfile-v1"));
+    }
+
+    public void testLockfileV2() throws IOException {
+        checkTree(NPM_RESOURCES.resolve("lockfile-v2"));
+    }
+
+    public void testLockfileV3() throws IOException {
+        checkTree(NPM_RESOURCES.resolve("lockfile-v3"));
+    }
+
+    public void testNoLockfile() throws IOException {
+        Path projectDir = Files.createTempDirectory("npm-no-lockfile");
+        try {
+            assertFalse(new NpmLockfileTreeBuilder(projectDir).isApplicable());
+        } finally {
+            FileUtil.delete(projectDir.toFile());
+        }
+    }
+
+    public void testCycle() throws IOException {
+        Path projectDir = Files.createTempDirectory("npm-cycle");
+        try {
+            Files.write(projectDir.resolve(NpmLockfileTreeBuilder.PACKAGE_LOCK_JSON), ("{\"lockfileVersion\": 3, \"packages\": {" +
+                    "\"\": {\"name\": \"cycle\", \"dependencies\": {\"a\": \"*\"}}," +
+                    "\"node_modules/a\": {\"version\": \"1.0.0\", \"dependencies\": {\"b\": \"*\"}}," +
+                    "\"node_modules/b\": {\"version\": \"1.0.0\", \"dependencies\": {\"a\": \"*\", \"missing\": \"*\"}}}}").getBytes());
+            DependencyTree root = new NpmLockfileTreeBuilder(projectDir).buildTree(new NullLog());
+            assertEquals("a:1.0.0(b:1.0.0(a:1.0.0))", toString(root));
+        } finally {
+            FileUtil.delete(projectDir.toFile());
+        }
+    }
+
+    /**
+     * Build the tree of a generated lockfile with 50,000 packages.
+     */
+    public void testLargeLockfile() throws IOException {
+        int packagesCount = 50_000;
+        int directDependencies = 1_000;
+        Path projectDir = Files.createTempDirectory("npm-large-lockfile");
+        try {
+            writeLargeLockfile(projectDir, packagesCount, directDependencies);
+            DependencyTree root = new NpmLockfileTreeBuilder(projectDir).buildTree(new NullLog());
+
+            assertEquals(directDependencies, root.getChildCount());
+            // Each package is expanded once
+            assertEquals(packagesCount * 3 + directDependencies, countDescendants(root));
+        } finally {
+            FileUtil.delete(projectDir.toFile());
+        }
+    }
+
+    /**
+     * Write a lockfile of packages with 3 dependencies each.
+     *
+     * @param projectDir         - The project directory
+     * @param packagesCount      - The number of packages
+     * @param directDependencies - The number of direct dependencies of the project
+     */
+    static void writeLargeLockfile(Path projectDir, int packagesCount, int directDependencies) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(projectDir.resolve(NpmLockfileTreeBuilder.PACKAGE_LOCK_JSON))) {
+            writer.write("{\"name\": \"large\", \"version\": \"1.0.0\", \"lockfileVersion\": 2, \"requires\": true, \"packages\": {");
+            writer.write("\"\": {\"name\": \"large\", \"version\": \"1.0.0\", \"dependencies\": {");
+            for (int i = 0; i < directDependencies; i++) {
+                writer.write((i > 0 ? "," : "") + "\"package-" + i + "\": \"^1.0.0\"");
+            }
+            writer.write("}}");
+            for (int i = 0; i < packagesCount; i++) {
+                writer.write(",\"node_modules/package-" + i + "\": {\"version\": \"1.0." + i + "\", " +
+                        "\"resolved\": \"https://registry.npmjs.org/package-" + i + "/-/package-" + i + "-1.0." + i + ".tgz\", " +
+                        "\"integrity\": \"sha512-" + i + "\", \"dependencies\": {");
+                for (int j = 1; j <= 3; j++) {
+                    writer.write((j > 1 ? "," : "") + "\"package-" + (i * 3 + j) % packagesCount + "\": \"^1.0.0\"");
+                }
+                writer.write("}}");
+            }
+            writer.write("}}");
+        }
+    }
+
+    private void checkTree(Path projectDir) throws IOException {
+        NpmLockfileTreeBuilder treeBuilder = new NpmLockfileTreeBuilder(projectDir);
+        assertTrue(treeBuilder.isApplicable());
+        DependencyTree root = treeBuilder.buildTree(new NullLog());
+
+        assertEquals("npm-lockfile-test", root.getUserObject());
+        GeneralInfo generalInfo = root.getGeneralInfo();
+        assertEquals("npm", generalInfo.getPkgType());
+        assertEquals("npm-lockfile-test", generalInfo.getArtifactId());
+        assertEquals("1.0.0", generalInfo.getVersion());
+        assertEquals(projectDir.toString(), generalInfo.getPath());
+        assertEquals(EXPECTED_TREE, toString(root));
+
+        // Transitive dependencies inherit the scope of the direct dependency
+        DependencyTree a = root.getChildren().get(0);
+        DependencyTree d = root.getChildren().get(1);
+        assertEquals(Sets.newHashSet(new Scope("production")), a.getChildren().get(1).getChildren().get(0).getScopes());
+        assertEquals(Sets.newHashSet(new Scope("development")), d.getChildren().get(0).getScopes());
+    }
+
+    static int countDescendants(DependencyTree node) {
+        int count = node.getChildCount();
+        for (DependencyTree child : node.getChildren()) {
+            count += countDescendants(child);
+        }
+        return count;
+    }
+
+    /**
+     * @return the children of the node in the format "a(b,c(d))"
+     */
+    private static String toString(DependencyTree node) {
+        return node.getChildren().stream()
+                .map(child -> child.isLeaf() ? child.toString() : child + "(" + toString(child) + ")")
+                .collect(Collectors.joining(","));
+    }
+}
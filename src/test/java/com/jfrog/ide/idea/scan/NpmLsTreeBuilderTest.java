@@ -0,0 +1,75 @@
+package com.jfrog.ide.idea.scan;
+
+import com.google.common.collect.Sets;
+import junit.framework.TestCase;
+import org.jfrog.build.extractor.scan.DependencyTree;
+import org.jfrog.build.extractor.scan.GeneralInfo;
+import org.jfrog.build.extractor.scan.Scope;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * @author yahavi
+ */
+public class NpmLsTreeBuilderTest extends TestCase {
+    private static final Path PROJECT_DIR = Paths.get("/repo/npm-ls-test").toAbsolutePath();
+
+    public void testParse() throws IOException {
+        String output = "{\"version\": \"1.0.0\", \"name\": \"npm-ls-test\", \"problems\": [\"missing: f@^1.0.0\"], \"dependencies\": {" +
+                "\"a\": {\"version\": \"1.0.0\", \"resolved\": \"https://registry.npmjs.org/a/-/a-1.0.0.tgz\", \"dependencies\": {" +
+                "  \"b\": {\"version\": \"2.0.0\"}," +
+                "  \"c\": {\"version\": \"1.0.0\", \"dependencies\": {\"b\": {\"version\": \"2.0.0\"}}}}}," +
+                "\"d\": {\"version\": \"1.0.0\", \"dependencies\": {\"@scope/e\": {\"version\": \"3.0.0\"}}}," +
+                "\"f\": {\"required\": \"^1.0.0\", \"missing\": true}}}";
+        DependencyTree root = parse(output, Collections.singleton("d"));
+
+        assertEquals("npm-ls-test", root.getUserObject());
+        GeneralInfo generalInfo = root.getGeneralInfo();
+        assertEquals("npm", generalInfo.getPkgType());
+        assertEquals("npm-ls-test", generalInfo.getArtifactId());
+        assertEquals("1.0.0", generalInfo.getVersion());
+        assertEquals(PROJECT_DIR.toString(), generalInfo.getPath());
+        // Missing packages are skipped
+        assertEquals("a:1.0.0(b:2.0.0,c:1.0.0(b:2.0.0)),d:1.0.0(@scope/e:3.0.0)", toString(root));
+
+        // Transitive dependencies inherit the scope of the direct dependency
+        DependencyTree a = (DependencyTree) root.getChildAt(0);
+        assertEquals(Sets.newHashSet("production"), getScopes(a));
+        assertEquals(Sets.newHashSet("production"), getScopes((DependencyTree) a.getChildAt(1).getChildAt(0)));
+        DependencyTree d = (DependencyTree) root.getChildAt(1);
+        assertEquals(Sets.newHashSet("development"), getScopes(d));
+        assertEquals(Sets.newHashSet("development"), getScopes((DependencyTree) d.getChildAt(0)));
+    }
+
+    public void testNoName() throws IOException {
+        DependencyTree root = parse("{}", Collections.emptySet());
+        assertEquals("npm-ls-test", root.getUserObject());
+        assertEquals("N/A", root.getGeneralInfo().getVersion());
+        assertTrue(root.isLeaf());
+    }
+
+    public void testNoOutput() throws IOException {
+        assertNull(parse("", Collections.emptySet()));
+    }
+
+    private static DependencyTree parse(String output, Set<String> devDependencies) throws IOException {
+        return NpmLsTreeBuilder.parse(new ByteArrayInputStream(output.getBytes(StandardCharsets.UTF_8)), devDependencies, PROJECT_DIR);
+    }
+
+    private static Set<String> getScopes(DependencyTree node) {
+        return node.getScopes().stream().map(Scope::getName).collect(Collectors.toSet());
+    }
+
+    private static String toString(DependencyTree node) {
+        return node.getChildren().stream()
+                .map(child -> child.isLeaf() ? child.toString() : child + "(" + toString(child) + ")")
+                .collect(Collectors.joining(","));
+    }
+}
@@ -0,0 +1,112 @@
+package com.jfrog.ide.idea.scan;
+
+import junit.framework.TestCase;
+
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author yahavi
+ */
+public class PriorityLimiterTest extends TestCase {
+    private static final Runnable NOT_CANCELED = () -> {
+    };
+
+    private ExecutorService executor;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        executor = Executors.newCachedThreadPool();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        executor.shutdownNow();
+        super.tearDown();
+    }
+
+    public void testLimit() throws Exception {
+        PriorityLimiter limiter = new PriorityLimiter(3);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        List<Future<?>> operations = new CopyOnWriteArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            operations.add(executor.submit(() -> {
+                limiter.acquire(() -> false, NOT_CANCELED);
+                try {
+                    maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    Thread.sleep(20);
+                    running.decrementAndGet();
+                } finally {
+                    limiter.release();
+                }
+                return null;
+            }));
+        }
+        for (Future<?> operation : operations) {
+            operation.get(10, TimeUnit.SECONDS);
+        }
+        assertTrue(maxRunning.get() <= 3);
+        assertEquals(3, limiter.getAvailablePermits());
+    }
+
+    public void testHighPriorityFirst() throws Exception {
+        PriorityLimiter limiter = new PriorityLimiter(1);
+        limiter.acquire(() -> false, NOT_CANCELED);
+
+        BlockingQueue<String> order = new LinkedBlockingQueue<>();
+        Future<?> background = executor.submit(() -> acquireAndRelease(limiter, false, "background", order));
+        waitForWaiters(limiter, background);
+        Future<?> focused = executor.submit(() -> acquireAndRelease(limiter, true, "focused", order));
+        Thread.sleep(200);
+
+        // The focused project acquires the permit first, although it started waiting last
+        limiter.release();
+        background.get(10, TimeUnit.SECONDS);
+        focused.get(10, TimeUnit.SECONDS);
+        assertEquals("focused", order.poll());
+        assertEquals("background", order.poll());
+    }
+
+    public void testCanceled() throws Exception {
+        PriorityLimiter limiter = new PriorityLimiter(1);
+        limiter.acquire(() -> false, NOT_CANCELED);
+        try {
+            limiter.acquire(() -> true, () -> {
+                throw new CancellationException();
+            });
+            fail("Expected the operation to be canceled");
+        } catch (CancellationException e) {
+            // Expected
+        }
+
+        // The canceled operation doesn't block the next waiters
+        Future<?> next = executor.submit(() -> {
+            limiter.acquire(() -> false, NOT_CANCELED);
+            limiter.release();
+            return null;
+        });
+        limiter.release();
+        next.get(10, TimeUnit.SECONDS);
+        assertEquals(1, limiter.getAvailablePermits());
+    }
+
+    private static Void acquireAndRelease(PriorityLimiter limiter, boolean highPriority, String name, BlockingQueue<String> order) throws InterruptedException {
+        limiter.acquire(() -> highPriority, NOT_CANCELED);
+        try {
+            order.add(name);
+        } finally {
+            limiter.release();
+        }
+        return null;
+    }
+
+    private static void waitForWaiters(PriorityLimiter limiter, Future<?> waiter) throws InterruptedException {
+        // Give the waiter time to start waiting
+        Thread.sleep(200);
+        assertFalse(waiter.isDone());
+        assertEquals(0, limiter.getAvailablePermits());
+    }
+}
@@ -0,0 +1,162 @@
+package com.jfrog.ide.idea.scan;
+
+import com.jetbrains.python.packaging.PyPackage;
+import com.jetbrains.python.packaging.PyRequirement;
+import junit.framework.TestCase;
+import org.jfrog.build.api.util.NullLog;
+import org.jfrog.build.extractor.scan.DependencyTree;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Test the PyPI dependency graph on synthetic requirement graphs.
+ *
+ * @author yahavi
+ */
+public class PypiDependencyGraphTest extends TestCase {
+
+    public void testDiamond() {
+        // a -> b -> d -> e, a -> c -> d
+        PypiDependencyGraph graph = createGraph(
+                createPackage("a", "b", "c"),
+                createPackage("b", "d"),
+                createPackage("c", "D"),
+                createPackage("d", "e"),
+                createPackage("e"));
+        assertEquals(Collections.singletonList("a"), getNames(graph.getRoots()));
+
+        // The shared package is a single node in the graph
+        PypiDependencyGraph.Node a = graph.getRoots().get(0);
+        PypiDependencyGraph.Node b = a.getDependencies().get(0);
+        PypiDependencyGraph.Node c = a.getDependencies().get(1);
+        assertSame(b.getDependencies().get(0), c.getDependencies().get(0));
+
+        // The shared package appears under each parent in the dependency tree, but its requirements only under the first
+        DependencyTree root = populateDependencyTree(graph);
+        assertEquals("a(b(d(e)),c(d))", toString(root));
+    }
+
+    public void testCycle() {
+        // a -> b -> c -> a
+        PypiDependencyGraph graph = createGraph(
+                createPackage("a", "b"),
+                createPackage("b", "c"),
+                createPackage("c", "a"));
+
+        // Packages in an unreachable cycle are added as roots
+        assertEquals(Collections.singletonList("a"), getNames(graph.getRoots()));
+        assertEquals("a(b(c))", toString(populateDependencyTree(graph)));
+    }
+
+    public void testCycleUnderRoot() {
+        // root -> a -> b -> a, a -> a
+        PypiDependencyGraph graph = createGraph(
+                createPackage("root", "a"),
+                createPackage("a", "b", "a"),
+                createPackage("b", "a"));
+        assertEquals(Collections.singletonList("root"), getNames(graph.getRoots()));
+        assertEquals("root(a(b))", toString(populateDependencyTree(graph)));
+    }
+
+    public void testMissingDependency() {
+        PypiDependencyGraph graph = createGraph(
+                createPackage("a", "missing", "b"),
+                createPackage("b"));
+        assertEquals("a(b)", toString(populateDependencyTree(graph)));
+    }
+
+    public void testLargeGraph() {
+        // Each package requires all packages after it. Without memoization, the requirements are resolved 2^n times.
+        int packagesCount = 400;
+        List<PyPackage> packages = new ArrayList<>();
+        for (int i = 0; i < packagesCount; i++) {
+            List<String> requirements = new ArrayList<>();
+            for (int j = i + 1; j < packagesCount && j < i + 3; j++) {
+                requirements.add("package-" + j);
+            }
+            // Close a cycle from the last package to the first one
+            if (i == packagesCount - 1) {
+                requirements.add("package-0");
+            }
+            packages.add(createPackage("package-" + i, requirements.toArray(new String[0])));
+        }
+        PypiDependencyGraph graph = createGraph(packages.toArray(new PyPackage[0]));
+        assertEquals(1, graph.getRoots().size());
+        int edgesCount = 0;
+        Set<PypiDependencyGraph.Node> visited = new HashSet<>();
+        Deque<PypiDependencyGraph.Node> stack = new ArrayDeque<>(graph.getRoots());
+        while (!stack.isEmpty()) {
+            PypiDependencyGraph.Node node = stack.pop();
+            if (visited.add(node)) {
+                edgesCount += node.getDependencies().size();
+                stack.addAll(node.getDependencies());
+            }
+        }
+        assertEquals(packagesCount, visited.size());
+        assertEquals(2 * packagesCount - 2, edgesCount);
+    }
+
+    public void testDiamondLayers() {
+        // Each package requires all packages of the next layer, so the number of paths grows exponentially with the
+        // number of layers, while the number of edges grows linearly
+        int layers = 8;
+        int packagesPerLayer = 5;
+        List<PyPackage> packages = new ArrayList<>();
+        packages.add(createPackage("root", getLayerNames(0, packagesPerLayer)));
+        for (int layer = 0; layer < layers; layer++) {
+            String[] requirements = layer < layers - 1 ? getLayerNames(layer + 1, packagesPerLayer) : new String[0];
+            for (int i = 0; i < packagesPerLayer; i++) {
+                packages.add(createPackage("package-" + layer + "-" + i, requirements));
+            }
+        }
+        PypiDependencyGraph graph = createGraph(packages.toArray(new PyPackage[0]));
+
+        DependencyTree root = populateDependencyTree(graph);
+        int edgesCount = packagesPerLayer + (layers - 1) * packagesPerLayer * packagesPerLayer;
+        assertEquals(1 + edgesCount, Collections.list(root.depthFirstEnumeration()).size() - 1);
+    }
+
+    private static String[] getLayerNames(int layer, int packagesPerLayer) {
+        String[] names = new String[packagesPerLayer];
+        for (int i = 0; i < packagesPerLayer; i++) {
+            names[i] = "package-" + layer + "-" + i;
+        }
+        return names;
+    }
+
+    private static PypiDependencyGraph createGraph(PyPackage... packages) {
+        return new PypiDependencyGraph(Arrays.asList(packages), new NullLog());
+    }
+
+    private static PyPackage createPackage(String name, String... requirements) {
+        List<PyRequirement> pyRequirements = Arrays.stream(requirements).map(requirementName -> {
+            PyRequirement requirement = mock(PyRequirement.class);
+            when(requirement.getName()).thenReturn(requirementName);
+            return requirement;
+        }).collect(Collectors.toList());
+        return new PyPackage(name, "1.0.0", null, pyRequirements);
+    }
+
+    private static DependencyTree populateDependencyTree(PypiDependencyGraph graph) {
+        DependencyTree root = new DependencyTree();
+        graph.populateDependencyTree(root, pyPackage -> new DependencyTree(pyPackage.getName()));
+        return root;
+    }
+
+    private static List<String> getNames(List<PypiDependencyGraph.Node> nodes) {
+        return nodes.stream().map(node -> node.getPackage().getName()).collect(Collectors.toList());
+    }
+
+    /**
+     * @return the children of the node in the format "a(b,c(d))"
+     */
+    private static String toString(DependencyTree node) {
+        return node.getChildren().stream()
+                .map(child -> child.isLeaf() ? child.toString() : child + "(" + toString(child) + ")")
+                .collect(Collectors.joining(","));
+    }
+}
@@ -0,0 +1,60 @@
+package com.jfrog.ide.idea.scan;
+
+import junit.framework.TestCase;
+
+/**
+ * @author yahavi
+ */
+public class PypiEnvironmentMarkersTest extends TestCase {
+    private final PypiEnvironmentMarkers linux = new PypiEnvironmentMarkers(PypiMetadataReaderTest.createEnvironment("3.10.2", "linux"));
+    private final PypiEnvironmentMarkers windows = new PypiEnvironmentMarkers(PypiMetadataReaderTest.createEnvironment("2.7.18", "win32"));
+
+    public void testPythonVersion() {
+        assertTrue(linux.evaluate("python_version >= '3.8'"));
+        // Versions are compared numerically
+        assertTrue(linux.evaluate("python_version > \"3.9\""));
+        assertFalse(linux.evaluate("python_version < '3.8'"));
+        assertTrue(linux.evaluate("python_version == '3.10'"));
+        assertTrue(linux.evaluate("python_version != '3.1'"));
+        assertTrue(linux.evaluate("python_full_version == '3.10.*'"));
+        assertTrue(linux.evaluate("python_full_version ~= '3.10.0'"));
+        assertFalse(linux.evaluate("python_full_version ~= '3.9.0'"));
+        assertTrue(linux.evaluate("'3.6' < python_version"));
+        assertTrue(windows.evaluate("python_version == '2.7'"));
+    }
+
+    public void testPlatform() {
+        assertTrue(linux.evaluate("sys_platform == 'linux'"));
+        assertFalse(linux.evaluate("sys_platform == 'win32'"));
+        assertTrue(windows.evaluate("platform_system == 'Windows'"));
+        assertTrue(windows.evaluate("os_name != 'posix'"));
+        assertTrue(linux.evaluate("'linux' in sys_platform"));
+        assertTrue(linux.evaluate("sys_platform not in 'win32 cygwin'"));
+    }
+
+    public void testBooleanOperators() {
+        assertFalse(linux.evaluate("(sys_platform == \"win32\" and python_version == \"2.7\") and extra == 'socks'"));
+        assertTrue(linux.evaluate("sys_platform == 'win32' or python_version >= '3'"));
+        assertTrue(windows.evaluate("sys_platform == 'win32' and (python_version < '3' or platform_system == 'Linux')"));
+        assertFalse(linux.evaluate("extra == 'test'"));
+        assertTrue(linux.evaluate(""));
+    }
+
+    public void testUnsupportedMarkers() {
+        assertUnsupported("implementation_name == 'cpython'");
+        assertUnsupported("platform_release >= '5.0'");
+        assertUnsupported("sys_platform < 'win32'");
+        assertUnsupported("python_version >= '3.8' and");
+        assertUnsupported("(python_version >= '3.8'");
+        assertUnsupported("python_version >= '3.8' $");
+    }
+
+    private void assertUnsupported(String marker) {
+        try {
+            linux.evaluate(marker);
+            fail("Expected the marker to be unsupported: " + marker);
+        } catch (PypiEnvironmentMarkers.UnsupportedMarkerException e) {
+            // Expected
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.jfrog.ide.idea.scan;
+
+import com.intellij.openapi.util.io.FileUtil;
+import junit.framework.TestCase;
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * @author yahavi
+ */
+public class PypiMetadataReaderTest extends TestCase {
+    private final PypiEnvironmentMarkers markers = new PypiEnvironmentMarkers(createEnvironment("3.8.5", "linux"));
+    private PypiMetadataReader metadataReader;
+    private Path sitePackages;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        sitePackages = Files.createTempDirectory("site-packages");
+        metadataReader = new PypiMetadataReader();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        FileUtil.delete(sitePackages.toFile());
+        super.tearDown();
+    }
+
+    public void testReadPackages() throws IOException {
+        createDistInfo("requests", "2.25.1",
+                "chardet (<5,>=3.0.2)",
+                "idna (<3,>=2.5)",
+                "pyOpenSSL (>=0.14) ; extra == 'security'",
+                "win-inet-pton ; (sys_platform == \"win32\" and python_version == \"2.7\") and extra == 'socks'",
+                "importlib-metadata ; python_version < \"3.8\"",
+                "colorama ; sys_platform == \"win32\"",
+                "typing-extensions ; python_version < \"3.10\"");
+        createDistInfo("chardet", "4.0.0");
+        createDistInfo("idna", "2.10");
+
+        Map<String, PypiMetadataReader.PackageMetadata> packages = readPackages();
+        assertEquals(3, packages.size());
+        // Requirements whose markers don't match the SDK are skipped
+        PypiMetadataReader.PackageMetadata requests = packages.get("requests");
+        assertEquals("2.25.1", requests.getVersion());
+        assertEquals(sitePackages.toString(), requests.getLocation());
+        assertEquals(Arrays.asList("chardet", "idna", "typing-extensions"), requests.getRequirements());
+        assertEquals(Collections.emptyList(), packages.get("idna").getRequirements());
+    }
+
+    public void testParseRequirement() {
+        assertEquals("requests", PypiMetadataReader.parseRequirement(" requests[security] (>=2.8.1) ; python_version >= '3.8'", markers));
+        assertEquals("six", PypiMetadataReader.parseRequirement(" six>=1.9.0", markers));
+        assertEquals("typing-extensions", PypiMetadataReader.parseRequirement(" typing-extensions ; python_version < \"3.10\"", markers));
+        assertEquals("pip", PypiMetadataReader.parseRequirement(" pip @ https://github.com/pypa/pip/archive/1.3.1.zip", markers));
+        assertNull(PypiMetadataReader.parseRequirement(" requests ; python_version < '3.8'", markers));
+        assertNull(PypiMetadataReader.parseRequirement(" pytest ; extra=='test'", markers));
+        assertNull(PypiMetadataReader.parseRequirement(" pywin32 ; platform_system == 'Windows'", markers));
+        assertNull(PypiMetadataReader.parseRequirement(" ", markers));
+    }
+
+    public void testFoldedHeaders() throws IOException {
+        Path distInfo = Files.createDirectories(sitePackages.resolve("folded-1.0.0.dist-info"));
+        Files.write(distInfo.resolve("METADATA"), ("Metadata-Version: 2.1\n" +
+                "Name: folded\n" +
+                "Version: 1.0.0\n" +
+                "Requires-Dist: pywin32 ;\n" +
+                "  sys_platform == 'win32'\n" +
+                "Requires-Dist: six\n" +
+                "\t(>=1.9.0)\n").getBytes());
+        assertEquals(Collections.singletonList("six"), readPackages().get("folded").getRequirements());
+    }
+
+    public void testUnsupportedMarker() throws IOException {
+        // The requirements of the SDK can't be determined without pip
+        createDistInfo("pycparser", "2.20", "cffi ; implementation_name == 'cpython'");
+        assertNull(metadataReader.readPackages(Collections.singletonList(sitePackages), markers));
+    }
+
+    public void testCache() throws IOException {
+        createDistInfo("six", "1.15.0");
+        List<PypiMetadataReader.PackageMetadata> packages = metadataReader.readPackages(Collections.singletonList(sitePackages), markers);
+        assertSame(packages, metadataReader.readPackages(Collections.singletonList(sitePackages), markers));
+
+        // The requirements depend on the environment of the SDK
+        PypiEnvironmentMarkers otherMarkers = new PypiEnvironmentMarkers(createEnvironment("3.9.1", "linux"));
+        assertNotSame(packages, metadataReader.readPackages(Collections.singletonList(sitePackages), otherMarkers));
+
+        // Installing a package changes the modification time of the site-packages directory
+        createDistInfo("anytree", "2.8.0", "six (>=1.9.0)");
+        Files.setLastModifiedTime(sitePackages, FileTime.fromMillis(Files.getLastModifiedTime(sitePackages).toMillis() + 1000));
+        assertEquals(2, readPackages().size());
+    }
+
+    public void testEggInfo() throws IOException {
+        createDistInfo("six", "1.15.0");
+        Files.createDirectories(sitePackages.resolve("legacy-1.0.0.egg-info"));
+        assertNull(metadataReader.readPackages(Collections.singletonList(sitePackages), markers));
+    }
+
+    public void testNoDistInfo() throws IOException {
+        assertNull(metadataReader.readPackages(Collections.singletonList(sitePackages), markers));
+    }
+
+    private Map<String, PypiMetadataReader.PackageMetadata> readPackages() throws IOException {
+        List<PypiMetadataReader.PackageMetadata> packages = metadataReader.readPackages(Collections.singletonList(sitePackages), markers);
+        assertNotNull(packages);
+        return packages.stream().collect(Collectors.toMap(PypiMetadataReader.PackageMetadata::getName, Function.identity()));
+    }
+
+    static Map<String, String> createEnvironment(String pythonVersion, String platform) {
+        Map<String, String> environment = new HashMap<>();
+        environment.put("extra", "");
+        environment.put("python_full_version", pythonVersion);
+        environment.put("python_version", pythonVersion.substring(0, pythonVersion.lastIndexOf('.')));
+        environment.put("sys_platform", platform);
+        environment.put("platform_system", platform.equals("win32") ? "Windows" : StringUtils.capitalize(platform));
+        environment.put("os_name", platform.equals("win32") ? "nt" : "posix");
+        return environment;
+    }
+
+    private void createDistInfo(String name, String version, String... requirements) throws IOException {
+        Path distInfo = Files.createDirectories(sitePackages.resolve(name + "-" + version + ".dist-info"));
+        StringBuilder metadata = new StringBuilder()
+                .append("Metadata-Version: 2.1\n")
+                .append("Name: ").append(name).append("\n")
+                .append("Version: ").append(version).append("\n");
+        for (String requirement : requirements) {
+            metadata.append("Requires-Dist: ").append(requirement).append("\n");
+        }
+        // The description may contain lines which look like headers
+        metadata.append("\nRequires-Dist: not-a-requirement\n");
+        Files.write(distInfo.resolve("METADATA"), metadata.toString().getBytes());
+    }
+}
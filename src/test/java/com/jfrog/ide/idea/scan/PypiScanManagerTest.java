@@ -40,6 +40,7 @@ public class PypiScanManagerTest extends LightJavaCodeInsightFixtureTestCase {
     private static final String TRANSITIVE_DEPENDENCY_NAME = "anytree";
     private static final String TRANSITIVE_DEPENDENCY_VERSION = "2.8.0";
 
+    private PypiScanManager pypiScanManager;
     private Sdk pythonSdk;
     private File tmpDir;
 
@@ -53,6 +54,10 @@ public class PypiScanManagerTest extends LightJavaCodeInsightFixtureTestCase {
 
     @Override
     protected void tearDown() throws Exception {
+        // Unsubscribe from the SDK scanner, which is shared by the tests
+        if (pypiScanManager != null) {
+            pypiScanManager.dispose();
+        }
         if (tmpDir != null) {
             FileUtils.deleteDirectory(tmpDir);
         }
@@ -99,11 +104,10 @@ public class PypiScanManagerTest extends LightJavaCodeInsightFixtureTestCase {
     }
 
     public void testBuildTree() throws IOException {
-        PypiScanManager pypiScanManager = new PypiScanManager(getProject(), pythonSdk);
-        pypiScanManager.buildTree();
+        pypiScanManager = PypiScanManager.create(getProject(), pythonSdk);
+        DependencyTree results = pypiScanManager.buildTree();
 
         // Check root SDK node
-        DependencyTree results = pypiScanManager.getScanResults();
         assertEquals(SDK_NAME, results.getUserObject());
         assertEquals(Sets.newHashSet(new Scope()), results.getScopes());
         GeneralInfo generalInfo = results.getGeneralInfo();
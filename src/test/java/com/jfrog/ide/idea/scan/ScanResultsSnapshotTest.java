@@ -0,0 +1,78 @@
+package com.jfrog.ide.idea.scan;
+
+import com.intellij.openapi.util.io.FileUtil;
+import junit.framework.TestCase;
+import org.jfrog.build.extractor.scan.DependencyTree;
+import org.jfrog.build.extractor.scan.GeneralInfo;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+/**
+ * @author yahavi
+ */
+public class ScanResultsSnapshotTest extends TestCase {
+    private Path snapshotsDir;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        snapshotsDir = Files.createTempDirectory("scan-results-snapshots");
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        FileUtil.delete(snapshotsDir.toFile());
+        super.tearDown();
+    }
+
+    public void testReadWrite() throws IOException {
+        ScanResultsSnapshot snapshot = new ScanResultsSnapshot(snapshotsDir, "NpmScanManager:/project");
+        assertNull(snapshot.read());
+
+        DependencyTree root = new DependencyTree("project");
+        root.setGeneralInfo(new GeneralInfo().artifactId("project").version("1.0.0").path("/project").pkgType("npm"));
+        for (int i = 0; i < 1000; i++) {
+            DependencyTree child = new DependencyTree("package-" + i + ":1.0.0");
+            child.add(new DependencyTree("transitive:2.0.0"));
+            root.add(child);
+        }
+        snapshot.write(root);
+        snapshot.write(root);
+
+        DependencyTree restored = snapshot.read();
+        assertNotNull(restored);
+        assertEquals("project", restored.getUserObject());
+        assertEquals("npm", restored.getGeneralInfo().getPkgType());
+        assertEquals(1000, restored.getChildCount());
+        assertEquals("package-999:1.0.0", restored.getChildren().get(999).getUserObject());
+        assertEquals("transitive:2.0.0", restored.getChildren().get(999).getChildren().get(0).getUserObject());
+
+        // The previous snapshot is replaced, without leaving temporary files
+        try (Stream<Path> files = Files.list(snapshotsDir)) {
+            assertEquals(1, files.count());
+        }
+    }
+
+    public void testTruncatedSnapshot() throws IOException {
+        ScanResultsSnapshot snapshot = new ScanResultsSnapshot(snapshotsDir, "GoScanManager:/project");
+        DependencyTree root = new DependencyTree("project");
+        root.add(new DependencyTree("a:1.0.0"));
+        snapshot.write(root);
+
+        Path snapshotFile;
+        try (Stream<Path> files = Files.list(snapshotsDir)) {
+            snapshotFile = files.findFirst().orElseThrow();
+        }
+        byte[] content = Files.readAllBytes(snapshotFile);
+        Files.write(snapshotFile, Arrays.copyOf(content, content.length / 2));
+        try {
+            assertNull(snapshot.read());
+        } catch (IOException e) {
+            // A truncated compressed stream may also be reported as an error
+        }
+    }
+}
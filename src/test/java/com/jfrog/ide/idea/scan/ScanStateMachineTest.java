@@ -0,0 +1,234 @@
+package com.jfrog.ide.idea.scan;
+
+import junit.framework.TestCase;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * @author yahavi
+ */
+public class ScanStateMachineTest extends TestCase {
+    private static final long DEBOUNCE_MILLIS = 100;
+    private static final long TIMEOUT_SECONDS = 10;
+
+    private final AtomicInteger scansCount = new AtomicInteger();
+    private final AtomicInteger fullScansCount = new AtomicInteger();
+    private final AtomicLong startDelay = new AtomicLong();
+    private ScheduledExecutorService scheduler;
+    private ExecutorService scanExecutor;
+    private BlockingQueue<CountDownLatch> runningScans;
+    private ScanStateMachine scanStateMachine;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+        scanExecutor = Executors.newSingleThreadExecutor();
+        runningScans = new LinkedBlockingQueue<>();
+        scansCount.set(0);
+        fullScansCount.set(0);
+        startDelay.set(0);
+        // Each scan runs until its latch is released, like an asynchronous background task
+        scanStateMachine = new ScanStateMachine(scheduler, DEBOUNCE_MILLIS, startDelay::get, () -> {
+            scansCount.incrementAndGet();
+            if (scanStateMachine.takeFullScanRequest()) {
+                fullScansCount.incrementAndGet();
+            }
+            CountDownLatch scanLatch = new CountDownLatch(1);
+            runningScans.add(scanLatch);
+            scanExecutor.submit(() -> {
+                scanLatch.await();
+                scanStateMachine.finish();
+                return null;
+            });
+        });
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        scheduler.shutdownNow();
+        scanExecutor.shutdownNow();
+        super.tearDown();
+    }
+
+    public void testBurstCoalescedIntoSingleScan() throws InterruptedException {
+        fireChangeEvents(1000);
+        assertEquals(ScanStateMachine.State.DEBOUNCING, scanStateMachine.getState());
+
+        completeNextScan();
+        waitForIdle();
+        assertEquals(1, scansCount.get());
+    }
+
+    public void testChangesDuringScanTriggerSingleRescan() throws InterruptedException {
+        fireChangeEvents(10);
+        CountDownLatch firstScan = takeRunningScan();
+        assertEquals(ScanStateMachine.State.RUNNING, scanStateMachine.getState());
+
+        // Changes made during the scan are not lost
+        fireChangeEvents(500);
+        assertEquals(ScanStateMachine.State.RUNNING_WITH_PENDING_RESCAN, scanStateMachine.getState());
+        assertEquals(1, scansCount.get());
+
+        // All changes are coalesced into exactly one follow-up scan
+        firstScan.countDown();
+        completeNextScan();
+        waitForIdle();
+        assertEquals(2, scansCount.get());
+    }
+
+    public void testSeveralBurstsDuringScans() throws InterruptedException {
+        fireChangeEvents(100);
+        CountDownLatch firstScan = takeRunningScan();
+        fireChangeEvents(100);
+        firstScan.countDown();
+
+        CountDownLatch secondScan = takeRunningScan();
+        fireChangeEvents(100);
+        secondScan.countDown();
+
+        completeNextScan();
+        waitForIdle();
+        assertEquals(3, scansCount.get());
+    }
+
+    public void testExplicitScanCancelsDebounce() throws InterruptedException {
+        fireChangeEvents(100);
+        assertTrue(scanStateMachine.tryStart());
+        assertFalse(scanStateMachine.tryStart());
+        assertTrue(scanStateMachine.isScanInProgress());
+        scanStateMachine.finish();
+
+        // The debounced scan is covered by the explicit scan
+        Thread.sleep(DEBOUNCE_MILLIS * 3);
+        assertEquals(ScanStateMachine.State.IDLE, scanStateMachine.getState());
+        assertEquals(0, scansCount.get());
+    }
+
+    public void testChangesDuringExplicitScan() throws InterruptedException {
+        assertTrue(scanStateMachine.tryStart());
+        fireChangeEvents(100);
+        scanStateMachine.finish();
+
+        completeNextScan();
+        waitForIdle();
+        assertEquals(1, scansCount.get());
+    }
+
+    public void testDeferredScan() throws InterruptedException {
+        // The IDE is busy
+        startDelay.set(DEBOUNCE_MILLIS);
+        fireChangeEvents(10);
+        Thread.sleep(DEBOUNCE_MILLIS * 4);
+        assertEquals(ScanStateMachine.State.DEBOUNCING, scanStateMachine.getState());
+        assertEquals(0, scansCount.get());
+
+        // The IDE became idle
+        startDelay.set(0);
+        completeNextScan();
+        waitForIdle();
+        assertEquals(1, scansCount.get());
+    }
+
+    public void testSkippedScan() throws InterruptedException {
+        startDelay.set(-1);
+        fireChangeEvents(10);
+        waitForIdle();
+        assertEquals(0, scansCount.get());
+
+        // Explicit scans are never deferred or skipped
+        assertTrue(scanStateMachine.tryStart());
+        scanStateMachine.finish();
+        assertEquals(ScanStateMachine.State.IDLE, scanStateMachine.getState());
+    }
+
+    public void testCancelScheduledScan() throws InterruptedException {
+        fireChangeEvents(10);
+        assertEquals(ScanStateMachine.State.DEBOUNCING, scanStateMachine.getState());
+        scanStateMachine.cancel();
+        assertEquals(ScanStateMachine.State.IDLE, scanStateMachine.getState());
+
+        // Requests after the cancellation are ignored
+        fireChangeEvents(10);
+        waitForIdle();
+        assertEquals(0, scansCount.get());
+    }
+
+    public void testCancelPendingRescan() throws InterruptedException {
+        fireChangeEvents(10);
+        CountDownLatch firstScan = takeRunningScan();
+        fireChangeEvents(10);
+        assertEquals(ScanStateMachine.State.RUNNING_WITH_PENDING_RESCAN, scanStateMachine.getState());
+
+        // The running scan ends normally, but the follow-up scan is dropped
+        scanStateMachine.cancel();
+        assertEquals(ScanStateMachine.State.RUNNING, scanStateMachine.getState());
+        firstScan.countDown();
+        waitForIdle();
+        assertEquals(1, scansCount.get());
+    }
+
+    public void testFullScanDuringScan() throws InterruptedException {
+        // An explicit full scan arrives while a quick scan is running
+        assertTrue(scanStateMachine.tryStart(false));
+        assertFalse(scanStateMachine.tryStart(true));
+        scanStateMachine.requestFullScan();
+        fireChangeEvents(10);
+        assertEquals(ScanStateMachine.State.RUNNING_WITH_PENDING_RESCAN, scanStateMachine.getState());
+        scanStateMachine.finish();
+
+        // The full scan runs once after the running scan, and covers the other requests
+        completeNextScan();
+        waitForIdle();
+        assertEquals(1, scansCount.get());
+        assertEquals(1, fullScansCount.get());
+    }
+
+    public void testFullScanCoveredByExplicitFullScan() throws InterruptedException {
+        scanStateMachine.requestFullScan();
+        assertTrue(scanStateMachine.tryStart(true));
+        scanStateMachine.finish();
+        waitForIdle();
+        assertEquals(0, scansCount.get());
+    }
+
+    public void testFullScanNotCoveredByExplicitQuickScan() throws InterruptedException {
+        scanStateMachine.requestFullScan();
+        assertTrue(scanStateMachine.tryStart(false));
+        assertEquals(ScanStateMachine.State.RUNNING_WITH_PENDING_RESCAN, scanStateMachine.getState());
+        scanStateMachine.finish();
+
+        completeNextScan();
+        waitForIdle();
+        assertEquals(1, fullScansCount.get());
+    }
+
+    private void fireChangeEvents(int count) {
+        for (int i = 0; i < count; i++) {
+            scanStateMachine.requestScan();
+        }
+    }
+
+    private CountDownLatch takeRunningScan() throws InterruptedException {
+        CountDownLatch scanLatch = runningScans.poll(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        assertNotNull("Timeout waiting for a scan to start", scanLatch);
+        return scanLatch;
+    }
+
+    private void completeNextScan() throws InterruptedException {
+        takeRunningScan().countDown();
+    }
+
+    private void waitForIdle() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS);
+        while (scanStateMachine.getState() != ScanStateMachine.State.IDLE) {
+            assertTrue("Timeout waiting for the scan state machine to become idle", System.currentTimeMillis() < deadline);
+            Thread.sleep(10);
+        }
+        // Make sure no further scans are scheduled
+        Thread.sleep(DEBOUNCE_MILLIS * 3);
+        assertEquals(ScanStateMachine.State.IDLE, scanStateMachine.getState());
+    }
+}
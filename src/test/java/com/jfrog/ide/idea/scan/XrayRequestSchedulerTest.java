@@ -0,0 +1,253 @@
+package com.jfrog.ide.idea.scan;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import junit.framework.TestCase;
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Test the request scheduler against a mock Xray server.
+ *
+ * @author yahavi
+ */
+public class XrayRequestSchedulerTest extends TestCase {
+    private static final String SUMMARY_API = "/api/v1/summary/component";
+
+    private final Set<String> receivedComponents = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger requestsCount = new AtomicInteger();
+    private ExecutorService serverExecutor;
+    private HttpServer server;
+    private volatile HttpHandler xrayHandler;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        serverExecutor = Executors.newCachedThreadPool();
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext(SUMMARY_API, exchange -> xrayHandler.handle(exchange));
+        server.setExecutor(serverExecutor);
+        server.start();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        server.stop(0);
+        serverExecutor.shutdownNow();
+        super.tearDown();
+    }
+
+    public void testSendAllComponents() throws Exception {
+        xrayHandler = exchange -> respond(exchange, readComponents(exchange), 200);
+        XrayRequestScheduler scheduler = createScheduler(4, 60, 3);
+        List<String> components = createComponents(1000);
+
+        scheduler.execute(components, batch -> sendToXray(scheduler, batch), () -> false, () -> {
+        });
+        assertEquals(new HashSet<>(components), receivedComponents);
+        // Fast responses grow the batches
+        assertTrue(scheduler.getBatchSize() > XrayRequestScheduler.INITIAL_BATCH_SIZE);
+        assertTrue(requestsCount.get() < 1000 / XrayRequestScheduler.INITIAL_BATCH_SIZE);
+    }
+
+    public void testShrinkBatchesOnErrors() throws Exception {
+        // The mock Xray rejects requests of more than 25 components
+        xrayHandler = exchange -> {
+            List<String> components = readComponents(exchange);
+            if (components.size() > 25) {
+                respond(exchange, Collections.emptyList(), 503);
+                return;
+            }
+            respond(exchange, components, 200);
+        };
+        XrayRequestScheduler scheduler = createScheduler(4, 60, 5);
+        List<String> components = createComponents(500);
+
+        scheduler.execute(components, batch -> sendToXray(scheduler, batch), () -> false, () -> {
+        });
+        assertEquals(new HashSet<>(components), receivedComponents);
+        assertTrue(scheduler.getBatchSize() < XrayRequestScheduler.INITIAL_BATCH_SIZE);
+    }
+
+    public void testShrinkBatchesOnSlowResponses() throws Exception {
+        // 3 milliseconds per component. With a timeout of 1 second, batches should take less than 250 milliseconds.
+        xrayHandler = exchange -> {
+            List<String> components = readComponents(exchange);
+            sleep(components.size() * 3L);
+            respond(exchange, components, 200);
+        };
+        XrayRequestScheduler scheduler = createScheduler(4, 1, 3);
+        List<String> components = createComponents(300);
+
+        scheduler.execute(components, batch -> sendToXray(scheduler, batch), () -> false, () -> {
+        });
+        assertEquals(new HashSet<>(components), receivedComponents);
+        assertTrue(scheduler.getBatchSize() < XrayRequestScheduler.INITIAL_BATCH_SIZE);
+        assertTrue(scheduler.getBatchSize() >= XrayRequestScheduler.MIN_BATCH_SIZE);
+    }
+
+    public void testBoundConcurrentRequests() throws Exception {
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        xrayHandler = exchange -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                List<String> components = readComponents(exchange);
+                sleep(50);
+                respond(exchange, components, 200);
+            } finally {
+                inFlight.decrementAndGet();
+            }
+        };
+        XrayRequestScheduler scheduler = createScheduler(2, 60, 3);
+
+        // Simulate 6 scan managers scanning at the same time
+        ExecutorService scanManagers = Executors.newFixedThreadPool(6);
+        try {
+            List<Future<?>> scans = new ArrayList<>();
+            for (int i = 0; i < 6; i++) {
+                List<String> components = createComponents(i * 1000, 200);
+                scans.add(scanManagers.submit(() -> {
+                    scheduler.execute(components, batch -> sendToXray(scheduler, batch), () -> false, () -> {
+                    });
+                    return null;
+                }));
+            }
+            for (Future<?> scan : scans) {
+                scan.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            scanManagers.shutdownNow();
+        }
+        assertEquals(1200, receivedComponents.size());
+        assertTrue(maxInFlight.get() <= 2);
+    }
+
+    public void testRetries() throws Exception {
+        AtomicInteger failures = new AtomicInteger(2);
+        xrayHandler = exchange -> {
+            List<String> components = readComponents(exchange);
+            respond(exchange, components, failures.getAndDecrement() > 0 ? 500 : 200);
+        };
+        XrayRequestScheduler scheduler = createScheduler(4, 60, 2);
+        List<String> components = createComponents(50);
+
+        scheduler.execute(components, batch -> sendToXray(scheduler, batch), () -> false, () -> {
+        });
+        assertEquals(new HashSet<>(components), receivedComponents);
+        // Two failed attempts, then the components are sent in two smaller batches
+        assertEquals(4, requestsCount.get());
+    }
+
+    public void testRetriesExhausted() {
+        xrayHandler = exchange -> respond(exchange, readComponents(exchange), 500);
+        XrayRequestScheduler scheduler = createScheduler(4, 60, 1);
+        try {
+            scheduler.execute(createComponents(50), batch -> sendToXray(scheduler, batch), () -> false, () -> {
+            });
+            fail("Expected the scan to fail");
+        } catch (Exception e) {
+            assertTrue(e instanceof IOException);
+        }
+        // The first attempt and a single retry
+        assertEquals(2, requestsCount.get());
+    }
+
+    public void testCanceled() {
+        xrayHandler = exchange -> respond(exchange, readComponents(exchange), 200);
+        XrayRequestScheduler scheduler = createScheduler(4, 60, 3);
+        try {
+            scheduler.execute(createComponents(1000), batch -> sendToXray(scheduler, batch), () -> false, () -> {
+                if (requestsCount.get() > 0) {
+                    throw new CancellationException();
+                }
+            });
+            fail("Expected the scan to be canceled");
+        } catch (CancellationException e) {
+            // Expected
+        } catch (Exception e) {
+            fail("Unexpected exception: " + e);
+        }
+        assertEquals(1, requestsCount.get());
+    }
+
+    private XrayRequestScheduler createScheduler(int maxConcurrentRequests, int connectionTimeout, int connectionRetries) {
+        return new XrayRequestScheduler(new PriorityLimiter(maxConcurrentRequests), () -> connectionTimeout, () -> connectionRetries, 10);
+    }
+
+    /**
+     * Send the components to the mock Xray, as the component summary request does.
+     */
+    private void sendToXray(XrayRequestScheduler scheduler, List<String> components) throws IOException {
+        String body = components.stream()
+                .map(component -> "{\"component_id\":\"" + component + "\"}")
+                .collect(Collectors.joining(",", "{\"component_details\":[", "]}"));
+        HttpURLConnection connection = (HttpURLConnection) new URL("http://127.0.0.1:" + server.getAddress().getPort() + SUMMARY_API).openConnection();
+        connection.setConnectTimeout((int) scheduler.getConnectionTimeoutMillis());
+        connection.setReadTimeout((int) scheduler.getConnectionTimeoutMillis());
+        connection.setRequestMethod("POST");
+        connection.setDoOutput(true);
+        try (OutputStream out = connection.getOutputStream()) {
+            out.write(body.getBytes(StandardCharsets.UTF_8));
+        }
+        int responseCode = connection.getResponseCode();
+        if (responseCode != 200) {
+            throw new IOException("Xray responded with " + responseCode);
+        }
+        try (InputStream in = connection.getInputStream()) {
+            in.readAllBytes();
+        }
+    }
+
+    private List<String> readComponents(HttpExchange exchange) throws IOException {
+        requestsCount.incrementAndGet();
+        String body;
+        try (InputStream in = exchange.getRequestBody()) {
+            body = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        return Arrays.stream(StringUtils.substringsBetween(body, "\"component_id\":\"", "\""))
+                .collect(Collectors.toList());
+    }
+
+    private void respond(HttpExchange exchange, List<String> components, int responseCode) throws IOException {
+        if (responseCode == 200) {
+            receivedComponents.addAll(components);
+        }
+        byte[] response = "{\"artifacts\":[]}".getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(responseCode, response.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(response);
+        }
+    }
+
+    private static List<String> createComponents(int count) {
+        return createComponents(0, count);
+    }
+
+    private static List<String> createComponents(int from, int count) {
+        return IntStream.range(from, from + count)
+                .mapToObj(i -> "gav://group:artifact-" + i + ":1.0.0")
+                .collect(Collectors.toList());
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}